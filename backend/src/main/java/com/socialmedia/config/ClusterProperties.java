@@ -0,0 +1,14 @@
+package com.socialmedia.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.cluster")
+@Data
+public class ClusterProperties {
+    
+    // More than one node serves the same database: node-local caches, indexes and files are not authoritative
+    private boolean enabled = false;
+}
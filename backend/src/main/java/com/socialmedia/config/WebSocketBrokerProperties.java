@@ -0,0 +1,39 @@
+package com.socialmedia.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.websocket.broker")
+@Data
+public class WebSocketBrokerProperties {
+    
+    public enum Mode {
+        SIMPLE,
+        RELAY
+    }
+    
+    private Mode mode = Mode.SIMPLE;
+    
+    private Relay relay = new Relay();
+    
+    @Data
+    public static class Relay {
+        private String host = "localhost";
+        private int port = 61613;
+        private String virtualHost;
+        
+        private String clientLogin = "guest";
+        private String clientPasscode = "guest";
+        private String systemLogin = "guest";
+        private String systemPasscode = "guest";
+        
+        private long systemHeartbeatSendIntervalMs = 10000;
+        private long systemHeartbeatReceiveIntervalMs = 10000;
+        
+        // Shared with the other nodes so user destinations resolve wherever the session lives
+        private String userDestinationBroadcast = "/topic/unresolved-user-destination";
+        private String userRegistryBroadcast = "/topic/simp-user-registry";
+    }
+}
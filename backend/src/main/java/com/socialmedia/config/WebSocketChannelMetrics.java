@@ -0,0 +1,78 @@
+package com.socialmedia.config;
+
+import com.socialmedia.shared.metrics.MetricsSource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class WebSocketChannelMetrics implements MetricsSource {
+    
+    private final Map<String, ChannelStats> channels = new ConcurrentHashMap<>();
+    
+    // Registered when the channel is configured; the executor is initialized later by the broker configuration
+    void register(String channel, ThreadPoolTaskExecutor executor) {
+        stats(channel).executor = executor;
+    }
+    
+    ChannelInterceptor messageCounter(String channel) {
+        ChannelStats stats = stats(channel);
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel messageChannel) {
+                stats.messages.incrementAndGet();
+                return message;
+            }
+        };
+    }
+    
+    RejectedExecutionHandler rejectionCounter(String channel) {
+        ChannelStats stats = stats(channel);
+        RejectedExecutionHandler delegate = new ThreadPoolExecutor.AbortPolicy();
+        return (task, executor) -> {
+            stats.rejected.incrementAndGet();
+            delegate.rejectedExecution(task, executor);
+        };
+    }
+    
+    private ChannelStats stats(String channel) {
+        return channels.computeIfAbsent(channel, name -> new ChannelStats());
+    }
+    
+    @Override
+    public String getMetricsName() {
+        return "websocket-channels";
+    }
+    
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        channels.forEach((channel, stats) -> {
+            metrics.put(channel + ".messages", stats.messages.get());
+            metrics.put(channel + ".rejected", stats.rejected.get());
+            ThreadPoolTaskExecutor executor = stats.executor;
+            if (executor != null) {
+                ThreadPoolExecutor pool = executor.getThreadPoolExecutor();
+                metrics.put(channel + ".queueDepth", pool.getQueue().size());
+                metrics.put(channel + ".activeThreads", pool.getActiveCount());
+                metrics.put(channel + ".poolSize", pool.getPoolSize());
+            }
+        });
+        return metrics;
+    }
+    
+    private static final class ChannelStats {
+        private final AtomicLong messages = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private volatile ThreadPoolTaskExecutor executor;
+    }
+}
@@ -0,0 +1,34 @@
+package com.socialmedia.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.websocket")
+@Data
+public class WebSocketChannelProperties {
+    
+    private Channel inbound = new Channel();
+    private Channel outbound = new Channel();
+    private Transport transport = new Transport();
+    
+    @Data
+    public static class Channel {
+        private int corePoolSize = 16;
+        private int maxPoolSize = 64;
+        private int queueCapacity = 10000;
+        private int keepAliveSeconds = 60;
+        
+        // Only honoured on a JDK with virtual threads; otherwise platform threads are used
+        private boolean virtualThreads = false;
+    }
+    
+    @Data
+    public static class Transport {
+        private int sendTimeLimitMs = 5000;
+        private int sendBufferSizeLimit = 256 * 1024;
+        private int messageSizeLimit = 64 * 1024;
+        private int timeToFirstMessageMs = 30000;
+    }
+}
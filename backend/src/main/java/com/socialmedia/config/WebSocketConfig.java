@@ -1,22 +1,96 @@
 package com.socialmedia.config;
 
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
+@Slf4j
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final WebSocketBrokerProperties brokerProperties;
+    private final WebSocketChannelProperties channelProperties;
+    private final WebSocketChannelMetrics channelMetrics;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        if (brokerProperties.getMode() == WebSocketBrokerProperties.Mode.RELAY) {
+            WebSocketBrokerProperties.Relay relay = brokerProperties.getRelay();
+            log.info("Relaying STOMP destinations to broker at {}:{}", relay.getHost(), relay.getPort());
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relay.getHost())
+                    .setRelayPort(relay.getPort())
+                    .setVirtualHost(relay.getVirtualHost())
+                    .setClientLogin(relay.getClientLogin())
+                    .setClientPasscode(relay.getClientPasscode())
+                    .setSystemLogin(relay.getSystemLogin())
+                    .setSystemPasscode(relay.getSystemPasscode())
+                    .setSystemHeartbeatSendInterval(relay.getSystemHeartbeatSendIntervalMs())
+                    .setSystemHeartbeatReceiveInterval(relay.getSystemHeartbeatReceiveIntervalMs())
+                    .setUserDestinationBroadcast(relay.getUserDestinationBroadcast())
+                    .setUserRegistryBroadcast(relay.getUserRegistryBroadcast());
+        } else {
+            config.enableSimpleBroker("/topic", "/queue");
+        }
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
     }
 
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Message handlers run blocking JPA work, so keep them off a shared, unbounded default pool
+        registration.taskExecutor(channelExecutor("inbound", channelProperties.getInbound()));
+        registration.interceptors(channelMetrics.messageCounter("inbound"));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(channelExecutor("outbound", channelProperties.getOutbound()));
+        registration.interceptors(channelMetrics.messageCounter("outbound"));
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A client that cannot drain its buffer within these limits is disconnected instead of stalling delivery
+        WebSocketChannelProperties.Transport transport = channelProperties.getTransport();
+        registration.setSendTimeLimit(transport.getSendTimeLimitMs())
+                .setSendBufferSizeLimit(transport.getSendBufferSizeLimit())
+                .setMessageSizeLimit(transport.getMessageSizeLimit())
+                .setTimeToFirstMessage(transport.getTimeToFirstMessageMs());
+    }
+
+    private ThreadPoolTaskExecutor channelExecutor(String channel, WebSocketChannelProperties.Channel settings) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("ws-" + channel + "-");
+        executor.setCorePoolSize(settings.getCorePoolSize());
+        executor.setMaxPoolSize(settings.getMaxPoolSize());
+        executor.setQueueCapacity(settings.getQueueCapacity());
+        executor.setKeepAliveSeconds(settings.getKeepAliveSeconds());
+        executor.setRejectedExecutionHandler(channelMetrics.rejectionCounter(channel));
+        if (settings.isVirtualThreads()) {
+            try {
+                executor.setThreadFactory(new VirtualThreadTaskExecutor("ws-" + channel + "-").getVirtualThreadFactory());
+                // Virtual threads are cheap, so run every handler concurrently up to the cap instead of queueing
+                executor.setCorePoolSize(settings.getMaxPoolSize());
+                executor.setAllowCoreThreadTimeOut(true);
+            } catch (UnsupportedOperationException e) {
+                log.warn("Virtual threads are not available on this JDK; {} channel uses platform threads", channel);
+            }
+        }
+        channelMetrics.register(channel, executor);
+        return executor;
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
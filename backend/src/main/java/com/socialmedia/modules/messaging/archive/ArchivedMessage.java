@@ -0,0 +1,6 @@
+package com.socialmedia.modules.messaging.archive;
+
+import java.time.LocalDateTime;
+
+public record ArchivedMessage(Long id, Long senderId, Long receiverId, String content, LocalDateTime createdAt) {
+}
@@ -0,0 +1,369 @@
+package com.socialmedia.modules.messaging.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Append-only archive of one conversation: a data file of deflated message blocks in
+ * (createdAt, id) order, a sparse index holding one fixed-size entry per block and a
+ * tombstone file of messages their sender deleted after archiving.
+ * Only the node holding the archive lock appends blocks; every node may read and add
+ * tombstones, so readers pick up entries other nodes wrote before each access.
+ */
+class ConversationArchive {
+
+    // firstAt(12) firstId(8) lastAt(12) lastId(8) offset(8) length(4) count(4)
+    private static final int INDEX_ENTRY_BYTES = 56;
+    // messageId(8) block(4)
+    private static final int TOMBSTONE_BYTES = 12;
+
+    private final Path dataFile;
+    private final Path indexFile;
+    private final Path tombstoneFile;
+    private final List<Block> blocks = new ArrayList<>();
+    private final Set<Long> deleted = new HashSet<>();
+    private final Map<Integer, Integer> deletedPerBlock = new HashMap<>();
+    private long dataEnd;
+    private long messageCount;
+    private long tombstonesRead;
+    private MappedByteBuffer mapped;
+
+    private ConversationArchive(Path dataFile, Path indexFile, Path tombstoneFile) {
+        this.dataFile = dataFile;
+        this.indexFile = indexFile;
+        this.tombstoneFile = tombstoneFile;
+    }
+
+    static ConversationArchive open(Path directory, String name) throws IOException {
+        ConversationArchive archive = new ConversationArchive(directory.resolve(name + ".seg"),
+                directory.resolve(name + ".idx"), directory.resolve(name + ".del"));
+        archive.refresh();
+        return archive;
+    }
+
+    // Reads index entries and tombstones appended since the last call. A torn trailing entry is
+    // not read: its block was never acknowledged and its rows are still in the database.
+    private void refresh() throws IOException {
+        if (Files.exists(indexFile)) {
+            long known = (long) blocks.size() * INDEX_ENTRY_BYTES;
+            ByteBuffer buffer = readFrom(indexFile, known, INDEX_ENTRY_BYTES);
+            while (buffer.remaining() >= INDEX_ENTRY_BYTES) {
+                Block block = Block.read(buffer);
+                blocks.add(block);
+                dataEnd = block.offset + block.length;
+                messageCount += block.count;
+                mapped = null;
+            }
+        }
+        if (Files.exists(tombstoneFile)) {
+            ByteBuffer buffer = readFrom(tombstoneFile, tombstonesRead, TOMBSTONE_BYTES);
+            while (buffer.remaining() >= TOMBSTONE_BYTES) {
+                long messageId = buffer.getLong();
+                int block = buffer.getInt();
+                tombstonesRead += TOMBSTONE_BYTES;
+                if (deleted.add(messageId)) {
+                    deletedPerBlock.merge(block, 1, Integer::sum);
+                }
+            }
+        }
+    }
+
+    private static ByteBuffer readFrom(Path file, long position, int entryBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long complete = (channel.size() - position) / entryBytes * entryBytes;
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.max(0, complete));
+            while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) >= 0) {
+                // keep reading until the complete entries are in
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    synchronized long count() throws IOException {
+        refresh();
+        return messageCount - deleted.size();
+    }
+
+    // Appends messages sorted oldest first; anything at or before the archived tail is already stored
+    synchronized int append(List<ArchivedMessage> messages, int blockSize) throws IOException {
+        refresh();
+        List<ArchivedMessage> fresh = new ArrayList<>(messages.size());
+        Block tail = blocks.isEmpty() ? null : blocks.get(blocks.size() - 1);
+        for (ArchivedMessage message : messages) {
+            if (tail == null || isBefore(tail.lastAt, tail.lastId, message.createdAt(), message.id())) {
+                fresh.add(message);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return 0;
+        }
+
+        List<Block> written = new ArrayList<>();
+        try (FileChannel data = FileChannel.open(dataFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileChannel index = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Drop whatever an interrupted run left past the last complete block before writing after it
+            index.truncate((long) blocks.size() * INDEX_ENTRY_BYTES);
+            data.truncate(dataEnd);
+            long offset = dataEnd;
+            for (int from = 0; from < fresh.size(); from += blockSize) {
+                List<ArchivedMessage> chunk = fresh.subList(from, Math.min(from + blockSize, fresh.size()));
+                byte[] compressed = compress(encode(chunk));
+                ByteBuffer payload = ByteBuffer.wrap(compressed);
+                while (payload.hasRemaining()) {
+                    offset += data.write(payload, offset);
+                }
+                ArchivedMessage first = chunk.get(0);
+                ArchivedMessage last = chunk.get(chunk.size() - 1);
+                written.add(new Block(first.createdAt(), first.id(), last.createdAt(), last.id(),
+                        offset - compressed.length, compressed.length, chunk.size()));
+            }
+            // Data must be durable before the index points at it, and both before the rows are deleted
+            data.force(true);
+            ByteBuffer entries = ByteBuffer.allocate(written.size() * INDEX_ENTRY_BYTES);
+            written.forEach(block -> block.write(entries));
+            entries.flip();
+            long position = (long) blocks.size() * INDEX_ENTRY_BYTES;
+            while (entries.hasRemaining()) {
+                position += index.write(entries, position);
+            }
+            index.force(true);
+            dataEnd = offset;
+        }
+        blocks.addAll(written);
+        messageCount += fresh.size();
+        mapped = null;
+        return fresh.size();
+    }
+
+    // Newest first, strictly before the given position
+    synchronized List<ArchivedMessage> readBefore(LocalDateTime createdAt, long id, int limit) throws IOException {
+        refresh();
+        List<ArchivedMessage> result = new ArrayList<>(limit);
+        for (int b = blocks.size() - 1; b >= 0 && result.size() < limit; b--) {
+            Block block = blocks.get(b);
+            if (!isBefore(block.firstAt, block.firstId, createdAt, id)) {
+                continue;
+            }
+            List<ArchivedMessage> messages = live(decode(block));
+            for (int i = messages.size() - 1; i >= 0 && result.size() < limit; i--) {
+                if (isBefore(messages.get(i).createdAt(), messages.get(i).id(), createdAt, id)) {
+                    result.add(messages.get(i));
+                }
+            }
+        }
+        return result;
+    }
+
+    // Newest first, skipping the newest `offset` archived messages
+    synchronized List<ArchivedMessage> read(long offset, int limit) throws IOException {
+        refresh();
+        List<ArchivedMessage> result = new ArrayList<>(limit);
+        long skip = offset;
+        for (int b = blocks.size() - 1; b >= 0 && result.size() < limit; b--) {
+            Block block = blocks.get(b);
+            int liveCount = block.count - deletedPerBlock.getOrDefault(b, 0);
+            if (skip >= liveCount) {
+                skip -= liveCount;
+                continue;
+            }
+            List<ArchivedMessage> messages = live(decode(block));
+            Collections.reverse(messages);
+            int from = (int) skip;
+            skip = 0;
+            for (int i = from; i < messages.size() && result.size() < limit; i++) {
+                result.add(messages.get(i));
+            }
+        }
+        return result;
+    }
+
+    // The archived message with this id, or null if it is not here or already deleted
+    synchronized ArchivedMessage find(long messageId) throws IOException {
+        refresh();
+        int b = locate(messageId);
+        return b < 0 ? null : decode(blocks.get(b)).stream()
+                .filter(message -> message.id() == messageId)
+                .findFirst()
+                .orElse(null);
+    }
+
+    // Hides an archived message from every reader; the block itself is never rewritten
+    synchronized boolean delete(long messageId) throws IOException {
+        refresh();
+        int b = locate(messageId);
+        if (b < 0) {
+            return false;
+        }
+        try (FileChannel tombstones = FileChannel.open(tombstoneFile, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock lock = tombstones.lock()) {
+            // Other nodes append here too; a torn entry from a crashed writer is overwritten
+            long position = tombstones.size() / TOMBSTONE_BYTES * TOMBSTONE_BYTES;
+            ByteBuffer entry = ByteBuffer.allocate(TOMBSTONE_BYTES).putLong(messageId).putInt(b);
+            entry.flip();
+            while (entry.hasRemaining()) {
+                position += tombstones.write(entry, position);
+            }
+            tombstones.truncate(position);
+            tombstones.force(true);
+        }
+        refresh();
+        return true;
+    }
+
+    private int locate(long messageId) throws IOException {
+        if (deleted.contains(messageId)) {
+            return -1;
+        }
+        for (int b = blocks.size() - 1; b >= 0; b--) {
+            for (ArchivedMessage message : decode(blocks.get(b))) {
+                if (message.id() == messageId) {
+                    return b;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private List<ArchivedMessage> live(List<ArchivedMessage> messages) {
+        if (deleted.isEmpty()) {
+            return messages;
+        }
+        messages.removeIf(message -> deleted.contains(message.id()));
+        return messages;
+    }
+
+    private List<ArchivedMessage> decode(Block block) throws IOException {
+        if (mapped == null) {
+            try (FileChannel data = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+                mapped = data.map(FileChannel.MapMode.READ_ONLY, 0, dataEnd);
+            }
+        }
+        ByteBuffer slice = mapped.slice((int) block.offset, block.length);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(slice);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(block.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated archive block at offset " + block.offset + " in " + dataFile);
+                }
+                out.write(buffer, 0, n);
+            }
+            return decodeMessages(out.toByteArray());
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt archive block at offset " + block.offset + " in " + dataFile, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static boolean isBefore(LocalDateTime createdAt, long id, LocalDateTime otherCreatedAt, long otherId) {
+        int byTime = createdAt.compareTo(otherCreatedAt);
+        return byTime < 0 || (byTime == 0 && id < otherId);
+    }
+
+    private static byte[] encode(List<ArchivedMessage> messages) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(messages.size());
+            for (ArchivedMessage message : messages) {
+                out.writeLong(message.id());
+                out.writeLong(message.senderId());
+                out.writeLong(message.receiverId());
+                out.writeLong(message.createdAt().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(message.createdAt().getNano());
+                if (message.content() == null) {
+                    out.writeInt(-1);
+                    continue;
+                }
+                byte[] content = message.content().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(content.length);
+                out.write(content);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<ArchivedMessage> decodeMessages(byte[] raw) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw))) {
+            int count = in.readInt();
+            List<ArchivedMessage> messages = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long id = in.readLong();
+                long senderId = in.readLong();
+                long receiverId = in.readLong();
+                LocalDateTime createdAt = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+                int length = in.readInt();
+                String content = null;
+                if (length >= 0) {
+                    byte[] bytes = new byte[length];
+                    in.readFully(bytes);
+                    content = new String(bytes, StandardCharsets.UTF_8);
+                }
+                messages.add(new ArchivedMessage(id, senderId, receiverId, content, createdAt));
+            }
+            return messages;
+        }
+    }
+
+    private static byte[] compress(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private record Block(LocalDateTime firstAt, long firstId, LocalDateTime lastAt, long lastId,
+                         long offset, int length, int count) {
+
+        static Block read(ByteBuffer buffer) {
+            LocalDateTime firstAt = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+            long firstId = buffer.getLong();
+            LocalDateTime lastAt = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+            long lastId = buffer.getLong();
+            return new Block(firstAt, firstId, lastAt, lastId, buffer.getLong(), buffer.getInt(), buffer.getInt());
+        }
+
+        void write(ByteBuffer buffer) {
+            buffer.putLong(firstAt.toEpochSecond(ZoneOffset.UTC)).putInt(firstAt.getNano()).putLong(firstId);
+            buffer.putLong(lastAt.toEpochSecond(ZoneOffset.UTC)).putInt(lastAt.getNano()).putLong(lastId);
+            buffer.putLong(offset).putInt(length).putInt(count);
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.socialmedia.modules.messaging.archive;
+
+import com.socialmedia.config.ClusterProperties;
+import com.socialmedia.modules.messaging.config.MessageArchiveProperties;
+import com.socialmedia.modules.messaging.search.MessageSearchIndex;
+import com.socialmedia.shared.exception.enums.ErrorCode;
+import com.socialmedia.shared.exception.exceptions.DatabaseException;
+import com.socialmedia.shared.exception.exceptions.UnauthorizedMessageAccessException;
+import com.socialmedia.shared.metrics.MetricsSource;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Moves messages older than the configured age out of PostgreSQL into per-conversation
+ * archive files, and serves them back for history paging.
+ * Runs are guarded by a PostgreSQL advisory lock so only one node archives at a time.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MessageArchiveService implements MetricsSource {
+
+    // Arbitrary application-wide key for pg_try_advisory_lock
+    private static final long ARCHIVE_LOCK_KEY = 0x4D534741524348L;
+
+    private static final String INSERT_RANGE_SQL =
+            "INSERT INTO message_archive_ranges (user_low_id, user_high_id, min_message_id, max_message_id) " +
+            "VALUES (?, ?, ?, ?)";
+    private static final String FIND_RANGES_SQL =
+            "SELECT user_low_id, user_high_id FROM message_archive_ranges " +
+            "WHERE user_low_id = ? AND max_message_id >= ? AND min_message_id <= ? " +
+            "UNION SELECT user_low_id, user_high_id FROM message_archive_ranges " +
+            "WHERE user_high_id = ? AND max_message_id >= ? AND min_message_id <= ?";
+
+    private final MessageArchiveProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MessageSearchIndex messageSearchIndex;
+    private final ClusterProperties clusterProperties;
+
+    private final Map<String, ConversationArchive> archives = new ConcurrentHashMap<>();
+    private Path directory;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong archivedMessages = new AtomicLong();
+    private final AtomicLong archiveReads = new AtomicLong();
+    private final AtomicLong lastRunMillis = new AtomicLong();
+    private final AtomicLong skippedRuns = new AtomicLong();
+    private final AtomicLong deletedMessages = new AtomicLong();
+
+    @PostConstruct
+    void init() throws IOException {
+        directory = Paths.get(properties.getDir());
+        if (properties.isEnabled() && !properties.isSharedStorage()
+                && clusterProperties.isEnabled()) {
+            // Rows are deleted from the shared database, so every node must see the same files
+            throw new IllegalStateException("app.messaging.archive.enabled with app.cluster.enabled=true "
+                    + "requires app.messaging.archive.dir on shared storage and app.messaging.archive.shared-storage=true");
+        }
+        if (properties.isEnabled()) {
+            Files.createDirectories(directory);
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @Scheduled(fixedDelayString = "${app.messaging.archive.interval-ms:3600000}")
+    public void archiveColdMessages() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            // Session-level lock held on this connection for the whole run
+            if (!advisoryLock(connection, "SELECT pg_try_advisory_lock(?)")) {
+                return false;
+            }
+            try {
+                archiveUnderLock();
+            } finally {
+                advisoryLock(connection, "SELECT pg_advisory_unlock(?)");
+            }
+            return true;
+        });
+        if (!Boolean.TRUE.equals(ran)) {
+            skippedRuns.incrementAndGet();
+            log.debug("Message archiving is running on another node; skipping this run");
+        }
+    }
+
+    private static boolean advisoryLock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, ARCHIVE_LOCK_KEY);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private void archiveUnderLock() {
+        long start = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(properties.getMaxAgeDays());
+        long total = 0;
+        List<ArchivedRow> batch;
+        do {
+            // Per-conversation ascending order lets a conversation continue cleanly into the next batch
+            batch = jdbcTemplate.query(
+                    // Rows written before the pair columns were backfilled still belong to their conversation
+                    "SELECT id, sender_id, receiver_id, content, created_at, " +
+                    "COALESCE(user_low_id, LEAST(sender_id, receiver_id)) AS user_low_id, " +
+                    "COALESCE(user_high_id, GREATEST(sender_id, receiver_id)) AS user_high_id FROM messages " +
+                    "WHERE created_at < ? ORDER BY user_low_id, user_high_id, created_at, id LIMIT ?",
+                    (rs, rowNum) -> new ArchivedRow(rs.getLong("user_low_id"), rs.getLong("user_high_id"),
+                            new ArchivedMessage(rs.getLong("id"), rs.getLong("sender_id"), rs.getLong("receiver_id"),
+                                    rs.getString("content"), rs.getTimestamp("created_at").toLocalDateTime())),
+                    Timestamp.valueOf(cutoff), properties.getBatchSize());
+            if (!batch.isEmpty()) {
+                total += archiveBatch(batch);
+            }
+        } while (batch.size() == properties.getBatchSize());
+
+        runs.incrementAndGet();
+        lastRunMillis.set(System.currentTimeMillis() - start);
+        if (total > 0) {
+            log.info("Archived {} messages older than {}", total, cutoff);
+        }
+    }
+
+    private int archiveBatch(List<ArchivedRow> batch) {
+        Map<List<Long>, List<ArchivedMessage>> byConversation = batch.stream()
+                .collect(Collectors.groupingBy(row -> List.of(row.userLowId(), row.userHighId()), LinkedHashMap::new,
+                        Collectors.mapping(ArchivedRow::message, Collectors.toList())));
+        List<Long> ids = new ArrayList<>(batch.size());
+        List<Object[]> ranges = new ArrayList<>();
+        try {
+            for (Map.Entry<List<Long>, List<ArchivedMessage>> entry : byConversation.entrySet()) {
+                List<Long> pair = entry.getKey();
+                List<ArchivedMessage> messages = entry.getValue();
+                // Files are fsynced here; rows already archived by an interrupted run are skipped, not duplicated
+                archive(archiveName(pair.get(0), pair.get(1))).append(messages, properties.getBlockSize());
+                messages.forEach(message -> ids.add(message.id()));
+                ranges.add(new Object[]{pair.get(0), pair.get(1),
+                        messages.stream().mapToLong(ArchivedMessage::id).min().getAsLong(),
+                        messages.stream().mapToLong(ArchivedMessage::id).max().getAsLong()});
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write message archive; {} archived rows kept in the database for now", ids.size(), e);
+        } finally {
+            if (!ids.isEmpty()) {
+                // The rows and their lookup range change together, so a message is always findable by id
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(INSERT_RANGE_SQL, ranges);
+                    jdbcTemplate.batchUpdate("DELETE FROM messages WHERE id = ?", ids, ids.size(),
+                            (statement, id) -> statement.setLong(1, id));
+                });
+                messageSearchIndex.delete(ids);
+                archivedMessages.addAndGet(ids.size());
+            }
+        }
+        if (ids.size() < batch.size()) {
+            throw new DatabaseException(ErrorCode.SERVICE_UNAVAILABLE, "Message archive is not writable");
+        }
+        return ids.size();
+    }
+
+    public long count(Long userLowId, Long userHighId) {
+        ConversationArchive archive = existing(archiveName(userLowId, userHighId));
+        if (archive == null) {
+            return 0;
+        }
+        try {
+            return archive.count();
+        } catch (IOException e) {
+            throw new DatabaseException(ErrorCode.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    // Newest first, strictly before (createdAt, id)
+    public List<ArchivedMessage> readBefore(Long userLowId, Long userHighId, LocalDateTime createdAt, long id, int limit) {
+        ConversationArchive archive = existing(archiveName(userLowId, userHighId));
+        if (archive == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        archiveReads.incrementAndGet();
+        try {
+            return archive.readBefore(createdAt, id, limit);
+        } catch (IOException e) {
+            throw new DatabaseException(ErrorCode.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    // Newest first, skipping the newest `offset` archived messages
+    public List<ArchivedMessage> read(Long userLowId, Long userHighId, long offset, int limit) {
+        ConversationArchive archive = existing(archiveName(userLowId, userHighId));
+        if (archive == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        archiveReads.incrementAndGet();
+        try {
+            return archive.read(offset, limit);
+        } catch (IOException e) {
+            throw new DatabaseException(ErrorCode.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    // An archived message of one of the user's conversations, or null
+    public ArchivedMessage find(Long messageId, Long userId) {
+        Located located = locate(messageId, userId);
+        return located == null ? null : located.message();
+    }
+
+    // Deletes an archived message on behalf of its sender; false if no archive of the user holds it
+    public boolean delete(Long messageId, Long userId) {
+        Located located = locate(messageId, userId);
+        if (located == null) {
+            return false;
+        }
+        if (!located.message().senderId().equals(userId)) {
+            throw new UnauthorizedMessageAccessException("Only sender can delete message: " + messageId);
+        }
+        try {
+            located.archive().delete(messageId);
+        } catch (IOException e) {
+            throw new DatabaseException(ErrorCode.INTERNAL_SERVER_ERROR, e);
+        }
+        deletedMessages.incrementAndGet();
+        return true;
+    }
+
+    // Only archives whose recorded id span covers the message are opened, and only the user's own
+    private Located locate(Long messageId, Long userId) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        List<String> candidates = jdbcTemplate.query(FIND_RANGES_SQL,
+                (rs, rowNum) -> archiveName(rs.getLong("user_low_id"), rs.getLong("user_high_id")),
+                userId, messageId, messageId, userId, messageId, messageId);
+        try {
+            for (String name : candidates) {
+                ConversationArchive archive = existing(name);
+                ArchivedMessage message = archive == null ? null : archive.find(messageId);
+                if (message != null) {
+                    return new Located(archive, message);
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            throw new DatabaseException(ErrorCode.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    private ConversationArchive existing(String name) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        ConversationArchive archive = archives.get(name);
+        if (archive != null) {
+            return archive;
+        }
+        if (!Files.exists(directory.resolve(name + ".idx"))) {
+            return null;
+        }
+        try {
+            return archive(name);
+        } catch (IOException e) {
+            throw new DatabaseException(ErrorCode.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    private ConversationArchive archive(String name) throws IOException {
+        try {
+            return archives.computeIfAbsent(name, key -> {
+                try {
+                    return ConversationArchive.open(directory, key);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String archiveName(long userLowId, long userHighId) {
+        return userLowId + "_" + userHighId;
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "message-archive";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", properties.isEnabled());
+        metrics.put("openArchives", archives.size());
+        metrics.put("runs", runs.get());
+        metrics.put("archivedMessages", archivedMessages.get());
+        metrics.put("archiveReads", archiveReads.get());
+        metrics.put("lastRunMillis", lastRunMillis.get());
+        metrics.put("skippedRuns", skippedRuns.get());
+        metrics.put("deletedMessages", deletedMessages.get());
+        return metrics;
+    }
+
+    private record ArchivedRow(long userLowId, long userHighId, ArchivedMessage message) {
+    }
+
+    private record Located(ConversationArchive archive, ArchivedMessage message) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.socialmedia.modules.messaging.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.messaging.archive")
+@Data
+public class MessageArchiveProperties {
+    
+    private boolean enabled = false;
+    private String dir = "data/message-archive";
+    
+    // Set once dir is a volume every node mounts; required when app.cluster.enabled is set
+    private boolean sharedStorage = false;
+    
+    private int maxAgeDays = 180;
+    private long intervalMs = 3600000;
+    private int batchSize = 5000;
+    
+    // Messages per compressed block; the sparse index holds one entry per block
+    private int blockSize = 128;
+}
@@ -0,0 +1,21 @@
+package com.socialmedia.modules.messaging.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.messaging.pipeline")
+@Data
+public class MessagePipelineProperties {
+    
+    private boolean enabled = false;
+    
+    // Conversations hash onto a writer, so each conversation keeps its send order
+    private int writers = 4;
+    private int queueCapacity = 10000;
+    
+    private int maxBatchSize = 256;
+    private long maxWaitMs = 5;
+    private long ackTimeoutMs = 5000;
+}
@@ -0,0 +1,21 @@
+package com.socialmedia.modules.messaging.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.presence")
+@Data
+public class PresenceProperties {
+    
+    private long heartbeatTimeoutMs = 60000;
+    private long tickMs = 1000;
+    private int wheelSlots = 512;
+    
+    // Changes are published once the state has been stable for this long
+    private long coalesceWindowMs = 3000;
+    
+    // Clustered: presence rows a node has not refreshed for this long no longer count as online
+    private long nodeTimeoutMs = 30000;
+}
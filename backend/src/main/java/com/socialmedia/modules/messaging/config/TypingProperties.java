@@ -0,0 +1,22 @@
+package com.socialmedia.modules.messaging.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.typing")
+@Data
+public class TypingProperties {
+    
+    // A "typing" state with no further frames is stopped after this long
+    private long expireMs = 6000;
+    // A stop followed by a start within this window is never forwarded
+    private long dedupWindowMs = 1500;
+    
+    private double framesPerSecond = 4;
+    private int burst = 8;
+    
+    private long tickMs = 250;
+    private int wheelSlots = 64;
+}
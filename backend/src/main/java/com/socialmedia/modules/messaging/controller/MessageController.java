@@ -5,6 +5,7 @@ import com.socialmedia.modules.messaging.dto.MessageResponse;
 import com.socialmedia.modules.messaging.dto.ConversationResponse;
 import com.socialmedia.modules.messaging.service.MessageService;
 import com.socialmedia.security.UserPrincipal;
+import com.socialmedia.shared.pagination.CursorPage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -189,6 +190,44 @@ public class MessageController {
         return ResponseEntity.ok(messages);
     }
 
+    @Operation(
+        summary = "Get Conversation Messages (Cursor)",
+        description = "Retrieve messages between the authenticated user and another user using keyset pagination, newest first. Pass the returned nextCursor to load older messages."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Conversation messages retrieved successfully",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = CursorPage.class)
+            )
+        ),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+        @ApiResponse(responseCode = "401", description = "Authentication required"),
+        @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    @GetMapping("/conversation/{otherUserId}/cursor")
+    public ResponseEntity<CursorPage<MessageResponse>> getConversationMessagesByCursor(
+            @Parameter(
+                description = "ID of the other user in the conversation",
+                required = true,
+                example = "123"
+            )
+            @PathVariable Long otherUserId,
+            @Parameter(description = "Opaque cursor from the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(
+                description = "Number of messages per page",
+                example = "20"
+            )
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        CursorPage<MessageResponse> messages = messageService.getConversationMessages(
+                userPrincipal.getId(), otherUserId, cursor, size);
+        return ResponseEntity.ok(messages);
+    }
+
     @Operation(
         summary = "Get User Conversations",
         description = "Retrieve all conversations for the authenticated user with pagination. Shows latest message and unread count for each conversation."
@@ -246,6 +285,37 @@ public class MessageController {
         return ResponseEntity.ok(conversations);
     }
 
+    @Operation(
+        summary = "Get User Conversations (Cursor)",
+        description = "Retrieve the authenticated user's conversations ordered by latest activity using keyset pagination. Pass the returned nextCursor to fetch the following page."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "User conversations retrieved successfully",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = CursorPage.class)
+            )
+        ),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+        @ApiResponse(responseCode = "401", description = "Authentication required")
+    })
+    @GetMapping("/conversations/cursor")
+    public ResponseEntity<CursorPage<ConversationResponse>> getUserConversationsByCursor(
+            @Parameter(description = "Opaque cursor from the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(
+                description = "Number of conversations per page",
+                example = "10"
+            )
+            @RequestParam(defaultValue = "10") int size,
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        CursorPage<ConversationResponse> conversations = messageService.getUserConversations(
+                userPrincipal.getId(), cursor, size);
+        return ResponseEntity.ok(conversations);
+    }
+
     @Operation(
         summary = "Get Message by ID",
         description = "Retrieve a specific message by its ID. Only participants in the conversation can access the message."
@@ -593,11 +663,57 @@ public class MessageController {
                 example = "hello"
             )
             @RequestParam String query,
+            @Parameter(
+                description = "Page number (0-based)",
+                example = "0"
+            )
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(
+                description = "Number of results per page",
+                example = "20"
+            )
+            @RequestParam(defaultValue = "20") int size,
             @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal userPrincipal) {
         log.info("User {} searching messages in conversation with user {} for query: {}", 
                 userPrincipal.getId(), otherUserId, query);
         List<MessageResponse> messages = messageService.searchMessagesInConversation(
-                userPrincipal.getId(), otherUserId, query);
+                userPrincipal.getId(), otherUserId, query, PageRequest.of(page, size));
+        return ResponseEntity.ok(messages);
+    }
+
+    @Operation(
+        summary = "Search All Messages",
+        description = "Search every conversation of the authenticated user. Results are ranked by relevance, newest first among equally relevant messages."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Message search completed successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid search query"),
+        @ApiResponse(responseCode = "401", description = "Authentication required"),
+        @ApiResponse(responseCode = "404", description = "User not found"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/search/all")
+    public ResponseEntity<Page<MessageResponse>> searchAllMessages(
+            @Parameter(
+                description = "Search query text",
+                required = true,
+                example = "hello"
+            )
+            @RequestParam String query,
+            @Parameter(
+                description = "Page number (0-based)",
+                example = "0"
+            )
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(
+                description = "Number of results per page",
+                example = "20"
+            )
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        log.info("User {} searching all conversations for query: {}", userPrincipal.getId(), query);
+        Page<MessageResponse> messages = messageService.searchMessages(
+                userPrincipal.getId(), query, PageRequest.of(page, size));
         return ResponseEntity.ok(messages);
     }
 
@@ -0,0 +1,31 @@
+package com.socialmedia.modules.messaging.controller;
+
+import com.socialmedia.modules.messaging.service.PresenceService;
+import com.socialmedia.security.UserPrincipal;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Tag(name = "Presence", description = "Online status of friends, fed by WebSocket sessions and heartbeats")
+@RestController
+@RequestMapping("/api/presence")
+@RequiredArgsConstructor
+public class PresenceController {
+    
+    private final PresenceService presenceService;
+    
+    @Operation(summary = "Get Online Friends", description = "Returns the IDs of the authenticated user's friends that are currently online. Later changes arrive on /user/queue/presence.")
+    @GetMapping("/friends")
+    public ResponseEntity<List<Long>> getOnlineFriends(
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        return ResponseEntity.ok(presenceService.getOnlineFriendIds(userPrincipal.getId()));
+    }
+}
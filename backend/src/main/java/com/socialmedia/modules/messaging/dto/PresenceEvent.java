@@ -0,0 +1,18 @@
+package com.socialmedia.modules.messaging.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PresenceEvent {
+    private Long userId;
+    private boolean online;
+    private LocalDateTime lastSeenAt;
+}
@@ -0,0 +1,19 @@
+package com.socialmedia.modules.messaging.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReadReceipt {
+    private Long readerId;
+    private Long partnerId;
+    private Long lastReadMessageId;
+    private LocalDateTime readAt;
+}
@@ -0,0 +1,14 @@
+package com.socialmedia.modules.messaging.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TypingNotification {
+    private Long senderId;
+    private Long receiverId;
+    private boolean isTyping;
+}
@@ -0,0 +1,67 @@
+package com.socialmedia.modules.messaging.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "conversations", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"user_low_id", "user_high_id"})
+}, indexes = {
+    @Index(name = "idx_conversation_low_last", columnList = "user_low_id, last_message_at DESC, id DESC"),
+    @Index(name = "idx_conversation_high_last", columnList = "user_high_id, last_message_at DESC, id DESC")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class Conversation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_low_id", nullable = false)
+    private Long userLowId;
+
+    @Column(name = "user_high_id", nullable = false)
+    private Long userHighId;
+
+    @Column(name = "last_message_id", nullable = false)
+    private Long lastMessageId;
+
+    @Column(name = "last_message_snippet", length = 200)
+    private String lastMessageSnippet;
+
+    @Column(name = "last_message_at", nullable = false)
+    private LocalDateTime lastMessageAt;
+
+    @Column(name = "last_sender_id", nullable = false)
+    private Long lastSenderId;
+
+    @Column(name = "unread_low", nullable = false)
+    private Long unreadLow = 0L;
+
+    @Column(name = "unread_high", nullable = false)
+    private Long unreadHigh = 0L;
+
+    // Highest message id each participant has read; everything at or below it counts as read
+    @Column(name = "last_read_low", nullable = false)
+    private Long lastReadLow = 0L;
+
+    @Column(name = "last_read_high", nullable = false)
+    private Long lastReadHigh = 0L;
+
+    public Long getPartnerId(Long userId) {
+        return userId.equals(userLowId) ? userHighId : userLowId;
+    }
+
+    public Long getUnreadCount(Long userId) {
+        return userId.equals(userLowId) ? unreadLow : unreadHigh;
+    }
+
+    public Long getLastReadMessageId(Long userId) {
+        return userId.equals(userLowId) ? lastReadLow : lastReadHigh;
+    }
+}
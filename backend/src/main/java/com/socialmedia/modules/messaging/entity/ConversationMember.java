@@ -0,0 +1,34 @@
+package com.socialmedia.modules.messaging.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// One inbox row per participant, so a user's inbox is a single ordered index range instead of an OR over both sides
+@Entity
+@Table(name = "conversation_members", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"conversation_id", "participant_id"})
+}, indexes = {
+    @Index(name = "idx_conversation_member_inbox", columnList = "participant_id, last_message_at DESC, conversation_id DESC")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class ConversationMember {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "conversation_id", nullable = false)
+    private Long conversationId;
+
+    @Column(name = "participant_id", nullable = false)
+    private Long participantId;
+
+    // Mirrors Conversation.lastMessageAt; written in the same statement sequence as the conversation row
+    @Column(name = "last_message_at", nullable = false)
+    private LocalDateTime lastMessageAt;
+}
@@ -10,7 +10,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+    @Index(name = "idx_message_conversation_created", columnList = "user_low_id, user_high_id, created_at DESC, id DESC")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -41,10 +43,25 @@ public class Message {
     @JoinColumn(name = "receiver_id", nullable = false)
     private User receiver;
 
+    // Canonical participant pair, the same (low, high) ordering the conversations table uses
+    @Column(name = "user_low_id", nullable = false)
+    private Long userLowId;
+
+    @Column(name = "user_high_id", nullable = false)
+    private Long userHighId;
+
     public Message(String content, User sender, User receiver) {
         this.content = content;
         this.sender = sender;
         this.receiver = receiver;
         this.readStatus = false;
     }
+
+    @PrePersist
+    void assignParticipants() {
+        if (userLowId == null || userHighId == null) {
+            userLowId = Math.min(sender.getId(), receiver.getId());
+            userHighId = Math.max(sender.getId(), receiver.getId());
+        }
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.socialmedia.modules.messaging.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Message id span appended to one conversation archive per run, so an archived message can be found by id
+@Entity
+@Table(name = "message_archive_ranges", indexes = {
+    @Index(name = "idx_message_archive_range_low", columnList = "user_low_id, max_message_id"),
+    @Index(name = "idx_message_archive_range_high", columnList = "user_high_id, max_message_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class MessageArchiveRange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_low_id", nullable = false)
+    private Long userLowId;
+
+    @Column(name = "user_high_id", nullable = false)
+    private Long userHighId;
+
+    @Column(name = "min_message_id", nullable = false)
+    private Long minMessageId;
+
+    @Column(name = "max_message_id", nullable = false)
+    private Long maxMessageId;
+}
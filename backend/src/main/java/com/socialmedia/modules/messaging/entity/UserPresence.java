@@ -0,0 +1,33 @@
+package com.socialmedia.modules.messaging.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Cluster-wide presence when clustered: one row per (node, online user), refreshed by the owning node
+@Entity
+@Table(name = "user_presence", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_user_presence_node_user", columnNames = {"node_id", "user_id"})
+}, indexes = {
+    @Index(name = "idx_user_presence_user", columnList = "user_id, seen_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserPresence {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "node_id", nullable = false, length = 64)
+    private String nodeId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "seen_at", nullable = false)
+    private LocalDateTime seenAt;
+}
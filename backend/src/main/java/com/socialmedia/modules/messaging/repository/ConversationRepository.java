@@ -0,0 +1,177 @@
+package com.socialmedia.modules.messaging.repository;
+
+import com.socialmedia.modules.messaging.entity.Conversation;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ConversationRepository extends JpaRepository<Conversation, Long> {
+    
+    @Query("SELECT c FROM Conversation c WHERE c.userLowId = :userLowId AND c.userHighId = :userHighId")
+    Optional<Conversation> findByParticipants(@Param("userLowId") Long userLowId, @Param("userHighId") Long userHighId);
+    
+    // Inbox reads walk the participant's member rows in index order and join the conversation by primary key
+    @Query(value = "SELECT c FROM ConversationMember m JOIN Conversation c ON c.id = m.conversationId " +
+                   "WHERE m.participantId = :userId ORDER BY m.lastMessageAt DESC, m.conversationId DESC",
+           countQuery = "SELECT COUNT(m) FROM ConversationMember m WHERE m.participantId = :userId")
+    Page<Conversation> findByParticipant(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT c FROM ConversationMember m JOIN Conversation c ON c.id = m.conversationId " +
+           "WHERE m.participantId = :userId AND " +
+           "(m.lastMessageAt < :lastMessageAt OR (m.lastMessageAt = :lastMessageAt AND m.conversationId < :id)) " +
+           "ORDER BY m.lastMessageAt DESC, m.conversationId DESC")
+    Slice<Conversation> findByParticipantBefore(@Param("userId") Long userId,
+                                                @Param("lastMessageAt") LocalDateTime lastMessageAt,
+                                                @Param("id") Long id,
+                                                Pageable pageable);
+    
+    @Query("SELECT COALESCE(SUM(CASE WHEN c.userLowId = :userId THEN c.unreadLow ELSE c.unreadHigh END), 0) " +
+           "FROM Conversation c WHERE c.userLowId = :userId OR c.userHighId = :userId")
+    Long sumUnreadByParticipant(@Param("userId") Long userId);
+    
+    @Modifying
+    @Query(value = "INSERT INTO conversations (user_low_id, user_high_id, last_message_id, last_message_snippet, " +
+                   "last_message_at, last_sender_id, unread_low, unread_high, last_read_low, last_read_high) " +
+                   "VALUES (:userLowId, :userHighId, :messageId, :snippet, :createdAt, :senderId, " +
+                   "CASE WHEN :receiverId = :userLowId THEN 1 ELSE 0 END, " +
+                   "CASE WHEN :receiverId = :userHighId AND :receiverId <> :userLowId THEN 1 ELSE 0 END, 0, 0) " +
+                   "ON CONFLICT (user_low_id, user_high_id) DO UPDATE SET " +
+                   "last_message_id = GREATEST(conversations.last_message_id, EXCLUDED.last_message_id), " +
+                   "last_message_snippet = CASE WHEN EXCLUDED.last_message_id > conversations.last_message_id " +
+                   "THEN EXCLUDED.last_message_snippet ELSE conversations.last_message_snippet END, " +
+                   "last_message_at = GREATEST(conversations.last_message_at, EXCLUDED.last_message_at), " +
+                   "last_sender_id = CASE WHEN EXCLUDED.last_message_id > conversations.last_message_id " +
+                   "THEN EXCLUDED.last_sender_id ELSE conversations.last_sender_id END, " +
+                   "unread_low = conversations.unread_low + EXCLUDED.unread_low, " +
+                   "unread_high = conversations.unread_high + EXCLUDED.unread_high",
+           nativeQuery = true)
+    int upsertLastMessage(@Param("userLowId") Long userLowId,
+                          @Param("userHighId") Long userHighId,
+                          @Param("messageId") Long messageId,
+                          @Param("snippet") String snippet,
+                          @Param("createdAt") LocalDateTime createdAt,
+                          @Param("senderId") Long senderId,
+                          @Param("receiverId") Long receiverId);
+    
+    // DISTINCT keeps a self-conversation to one member row
+    @Modifying
+    @Query(value = "INSERT INTO conversation_members (conversation_id, participant_id, last_message_at) " +
+                   "SELECT DISTINCT c.id, p.participant_id, c.last_message_at FROM conversations c " +
+                   "CROSS JOIN LATERAL (VALUES (c.user_low_id), (c.user_high_id)) AS p(participant_id) " +
+                   "WHERE c.user_low_id = :userLowId AND c.user_high_id = :userHighId " +
+                   "ON CONFLICT (conversation_id, participant_id) DO UPDATE SET last_message_at = EXCLUDED.last_message_at",
+           nativeQuery = true)
+    int syncMembers(@Param("userLowId") Long userLowId, @Param("userHighId") Long userHighId);
+    
+    @Modifying
+    @Query(value = "DELETE FROM conversation_members WHERE conversation_id IN " +
+                   "(SELECT id FROM conversations WHERE user_low_id = :userLowId AND user_high_id = :userHighId)",
+           nativeQuery = true)
+    int deleteMembers(@Param("userLowId") Long userLowId, @Param("userHighId") Long userHighId);
+    
+    @Modifying
+    @Query(value = "INSERT INTO conversation_members (conversation_id, participant_id, last_message_at) " +
+                   "SELECT DISTINCT c.id, p.participant_id, c.last_message_at FROM conversations c " +
+                   "CROSS JOIN LATERAL (VALUES (c.user_low_id), (c.user_high_id)) AS p(participant_id) " +
+                   "ON CONFLICT (conversation_id, participant_id) DO NOTHING",
+           nativeQuery = true)
+    int backfillMembers();
+    
+    @Modifying
+    @Query("UPDATE Conversation c SET " +
+           "c.unreadLow = CASE WHEN c.userLowId = :readerId THEN GREATEST(c.unreadLow - :count, 0) ELSE c.unreadLow END, " +
+           "c.unreadHigh = CASE WHEN c.userHighId = :readerId AND c.userLowId <> :readerId " +
+           "THEN GREATEST(c.unreadHigh - :count, 0) ELSE c.unreadHigh END " +
+           "WHERE c.userLowId = :userLowId AND c.userHighId = :userHighId")
+    int decrementUnread(@Param("userLowId") Long userLowId,
+                        @Param("userHighId") Long userHighId,
+                        @Param("readerId") Long readerId,
+                        @Param("count") long count);
+    
+    @Modifying
+    @Query("UPDATE Conversation c SET " +
+           "c.lastReadLow = CASE WHEN c.userLowId = :readerId THEN GREATEST(c.lastReadLow, c.lastMessageId) ELSE c.lastReadLow END, " +
+           "c.lastReadHigh = CASE WHEN c.userHighId = :readerId THEN GREATEST(c.lastReadHigh, c.lastMessageId) ELSE c.lastReadHigh END, " +
+           "c.unreadLow = CASE WHEN c.userLowId = :readerId THEN 0 ELSE c.unreadLow END, " +
+           "c.unreadHigh = CASE WHEN c.userHighId = :readerId THEN 0 ELSE c.unreadHigh END " +
+           "WHERE c.userLowId = :userLowId AND c.userHighId = :userHighId")
+    int markReadToLatest(@Param("userLowId") Long userLowId,
+                         @Param("userHighId") Long userHighId,
+                         @Param("readerId") Long readerId);
+    
+    // Unread is recounted only for messages above the new watermark, which is normally a handful of rows
+    @Modifying
+    @Query(value = "UPDATE conversations SET " +
+                   "last_read_low = CASE WHEN user_low_id = :readerId THEN :messageId ELSE last_read_low END, " +
+                   "last_read_high = CASE WHEN user_high_id = :readerId THEN :messageId ELSE last_read_high END, " +
+                   "unread_low = CASE WHEN user_low_id = :readerId THEN (SELECT COUNT(*) FROM messages m " +
+                   "WHERE m.user_low_id = :userLowId AND m.user_high_id = :userHighId " +
+                   "AND m.receiver_id = :readerId AND m.id > :messageId) ELSE unread_low END, " +
+                   "unread_high = CASE WHEN user_high_id = :readerId AND user_low_id <> :readerId THEN (SELECT COUNT(*) FROM messages m " +
+                   "WHERE m.user_low_id = :userLowId AND m.user_high_id = :userHighId " +
+                   "AND m.receiver_id = :readerId AND m.id > :messageId) ELSE unread_high END " +
+                   "WHERE user_low_id = :userLowId AND user_high_id = :userHighId AND " +
+                   "((user_low_id = :readerId AND last_read_low < :messageId) OR " +
+                   "(user_high_id = :readerId AND last_read_high < :messageId))",
+           nativeQuery = true)
+    int advanceReadWatermark(@Param("userLowId") Long userLowId,
+                             @Param("userHighId") Long userHighId,
+                             @Param("readerId") Long readerId,
+                             @Param("messageId") Long messageId);
+    
+    @Query("SELECT c FROM Conversation c WHERE " +
+           "(c.userLowId = :userId AND c.userHighId IN :partnerIds) OR " +
+           "(c.userHighId = :userId AND c.userLowId IN :partnerIds)")
+    List<Conversation> findByParticipantAndPartners(@Param("userId") Long userId,
+                                                    @Param("partnerIds") Collection<Long> partnerIds);
+    
+    @Modifying
+    @Query(value = "UPDATE conversations c SET last_message_id = m.id, last_message_snippet = LEFT(m.content, 200), " +
+                   "last_message_at = m.created_at, last_sender_id = m.sender_id " +
+                   "FROM (SELECT id, content, created_at, sender_id FROM messages " +
+                   "WHERE user_low_id = :userLowId AND user_high_id = :userHighId " +
+                   "ORDER BY created_at DESC, id DESC LIMIT 1) m " +
+                   "WHERE c.user_low_id = :userLowId AND c.user_high_id = :userHighId",
+           nativeQuery = true)
+    int refreshLastMessage(@Param("userLowId") Long userLowId, @Param("userHighId") Long userHighId);
+    
+    @Modifying
+    @Query("DELETE FROM Conversation c WHERE c.userLowId = :userLowId AND c.userHighId = :userHighId")
+    int deleteByParticipants(@Param("userLowId") Long userLowId, @Param("userHighId") Long userHighId);
+    
+    @Modifying
+    @Query(value = "INSERT INTO conversations (user_low_id, user_high_id, last_message_id, last_message_snippet, " +
+                   "last_message_at, last_sender_id, unread_low, unread_high, last_read_low, last_read_high) " +
+                   "SELECT DISTINCT ON (LEAST(m.sender_id, m.receiver_id), GREATEST(m.sender_id, m.receiver_id)) " +
+                   "LEAST(m.sender_id, m.receiver_id), GREATEST(m.sender_id, m.receiver_id), " +
+                   "m.id, LEFT(m.content, 200), m.created_at, m.sender_id, " +
+                   "(SELECT COUNT(*) FROM messages u WHERE u.read_status = false " +
+                   "AND u.receiver_id = LEAST(m.sender_id, m.receiver_id) " +
+                   "AND u.sender_id = GREATEST(m.sender_id, m.receiver_id)), " +
+                   "(SELECT COUNT(*) FROM messages u WHERE u.read_status = false " +
+                   "AND u.receiver_id = GREATEST(m.sender_id, m.receiver_id) " +
+                   "AND u.sender_id = LEAST(m.sender_id, m.receiver_id) AND m.sender_id <> m.receiver_id), " +
+                   "(SELECT COALESCE(MAX(r.id), 0) FROM messages r WHERE r.read_status = true " +
+                   "AND r.receiver_id = LEAST(m.sender_id, m.receiver_id) " +
+                   "AND r.sender_id = GREATEST(m.sender_id, m.receiver_id)), " +
+                   "(SELECT COALESCE(MAX(r.id), 0) FROM messages r WHERE r.read_status = true " +
+                   "AND r.receiver_id = GREATEST(m.sender_id, m.receiver_id) " +
+                   "AND r.sender_id = LEAST(m.sender_id, m.receiver_id)) " +
+                   "FROM messages m " +
+                   "ORDER BY LEAST(m.sender_id, m.receiver_id), GREATEST(m.sender_id, m.receiver_id), " +
+                   "m.created_at DESC, m.id DESC " +
+                   "ON CONFLICT (user_low_id, user_high_id) DO NOTHING",
+           nativeQuery = true)
+    int backfillFromMessages();
+}
@@ -3,73 +3,53 @@ package com.socialmedia.modules.messaging.repository;
 import com.socialmedia.modules.messaging.entity.Message;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
     
-    @Query("SELECT m FROM Message m WHERE " +
-           "((m.sender.id = :userId1 AND m.receiver.id = :userId2) OR " +
-           "(m.sender.id = :userId2 AND m.receiver.id = :userId1)) " +
-           "ORDER BY m.createdAt DESC")
-    Page<Message> findConversationMessages(@Param("userId1") Long userId1, @Param("userId2") Long userId2, Pageable pageable);
+    @Query("SELECT m FROM Message m WHERE m.userLowId = :userLowId AND m.userHighId = :userHighId " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    Page<Message> findConversationMessages(@Param("userLowId") Long userLowId,
+                                           @Param("userHighId") Long userHighId,
+                                           Pageable pageable);
     
-    @Query("SELECT m FROM Message m WHERE " +
-           "((m.sender.id = :userId1 AND m.receiver.id = :userId2) OR " +
-           "(m.sender.id = :userId2 AND m.receiver.id = :userId1)) " +
-           "ORDER BY m.createdAt DESC")
-    Page<Message> findConversationBetweenUsers(@Param("userId1") Long userId1, @Param("userId2") Long userId2, Pageable pageable);
-    
-    @Query("SELECT " +
-           "CASE WHEN m.sender.id = :userId THEN m.receiver.id ELSE m.sender.id END as otherUserId, " +
-           "m.content as lastMessage, " +
-           "m.createdAt as lastMessageTime, " +
-           "0L as unreadCount " +
-           "FROM Message m WHERE (m.sender.id = :userId OR m.receiver.id = :userId) AND " +
-           "m.createdAt = (SELECT MAX(m2.createdAt) FROM Message m2 WHERE " +
-           "((m2.sender.id = :userId AND m2.receiver.id = CASE WHEN m.sender.id = :userId THEN m.receiver.id ELSE m.sender.id END) OR " +
-           "(m2.receiver.id = :userId AND m2.sender.id = CASE WHEN m.sender.id = :userId THEN m.receiver.id ELSE m.sender.id END))) " +
-           "ORDER BY lastMessageTime DESC")
-    List<Object[]> findUserConversations(@Param("userId") Long userId);
-    
-    @Modifying
-    @Query("UPDATE Message m SET m.readStatus = true WHERE m.receiver.id = :userId AND " +
-           "((m.sender.id = :otherUserId AND m.receiver.id = :userId) OR " +
-           "(m.sender.id = :userId AND m.receiver.id = :otherUserId)) AND m.readStatus = false")
-    int markConversationAsRead(@Param("userId") Long userId, @Param("otherUserId") Long otherUserId);
-    
-    @Query("SELECT COUNT(m) FROM Message m WHERE m.receiver.id = :userId AND m.readStatus = false")
-    Long countUnreadMessages(@Param("userId") Long userId);
-    
-    @Query("SELECT COUNT(m) FROM Message m WHERE m.receiver.id = :userId AND m.sender.id = :otherUserId AND m.readStatus = false")
-    Long countUnreadMessagesInConversation(@Param("userId") Long userId, @Param("otherUserId") Long otherUserId);
+    @Query("SELECT m FROM Message m WHERE m.userLowId = :userLowId AND m.userHighId = :userHighId " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    Page<Message> findConversationBetweenUsers(@Param("userLowId") Long userLowId,
+                                               @Param("userHighId") Long userHighId,
+                                               Pageable pageable);
     
     @Query("SELECT m FROM Message m WHERE m.sender.id = :userId OR m.receiver.id = :userId ORDER BY m.createdAt DESC")
     List<Message> findRecentMessages(@Param("userId") Long userId, Pageable pageable);
     
-    @Query("SELECT m FROM Message m WHERE " +
-           "((m.sender.id = :userId1 AND m.receiver.id = :userId2) OR " +
-           "(m.sender.id = :userId2 AND m.receiver.id = :userId1)) AND " +
+    @Query("SELECT m FROM Message m WHERE m.userLowId = :userLowId AND m.userHighId = :userHighId AND " +
            "LOWER(m.content) LIKE LOWER(CONCAT('%', :query, '%')) " +
-           "ORDER BY m.createdAt DESC")
-    List<Message> searchMessagesInConversation(@Param("userId1") Long userId1, @Param("userId2") Long userId2, @Param("query") String query);
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> searchMessagesInConversation(@Param("userLowId") Long userLowId,
+                                               @Param("userHighId") Long userHighId,
+                                               @Param("query") String query,
+                                               Pageable pageable);
     
-    @Query("SELECT CASE WHEN COUNT(m) > 0 THEN true ELSE false END FROM Message m WHERE " +
-           "((m.sender.id = :userId1 AND m.receiver.id = :userId2) OR " +
-           "(m.sender.id = :userId2 AND m.receiver.id = :userId1))")
-    boolean hasConversation(@Param("userId1") Long userId1, @Param("userId2") Long userId2);
+    @Query("SELECT m FROM Message m WHERE (m.sender.id = :userId OR m.receiver.id = :userId) AND " +
+           "LOWER(m.content) LIKE LOWER(CONCAT('%', :query, '%')) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    Slice<Message> searchMessagesByParticipant(@Param("userId") Long userId, @Param("query") String query, Pageable pageable);
+    
+    @Query("SELECT m.id, m.userLowId, m.userHighId, m.content FROM Message m WHERE m.id > :afterId ORDER BY m.id")
+    List<Object[]> findSearchDocumentsAfter(@Param("afterId") Long afterId, Pageable pageable);
     
-    @Query("SELECT m FROM Message m WHERE m.receiver.id = :userId AND m.readStatus = false ORDER BY m.createdAt DESC")
-    Page<Message> findUnreadMessagesByUserId(@Param("userId") Long userId, Pageable pageable);
+    boolean existsByUserLowIdAndUserHighId(Long userLowId, Long userHighId);
     
-    @Query("SELECT COUNT(m) FROM Message m WHERE m.receiver.id = :userId AND m.readStatus = false")
-    Long countUnreadMessagesByUserId(@Param("userId") Long userId);
+    @Query("SELECT m.id, m.sender.id FROM Message m WHERE m.id IN :ids")
+    List<Object[]> findSenderIdsByIds(@Param("ids") List<Long> ids);
     
     @Query("SELECT DISTINCT CASE " +
            "WHEN m.sender.id = :userId THEN m.receiver.id " +
@@ -78,20 +58,26 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
            "ORDER BY MAX(m.createdAt) DESC")
     List<Long> findConversationPartnersByUserId(@Param("userId") Long userId);
     
-    @Query("SELECT m FROM Message m WHERE " +
-           "((m.sender.id = :userId1 AND m.receiver.id = :userId2) OR " +
-           "(m.sender.id = :userId2 AND m.receiver.id = :userId1)) " +
-           "ORDER BY m.createdAt DESC")
-    List<Message> findLatestMessageBetweenUsers(@Param("userId1") Long userId1, @Param("userId2") Long userId2, Pageable pageable);
+    @Query("SELECT m FROM Message m WHERE m.userLowId = :userLowId AND m.userHighId = :userHighId " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> findLatestMessageBetweenUsers(@Param("userLowId") Long userLowId,
+                                                @Param("userHighId") Long userHighId,
+                                                Pageable pageable);
     
-    @Query("SELECT COUNT(m) FROM Message m WHERE " +
-           "((m.sender.id = :userId1 AND m.receiver.id = :userId2) OR " +
-           "(m.sender.id = :userId2 AND m.receiver.id = :userId1))")
-    Long countMessagesBetweenUsers(@Param("userId1") Long userId1, @Param("userId2") Long userId2);
+    Long countByUserLowIdAndUserHighId(Long userLowId, Long userHighId);
     
     @Query("SELECT m FROM Message m WHERE m.sender.id = :userId ORDER BY m.createdAt DESC")
     Page<Message> findMessagesBySenderId(@Param("userId") Long userId, Pageable pageable);
     
     @Query("SELECT m FROM Message m WHERE m.receiver.id = :userId ORDER BY m.createdAt DESC")
     Page<Message> findMessagesByReceiverId(@Param("userId") Long userId, Pageable pageable);
-} 
\ No newline at end of file
+    
+    @Query("SELECT m FROM Message m WHERE m.userLowId = :userLowId AND m.userHighId = :userHighId AND " +
+           "(m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    Slice<Message> findConversationMessagesBefore(@Param("userLowId") Long userLowId,
+                                                  @Param("userHighId") Long userHighId,
+                                                  @Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("id") Long id,
+                                                  Pageable pageable);
+}
@@ -0,0 +1,232 @@
+package com.socialmedia.modules.messaging.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Postings are grouped term -> participant id -> (message id, term frequency). Every message is posted
+ * under both of its participants, so a user's search only touches their own postings; a single
+ * conversation query narrows those by the document's participant pair.
+ */
+class IndexSegment {
+    
+    private static final int MAGIC = 0x4D534958;
+    private static final int VERSION = 2;
+    
+    final Map<Long, Doc> docs;
+    final Map<String, Map<Long, PostingList>> postings;
+    // Messages per term; postings hold each message twice, once per participant
+    private final Map<String, Integer> documentFrequencies;
+    
+    IndexSegment() {
+        this(new HashMap<>(), new HashMap<>(), new HashMap<>());
+    }
+    
+    private IndexSegment(Map<Long, Doc> docs, Map<String, Map<Long, PostingList>> postings,
+                         Map<String, Integer> documentFrequencies) {
+        this.docs = docs;
+        this.postings = postings;
+        this.documentFrequencies = documentFrequencies;
+    }
+    
+    void add(long messageId, long userLowId, long userHighId, List<String> tokens) {
+        if (docs.containsKey(messageId)) {
+            return;
+        }
+        Doc doc = new Doc(userLowId, userHighId, tokens.size());
+        docs.put(messageId, doc);
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokens) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        frequencies.forEach((term, frequency) -> post(term, doc, messageId, frequency));
+    }
+    
+    private void post(String term, Doc doc, long messageId, int frequency) {
+        Map<Long, PostingList> byParticipant = postings.computeIfAbsent(term, t -> new HashMap<>());
+        byParticipant.computeIfAbsent(doc.userLowId(), p -> new PostingList()).add(messageId, frequency);
+        if (doc.userHighId() != doc.userLowId()) {
+            byParticipant.computeIfAbsent(doc.userHighId(), p -> new PostingList()).add(messageId, frequency);
+        }
+        documentFrequencies.merge(term, 1, Integer::sum);
+    }
+    
+    boolean remove(long messageId) {
+        return docs.remove(messageId) != null;
+    }
+    
+    int documentFrequency(String term) {
+        return documentFrequencies.getOrDefault(term, 0);
+    }
+    
+    long totalLength() {
+        long total = 0;
+        for (Doc doc : docs.values()) {
+            total += doc.length;
+        }
+        return total;
+    }
+    
+    void forEachPosting(String term, long participantId, Predicate<Doc> docFilter, BiConsumer<Doc, long[]> consumer) {
+        Map<Long, PostingList> byParticipant = postings.get(term);
+        if (byParticipant == null) {
+            return;
+        }
+        PostingList list = byParticipant.get(participantId);
+        if (list == null) {
+            return;
+        }
+        long[] entry = new long[2];
+        for (int i = 0; i < list.size; i++) {
+            Doc doc = docs.get(list.ids[i]);
+            if (doc != null && docFilter.test(doc)) {
+                entry[0] = list.ids[i];
+                entry[1] = list.frequencies[i];
+                consumer.accept(doc, entry);
+            }
+        }
+    }
+    
+    static IndexSegment merge(List<IndexSegment> segments, Set<Long> deleted) {
+        IndexSegment merged = new IndexSegment();
+        // A message can land in two segments when catch-up races live indexing; the first copy wins
+        Map<Long, IndexSegment> owners = new HashMap<>();
+        for (IndexSegment segment : segments) {
+            segment.docs.forEach((id, doc) -> {
+                if (!deleted.contains(id) && owners.putIfAbsent(id, segment) == null) {
+                    merged.docs.put(id, doc);
+                }
+            });
+        }
+        for (IndexSegment segment : segments) {
+            segment.postings.forEach((term, byParticipant) -> {
+                // Walk the low participant's lists only, post() fans each message out to both sides again
+                byParticipant.forEach((participantId, list) -> {
+                    for (int i = 0; i < list.size; i++) {
+                        long id = list.ids[i];
+                        Doc doc = merged.docs.get(id);
+                        if (owners.get(id) == segment && doc != null && doc.userLowId() == participantId) {
+                            merged.post(term, doc, id, list.frequencies[i]);
+                        }
+                    }
+                });
+            });
+        }
+        return merged;
+    }
+    
+    long maxDocId() {
+        long max = 0;
+        for (Long id : docs.keySet()) {
+            max = Math.max(max, id);
+        }
+        return max;
+    }
+    
+    void write(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(docs.size());
+            for (Map.Entry<Long, Doc> entry : docs.entrySet()) {
+                out.writeLong(entry.getKey());
+                out.writeLong(entry.getValue().userLowId);
+                out.writeLong(entry.getValue().userHighId);
+                out.writeInt(entry.getValue().length);
+            }
+            out.writeInt(postings.size());
+            for (Map.Entry<String, Map<Long, PostingList>> term : postings.entrySet()) {
+                out.writeUTF(term.getKey());
+                out.writeInt(documentFrequency(term.getKey()));
+                out.writeInt(term.getValue().size());
+                for (Map.Entry<Long, PostingList> participant : term.getValue().entrySet()) {
+                    PostingList list = participant.getValue();
+                    out.writeLong(participant.getKey());
+                    out.writeInt(list.size);
+                    for (int i = 0; i < list.size; i++) {
+                        out.writeLong(list.ids[i]);
+                        out.writeInt(list.frequencies[i]);
+                    }
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    // Older versions are rejected; the caller discards them and catch-up rebuilds from the table
+    static IndexSegment read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported segment file " + file);
+            }
+            int docCount = in.readInt();
+            Map<Long, Doc> docs = new HashMap<>(docCount * 2);
+            for (int i = 0; i < docCount; i++) {
+                long id = in.readLong();
+                docs.put(id, new Doc(in.readLong(), in.readLong(), in.readInt()));
+            }
+            int termCount = in.readInt();
+            Map<String, Map<Long, PostingList>> postings = new HashMap<>(termCount * 2);
+            Map<String, Integer> documentFrequencies = new HashMap<>(termCount * 2);
+            for (int t = 0; t < termCount; t++) {
+                String term = in.readUTF();
+                documentFrequencies.put(term, in.readInt());
+                int participantCount = in.readInt();
+                Map<Long, PostingList> byParticipant = new HashMap<>(participantCount * 2);
+                for (int p = 0; p < participantCount; p++) {
+                    long participantId = in.readLong();
+                    int size = in.readInt();
+                    PostingList list = new PostingList(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(in.readLong(), in.readInt());
+                    }
+                    byParticipant.put(participantId, list);
+                }
+                postings.put(term, byParticipant);
+            }
+            return new IndexSegment(docs, postings, documentFrequencies);
+        }
+    }
+    
+    record Doc(long userLowId, long userHighId, int length) {
+    }
+    
+    static final class PostingList {
+        private long[] ids;
+        private int[] frequencies;
+        private int size;
+        
+        PostingList() {
+            this(4);
+        }
+        
+        PostingList(int capacity) {
+            ids = new long[Math.max(1, capacity)];
+            frequencies = new int[ids.length];
+        }
+        
+        void add(long id, int frequency) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ids[size] = id;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+}
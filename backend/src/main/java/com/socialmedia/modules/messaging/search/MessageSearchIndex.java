@@ -0,0 +1,469 @@
+package com.socialmedia.modules.messaging.search;
+
+import com.socialmedia.config.ClusterProperties;
+import com.socialmedia.modules.messaging.repository.MessageRepository;
+import com.socialmedia.shared.metrics.MetricsSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MessageSearchIndex implements MetricsSource {
+
+    private static final Pattern SEGMENT_FILE = Pattern.compile("seg-(\\d+)\\.idx");
+    private static final String DELETES_FILE = "deletes.log";
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int LATENCY_SAMPLES = 1024;
+
+    private final MessageRepository messageRepository;
+    private final MessageSearchProperties properties;
+    private final ClusterProperties clusterProperties;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private IndexSegment memory = new IndexSegment();
+    private final Map<IndexSegment, Path> segments = new LinkedHashMap<>();
+    private final Set<Long> deleted = ConcurrentHashMap.newKeySet();
+    private final AtomicLong generation = new AtomicLong();
+    private Path directory;
+    private volatile boolean ready;
+    // Highest message id read from the database, by catch-up and then by tail() when clustered
+    private final AtomicLong tailedId = new AtomicLong();
+    // Segment writes and merges run here, never on the thread that indexed the message
+    private ExecutorService maintenance;
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final AtomicBoolean mergeQueued = new AtomicBoolean();
+
+    private final AtomicLong indexedDocs = new AtomicLong();
+    private final AtomicLong indexNanos = new AtomicLong();
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong merges = new AtomicLong();
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private final AtomicLong latencyCursor = new AtomicLong();
+
+    @PostConstruct
+    void load() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        maintenance = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "message-search-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        directory = Paths.get(properties.getIndexDir());
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(path -> SEGMENT_FILE.matcher(path.getFileName().toString()).matches())
+                    .sorted(Comparator.comparingLong(MessageSearchIndex::generationOf))
+                    .collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            try {
+                segments.put(IndexSegment.read(file), file);
+                generation.set(Math.max(generation.get(), generationOf(file)));
+            } catch (IOException e) {
+                log.warn("Discarding unreadable search segment {}", file, e);
+                Files.deleteIfExists(file);
+            }
+        }
+        Path deletes = directory.resolve(DELETES_FILE);
+        if (Files.exists(deletes)) {
+            for (String line : Files.readAllLines(deletes, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    deleted.add(Long.parseLong(line.trim()));
+                }
+            }
+        }
+        log.info("Loaded {} message search segments", segments.size());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (maintenance != null) {
+            maintenance.shutdown();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(1)
+    public void catchUp() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        // Messages written while the node was down, or still sitting in the unflushed in-memory segment
+        Thread thread = new Thread(() -> {
+            long afterId;
+            lock.readLock().lock();
+            try {
+                afterId = segments.keySet().stream().mapToLong(IndexSegment::maxDocId).max().orElse(0L);
+            } finally {
+                lock.readLock().unlock();
+            }
+            long total = 0;
+            List<Object[]> batch;
+            do {
+                batch = messageRepository.findSearchDocumentsAfter(afterId, PageRequest.of(0, properties.getRebuildBatchSize()));
+                for (Object[] row : batch) {
+                    afterId = (Long) row[0];
+                    index(afterId, (Long) row[1], (Long) row[2], (String) row[3]);
+                }
+                total += batch.size();
+            } while (!batch.isEmpty());
+            tailedId.set(afterId);
+            ready = true;
+            log.info("Message search index caught up with {} messages", total);
+        }, "message-search-catch-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Clustered: messages sent through other nodes are only in the database, so pull them in here.
+    // Ids are taken before commit and can become visible out of order, hence the overlap re-read each time.
+    @Scheduled(fixedDelayString = "${app.messaging.search.tail-interval-ms:2000}")
+    public void tail() {
+        if (!properties.isEnabled() || !clusterProperties.isEnabled() || !ready) {
+            return;
+        }
+        long afterId = Math.max(0L, tailedId.get() - properties.getTailOverlap());
+        List<Object[]> batch;
+        do {
+            batch = messageRepository.findSearchDocumentsAfter(afterId, PageRequest.of(0, properties.getRebuildBatchSize()));
+            for (Object[] row : batch) {
+                afterId = (Long) row[0];
+                if (!contains(afterId)) {
+                    index(afterId, (Long) row[1], (Long) row[2], (String) row[3]);
+                }
+            }
+            tailedId.accumulateAndGet(afterId, Math::max);
+        } while (batch.size() == properties.getRebuildBatchSize());
+    }
+
+    private boolean contains(Long messageId) {
+        lock.readLock().lock();
+        try {
+            return deleted.contains(messageId) || memory.docs.containsKey(messageId)
+                    || segments.keySet().stream().anyMatch(segment -> segment.docs.containsKey(messageId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isActive() {
+        return properties.isEnabled() && ready;
+    }
+
+    public void index(Long messageId, Long userLowId, Long userHighId, String content) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<String> tokens = Tokenizer.tokenize(content);
+        boolean flush;
+        lock.writeLock().lock();
+        try {
+            memory.add(messageId, userLowId, userHighId, tokens);
+            flush = memory.docs.size() >= properties.getFlushThreshold();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        indexedDocs.incrementAndGet();
+        indexNanos.addAndGet(System.nanoTime() - start);
+        if (flush) {
+            schedule(flushQueued, this::flush);
+        }
+    }
+
+    public void delete(Long messageId) {
+        delete(List.of(messageId));
+    }
+
+    public void delete(Collection<Long> messageIds) {
+        if (!properties.isEnabled() || messageIds.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            // Tombstone even when the copy was still in memory; catch-up may have flushed a second one
+            messageIds.forEach(memory::remove);
+            deleted.addAll(messageIds);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            String lines = messageIds.stream().map(String::valueOf).collect(Collectors.joining("\n", "", "\n"));
+            Files.writeString(directory.resolve(DELETES_FILE), lines, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.warn("Failed to persist search tombstones for {} messages", messageIds.size(), e);
+        }
+    }
+
+    // BM25 over messages containing every term, newest first on ties; a null partnerId spans all the user's conversations
+    public Page<Long> search(Long userId, Long partnerId, String query, Pageable pageable) {
+        long start = System.nanoTime();
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokenize(query)));
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        long userLowId = partnerId != null ? Math.min(userId, partnerId) : 0L;
+        long userHighId = partnerId != null ? Math.max(userId, partnerId) : 0L;
+        Predicate<IndexSegment.Doc> docFilter = partnerId != null
+                ? doc -> doc.userLowId() == userLowId && doc.userHighId() == userHighId
+                : doc -> true;
+
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            List<IndexSegment> live = new ArrayList<>(segments.keySet());
+            live.add(memory);
+            Collections.reverse(live);
+
+            long docCount = 0;
+            long totalLength = 0;
+            for (IndexSegment segment : live) {
+                docCount += segment.docs.size();
+                totalLength += segment.totalLength();
+            }
+            double averageLength = docCount == 0 ? 1 : (double) totalLength / docCount;
+            double[] idf = new double[terms.size()];
+            for (int t = 0; t < terms.size(); t++) {
+                int df = 0;
+                for (IndexSegment segment : live) {
+                    df += segment.documentFrequency(terms.get(t));
+                }
+                idf[t] = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+            }
+
+            Set<Long> seen = new HashSet<>();
+            for (IndexSegment segment : live) {
+                Map<Long, double[]> candidates = new HashMap<>();
+                for (int t = 0; t < terms.size(); t++) {
+                    int term = t;
+                    segment.forEachPosting(terms.get(t), userId, docFilter, (doc, entry) -> {
+                        double tf = entry[1];
+                        double norm = tf + K1 * (1 - B + B * doc.length() / averageLength);
+                        double[] acc = candidates.computeIfAbsent(entry[0], id -> new double[2]);
+                        acc[0] += idf[term] * tf * (K1 + 1) / norm;
+                        acc[1]++;
+                    });
+                }
+                candidates.forEach((id, acc) -> {
+                    if (acc[1] == terms.size() && !deleted.contains(id) && seen.add(id)) {
+                        hits.add(new Hit(id, acc[0]));
+                    }
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparing(Hit::id, Comparator.reverseOrder()));
+        int total = Math.min(hits.size(), properties.getMaxHits());
+        int from = (int) Math.min(pageable.getOffset(), total);
+        int to = Math.min(from + pageable.getPageSize(), total);
+        List<Long> ids = hits.subList(from, to).stream().map(Hit::id).collect(Collectors.toList());
+
+        queries.incrementAndGet();
+        latencies[(int) (latencyCursor.getAndIncrement() % LATENCY_SAMPLES)] = System.nanoTime() - start;
+        return new PageImpl<>(ids, pageable, total);
+    }
+
+    @Scheduled(fixedDelayString = "${app.messaging.search.flush-interval-ms:5000}")
+    public void flush() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        IndexSegment sealed;
+        lock.writeLock().lock();
+        try {
+            if (memory.docs.isEmpty()) {
+                return;
+            }
+            sealed = memory;
+            memory = new IndexSegment();
+            segments.put(sealed, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Path file = directory.resolve("seg-" + generation.incrementAndGet() + ".idx");
+        try {
+            sealed.write(file);
+        } catch (IOException e) {
+            // Still searchable from memory; catch-up re-indexes it after a restart
+            log.warn("Failed to write search segment {}", file, e);
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            segments.computeIfPresent(sealed, (segment, path) -> file);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (segments.size() >= properties.getMergeFactor()) {
+            schedule(mergeQueued, this::merge);
+        }
+    }
+
+    // Coalesces requests: at most one flush and one merge wait in the queue at a time
+    private void schedule(AtomicBoolean queued, Runnable task) {
+        if (maintenance == null || !queued.compareAndSet(false, true)) {
+            return;
+        }
+        maintenance.execute(() -> {
+            queued.set(false);
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.warn("Message search maintenance task failed", e);
+            }
+        });
+    }
+
+    public synchronized void merge() {
+        List<IndexSegment> inputs;
+        Set<Long> tombstones = new HashSet<>(deleted);
+        lock.readLock().lock();
+        try {
+            inputs = segments.entrySet().stream()
+                    .filter(entry -> entry.getValue() != null)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (inputs.size() < 2) {
+            return;
+        }
+
+        IndexSegment merged = IndexSegment.merge(inputs, tombstones);
+        Path file = directory.resolve("seg-" + generation.incrementAndGet() + ".idx");
+        try {
+            merged.write(file);
+        } catch (IOException e) {
+            log.warn("Failed to write merged search segment {}", file, e);
+            return;
+        }
+
+        List<Path> obsolete = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            Map<IndexSegment, Path> replaced = new LinkedHashMap<>();
+            replaced.put(merged, file);
+            segments.forEach((segment, path) -> {
+                if (inputs.contains(segment)) {
+                    obsolete.add(path);
+                } else {
+                    replaced.put(segment, path);
+                }
+            });
+            segments.clear();
+            segments.putAll(replaced);
+            // Sealed segments still being written, later flushes and memory keep their copies until they merge too
+            tombstones.removeIf(id -> memory.docs.containsKey(id)
+                    || replaced.keySet().stream().anyMatch(segment -> segment.docs.containsKey(id)));
+            deleted.removeAll(tombstones);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            for (Path path : obsolete) {
+                Files.deleteIfExists(path);
+            }
+            rewriteDeletes();
+        } catch (IOException e) {
+            log.warn("Failed to clean up merged search segments", e);
+        }
+        merges.incrementAndGet();
+        log.debug("Merged {} search segments into {} ({} docs)", inputs.size(), file.getFileName(), merged.docs.size());
+    }
+
+    private void rewriteDeletes() throws IOException {
+        Path temp = directory.resolve(DELETES_FILE + ".tmp");
+        String content = deleted.stream().map(String::valueOf).collect(Collectors.joining("\n", "", "\n"));
+        Files.writeString(temp, content, StandardCharsets.UTF_8);
+        Files.move(temp, directory.resolve(DELETES_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static long generationOf(Path file) {
+        Matcher matcher = SEGMENT_FILE.matcher(file.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : 0L;
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "message-search";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        long docs = indexedDocs.get();
+        long[] samples = Arrays.copyOf(latencies, (int) Math.min(latencyCursor.get(), LATENCY_SAMPLES));
+        Arrays.sort(samples);
+        lock.readLock().lock();
+        try {
+            metrics.put("segments", segments.size());
+            metrics.put("memoryDocs", memory.docs.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        metrics.put("ready", ready);
+        metrics.put("tombstones", deleted.size());
+        metrics.put("indexedDocs", docs);
+        metrics.put("indexDocsPerSecond", indexNanos.get() == 0 ? 0 : docs * 1_000_000_000L / indexNanos.get());
+        metrics.put("merges", merges.get());
+        metrics.put("queries", queries.get());
+        metrics.put("queryP99Micros", samples.length == 0 ? 0 : samples[(int) Math.ceil(samples.length * 0.99) - 1] / 1000);
+        return metrics;
+    }
+
+    private record Hit(Long id, double score) {
+    }
+}
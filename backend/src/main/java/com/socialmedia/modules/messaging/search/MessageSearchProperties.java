@@ -0,0 +1,25 @@
+package com.socialmedia.modules.messaging.search;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.messaging.search")
+@Data
+public class MessageSearchProperties {
+    
+    private boolean enabled = true;
+    private String indexDir = "data/message-index";
+    
+    private int flushThreshold = 1000;
+    private long flushIntervalMs = 5000;
+    private int mergeFactor = 4;
+    
+    private int rebuildBatchSize = 2000;
+    private int maxHits = 1000;
+    
+    // Clustered only: how often other nodes' messages are pulled in, and how many ids back each pull re-reads
+    private long tailIntervalMs = 2000;
+    private int tailOverlap = 1000;
+}
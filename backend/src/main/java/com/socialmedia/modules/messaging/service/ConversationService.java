@@ -0,0 +1,200 @@
+package com.socialmedia.modules.messaging.service;
+
+import com.socialmedia.modules.messaging.archive.MessageArchiveService;
+import com.socialmedia.modules.messaging.dto.ConversationResponse;
+import com.socialmedia.modules.messaging.dto.ReadReceipt;
+import com.socialmedia.modules.messaging.entity.Conversation;
+import com.socialmedia.modules.messaging.entity.Message;
+import com.socialmedia.modules.messaging.repository.ConversationRepository;
+import com.socialmedia.modules.messaging.repository.MessageRepository;
+import com.socialmedia.modules.user.dto.UserSummaryResponse;
+import com.socialmedia.modules.user.service.UserSummaryCache;
+import com.socialmedia.shared.pagination.Cursor;
+import com.socialmedia.shared.pagination.CursorPage;
+import com.socialmedia.shared.transaction.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class ConversationService {
+
+    private static final int SNIPPET_LENGTH = 200;
+
+    private final ConversationRepository conversationRepository;
+    private final MessageRepository messageRepository;
+    private final UserSummaryCache userSummaryCache;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final MessageArchiveService messageArchiveService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (conversationRepository.count() > 0 || messageRepository.count() == 0) {
+            return;
+        }
+        int inserted = conversationRepository.backfillFromMessages();
+        int members = conversationRepository.backfillMembers();
+        log.info("Backfilled {} conversations ({} inbox rows) from existing messages", inserted, members);
+    }
+
+    public void recordMessage(Message message) {
+        recordMessage(message.getId(), message.getSender().getId(), message.getReceiver().getId(),
+                message.getContent(), message.getCreatedAt());
+    }
+
+    public void recordMessage(Long messageId, Long senderId, Long receiverId, String content, LocalDateTime createdAt) {
+        Long userLowId = Math.min(senderId, receiverId);
+        Long userHighId = Math.max(senderId, receiverId);
+        conversationRepository.upsertLastMessage(
+                userLowId,
+                userHighId,
+                messageId,
+                toSnippet(content),
+                createdAt,
+                senderId,
+                receiverId);
+        conversationRepository.syncMembers(userLowId, userHighId);
+    }
+
+    public void recordRead(Long readerId, Long otherUserId, Long messageId) {
+        Long userLowId = Math.min(readerId, otherUserId);
+        Long userHighId = Math.max(readerId, otherUserId);
+        if (conversationRepository.advanceReadWatermark(userLowId, userHighId, readerId, messageId) > 0) {
+            publishReceipt(readerId, otherUserId, messageId);
+        }
+    }
+
+    public void recordConversationRead(Long readerId, Long otherUserId) {
+        Long userLowId = Math.min(readerId, otherUserId);
+        Long userHighId = Math.max(readerId, otherUserId);
+        if (conversationRepository.markReadToLatest(userLowId, userHighId, readerId) == 0) {
+            return;
+        }
+        conversationRepository.findByParticipants(userLowId, userHighId)
+                .ifPresent(conversation -> publishReceipt(readerId, otherUserId, conversation.getLastReadMessageId(readerId)));
+    }
+
+    public void recordDeletion(Message message) {
+        Long senderId = message.getSender().getId();
+        Long receiverId = message.getReceiver().getId();
+        Long userLowId = Math.min(senderId, receiverId);
+        Long userHighId = Math.max(senderId, receiverId);
+
+        boolean unread = conversationRepository.findByParticipants(userLowId, userHighId)
+                .map(conversation -> message.getId() > conversation.getLastReadMessageId(receiverId))
+                .orElse(false);
+        if (unread) {
+            conversationRepository.decrementUnread(userLowId, userHighId, receiverId, 1);
+        }
+        // Only hot rows are rescanned; a conversation whose older history lives in the archive keeps its row
+        if (conversationRepository.refreshLastMessage(userLowId, userHighId) > 0) {
+            conversationRepository.syncMembers(userLowId, userHighId);
+        } else if (messageArchiveService.count(userLowId, userHighId) == 0) {
+            conversationRepository.deleteMembers(userLowId, userHighId);
+            conversationRepository.deleteByParticipants(userLowId, userHighId);
+        }
+    }
+
+    // Keyed by the viewer's conversation partner
+    @Transactional(readOnly = true)
+    public Map<Long, Conversation> getConversationsWith(Long userId, Collection<Long> partnerIds) {
+        if (partnerIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return conversationRepository.findByParticipantAndPartners(userId, partnerIds).stream()
+                .collect(Collectors.toMap(conversation -> conversation.getPartnerId(userId), Function.identity()));
+    }
+
+    @Transactional(readOnly = true)
+    public Long getUnreadCount(Long userId) {
+        return conversationRepository.sumUnreadByParticipant(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public Long getUnreadCount(Long userId, Long otherUserId) {
+        return conversationRepository.findByParticipants(Math.min(userId, otherUserId), Math.max(userId, otherUserId))
+                .map(conversation -> conversation.getUnreadCount(userId))
+                .orElse(0L);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ConversationResponse> getConversations(Long userId, Pageable pageable) {
+        Page<Conversation> conversations = conversationRepository.findByParticipant(userId, pageable);
+        return new PageImpl<>(toResponses(conversations.getContent(), userId), pageable, conversations.getTotalElements());
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<ConversationResponse> getConversations(Long userId, String cursor, int size) {
+        Cursor position = Cursor.decode(cursor);
+        Slice<Conversation> conversations = conversationRepository.findByParticipantBefore(
+                userId, position.getCreatedAt(), position.getId(), PageRequest.of(0, CursorPage.clampSize(size)));
+        return CursorPage.of(conversations,
+                conversation -> new Cursor(conversation.getLastMessageAt(), conversation.getId()),
+                content -> toResponses(content, userId));
+    }
+
+    private List<ConversationResponse> toResponses(List<Conversation> conversations, Long userId) {
+        Map<Long, UserSummaryResponse> partners = userSummaryCache.getAll(conversations.stream()
+                .map(conversation -> conversation.getPartnerId(userId))
+                .collect(Collectors.toList()));
+
+        return conversations.stream()
+                .map(conversation -> {
+                    UserSummaryResponse partner = partners.get(conversation.getPartnerId(userId));
+                    if (partner == null) {
+                        return null;
+                    }
+                    Long unreadCount = conversation.getUnreadCount(userId);
+                    return ConversationResponse.builder()
+                            .conversationPartner(partner)
+                            .lastMessage(conversation.getLastMessageSnippet())
+                            .lastMessageTime(conversation.getLastMessageAt())
+                            .hasUnreadMessages(unreadCount > 0)
+                            .unreadCount(unreadCount)
+                            .build();
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private void publishReceipt(Long readerId, Long partnerId, Long lastReadMessageId) {
+        ReadReceipt receipt = ReadReceipt.builder()
+                .readerId(readerId)
+                .partnerId(partnerId)
+                .lastReadMessageId(lastReadMessageId)
+                .readAt(LocalDateTime.now())
+                .build();
+        TransactionCallbacks.afterCommit(() -> {
+            messagingTemplate.convertAndSendToUser(partnerId.toString(), "/queue/messages/receipts", receipt);
+            messagingTemplate.convertAndSendToUser(readerId.toString(), "/queue/messages/receipts", receipt);
+        });
+    }
+
+    private String toSnippet(String content) {
+        if (content == null || content.length() <= SNIPPET_LENGTH) {
+            return content;
+        }
+        return content.substring(0, SNIPPET_LENGTH);
+    }
+}
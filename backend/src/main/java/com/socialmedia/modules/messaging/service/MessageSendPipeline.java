@@ -0,0 +1,268 @@
+package com.socialmedia.modules.messaging.service;
+
+import com.socialmedia.modules.messaging.config.MessagePipelineProperties;
+import com.socialmedia.modules.messaging.dto.MessageResponse;
+import com.socialmedia.modules.messaging.search.MessageSearchIndex;
+import com.socialmedia.modules.notification.dto.NotificationEvent;
+import com.socialmedia.modules.notification.entity.Notification;
+import com.socialmedia.modules.notification.service.NotificationEventService;
+import com.socialmedia.modules.user.service.UserSummaryCache;
+import com.socialmedia.shared.exception.enums.ErrorCode;
+import com.socialmedia.shared.exception.exceptions.DatabaseException;
+import com.socialmedia.shared.metrics.MetricsSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Group-commit writer for new messages. Each conversation hashes onto one writer thread whose queue is FIFO,
+ * so messages of a conversation are inserted in the order they were accepted. A writer collects whatever
+ * arrives within max-wait-ms, inserts it with one JDBC batch and completes the futures after the commit.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MessageSendPipeline implements MetricsSource {
+    
+    private static final String INSERT_MESSAGE_SQL =
+            "INSERT INTO messages (content, read_status, created_at, sender_id, receiver_id, user_low_id, user_high_id) " +
+            "VALUES (?, false, ?, ?, ?, ?, ?)";
+    
+    private final MessagePipelineProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConversationService conversationService;
+    private final MessageSearchIndex messageSearchIndex;
+    private final UserSummaryCache userSummaryCache;
+    private final NotificationEventService notificationEventService;
+    
+    private List<BlockingQueue<PendingMessage>> queues;
+    private List<Thread> writers;
+    private volatile boolean running;
+    
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        int count = Math.max(1, properties.getWriters());
+        int capacity = Math.max(1, properties.getQueueCapacity() / count);
+        queues = new ArrayList<>(count);
+        writers = new ArrayList<>(count);
+        running = true;
+        for (int i = 0; i < count; i++) {
+            BlockingQueue<PendingMessage> queue = new ArrayBlockingQueue<>(capacity);
+            Thread writer = new Thread(() -> runWriter(queue), "message-writer-" + i);
+            writer.setDaemon(true);
+            queues.add(queue);
+            writers.add(writer);
+            writer.start();
+        }
+    }
+    
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (writers == null) {
+            return;
+        }
+        for (Thread writer : writers) {
+            writer.join(properties.getAckTimeoutMs());
+        }
+    }
+    
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+    
+    public long getAckTimeoutMs() {
+        return properties.getAckTimeoutMs();
+    }
+    
+    public CompletableFuture<MessageResponse> submit(Long senderId, Long receiverId, String content) {
+        PendingMessage pending = new PendingMessage(senderId, receiverId, content, LocalDateTime.now());
+        int conversationHash = Objects.hash(pending.userLowId, pending.userHighId);
+        BlockingQueue<PendingMessage> queue = queues.get(Math.floorMod(conversationHash, queues.size()));
+        if (!running || !queue.offer(pending)) {
+            rejected.incrementAndGet();
+            throw new DatabaseException(ErrorCode.SERVICE_UNAVAILABLE, "Message queue is full, try again shortly");
+        }
+        accepted.incrementAndGet();
+        return pending.future;
+    }
+    
+    private void runWriter(BlockingQueue<PendingMessage> queue) {
+        List<PendingMessage> batch = new ArrayList<>(properties.getMaxBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMessage first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getMaxWaitMs());
+                while (batch.size() < properties.getMaxBatchSize()) {
+                    PendingMessage next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Message writer failed on a batch of {}", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void write(List<PendingMessage> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                insert(batch);
+                for (PendingMessage message : batch) {
+                    conversationService.recordMessage(message.id, message.senderId, message.receiverId,
+                            message.content, message.createdAt);
+                }
+                notificationEventService.publishAll(batch.stream()
+                        .map(message -> NotificationEvent.create(message.receiverId, message.senderId,
+                                Notification.NotificationType.MESSAGE, message.id))
+                        .collect(Collectors.toList()));
+            });
+        } catch (Exception e) {
+            if (batch.size() > 1) {
+                // Isolate the offending message so the rest of the batch still commits, in order
+                for (PendingMessage message : batch) {
+                    write(List.of(message));
+                }
+                return;
+            }
+            failed.incrementAndGet();
+            batch.get(0).future.completeExceptionally(e);
+            return;
+        }
+        batches.incrementAndGet();
+        committed.addAndGet(batch.size());
+        // Acknowledge every sender before any best-effort work, so nothing below can leave a future hanging
+        for (PendingMessage message : batch) {
+            try {
+                message.future.complete(toResponse(message));
+            } catch (RuntimeException e) {
+                message.future.completeExceptionally(e);
+            }
+        }
+        for (PendingMessage message : batch) {
+            try {
+                messageSearchIndex.index(message.id, message.userLowId, message.userHighId, message.content);
+            } catch (RuntimeException e) {
+                // The message is committed; the index catches up from the table on the next start
+                log.warn("Failed to index message {}", message.id, e);
+            }
+        }
+    }
+    
+    private void insert(List<PendingMessage> batch) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_MESSAGE_SQL, new String[] {"id"})) {
+                for (PendingMessage message : batch) {
+                    statement.setString(1, message.content);
+                    statement.setTimestamp(2, Timestamp.valueOf(message.createdAt));
+                    statement.setLong(3, message.senderId);
+                    statement.setLong(4, message.receiverId);
+                    statement.setLong(5, message.userLowId);
+                    statement.setLong(6, message.userHighId);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (int i = 0; keys.next(); i++) {
+                        batch.get(i).id = keys.getLong(1);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+    
+    private MessageResponse toResponse(PendingMessage message) {
+        return MessageResponse.builder()
+                .id(message.id)
+                .content(message.content)
+                .sender(userSummaryCache.get(message.senderId))
+                .receiver(userSummaryCache.get(message.receiverId))
+                .createdAt(message.createdAt)
+                .readStatus(false)
+                .build();
+    }
+    
+    @Override
+    public String getMetricsName() {
+        return "message-pipeline";
+    }
+    
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        long batchCount = batches.get();
+        metrics.put("enabled", properties.isEnabled());
+        metrics.put("accepted", accepted.get());
+        metrics.put("rejected", rejected.get());
+        metrics.put("committed", committed.get());
+        metrics.put("failed", failed.get());
+        metrics.put("batches", batchCount);
+        metrics.put("averageBatchSize", batchCount == 0 ? 0.0 : (double) committed.get() / batchCount);
+        metrics.put("queued", queues == null ? 0 : queues.stream().mapToInt(BlockingQueue::size).sum());
+        return metrics;
+    }
+    
+    private static final class PendingMessage {
+        private final Long senderId;
+        private final Long receiverId;
+        private final String content;
+        private final Long userLowId;
+        private final Long userHighId;
+        private final LocalDateTime createdAt;
+        private final CompletableFuture<MessageResponse> future = new CompletableFuture<>();
+        private Long id;
+        
+        private PendingMessage(Long senderId, Long receiverId, String content, LocalDateTime createdAt) {
+            this.senderId = senderId;
+            this.receiverId = receiverId;
+            this.content = content;
+            this.userLowId = Math.min(senderId, receiverId);
+            this.userHighId = Math.max(senderId, receiverId);
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -3,19 +3,27 @@ package com.socialmedia.modules.messaging.service;
 import com.socialmedia.modules.messaging.dto.MessageRequest;
 import com.socialmedia.modules.messaging.dto.MessageResponse;
 import com.socialmedia.modules.messaging.dto.ConversationResponse;
+import com.socialmedia.shared.pagination.CursorPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface MessageService {
     
     MessageResponse sendMessage(MessageRequest messageRequest, Long senderId);
     
+    CompletableFuture<MessageResponse> sendMessageAsync(MessageRequest messageRequest, Long senderId);
+    
     Page<MessageResponse> getConversationMessages(Long userId, Long otherUserId, Pageable pageable);
     
+    CursorPage<MessageResponse> getConversationMessages(Long userId, Long otherUserId, String cursor, int size);
+    
     Page<ConversationResponse> getUserConversations(Long userId, Pageable pageable);
     
+    CursorPage<ConversationResponse> getUserConversations(Long userId, String cursor, int size);
+    
     MessageResponse getMessageById(Long messageId, Long userId);
     
     void markMessageAsRead(Long messageId, Long userId);
@@ -30,7 +38,9 @@ public interface MessageService {
     
     void deleteMessage(Long messageId, Long userId);
     
-    List<MessageResponse> searchMessagesInConversation(Long userId, Long otherUserId, String query);
+    List<MessageResponse> searchMessagesInConversation(Long userId, Long otherUserId, String query, Pageable pageable);
+    
+    Page<MessageResponse> searchMessages(Long userId, String query, Pageable pageable);
     
     boolean hasConversationWith(Long userId, Long otherUserId);
 } 
\ No newline at end of file
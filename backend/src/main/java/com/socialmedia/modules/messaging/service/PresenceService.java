@@ -0,0 +1,292 @@
+package com.socialmedia.modules.messaging.service;
+
+import com.socialmedia.config.ClusterProperties;
+import com.socialmedia.modules.messaging.config.PresenceProperties;
+import com.socialmedia.modules.messaging.dto.PresenceEvent;
+import com.socialmedia.modules.social.repository.FriendshipRepository;
+import com.socialmedia.security.UserPrincipal;
+import com.socialmedia.shared.metrics.MetricsSource;
+import com.socialmedia.shared.timer.TimerWheel;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks online users from STOMP sessions and pushes coalesced online/offline changes to their friends.
+ * When clustered, sessions are spread over nodes, so local changes are mirrored to the
+ * {@link PresenceStore} on each tick and online checks consult it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PresenceService implements MetricsSource {
+    
+    private final PresenceProperties properties;
+    private final FriendshipRepository friendshipRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final PresenceStore presenceStore;
+    private final ClusterProperties clusterProperties;
+    
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> sessionCounts = new ConcurrentHashMap<>();
+    private final Map<Long, Long> lastSeen = new ConcurrentHashMap<>();
+    private final Map<Long, Long> pendingChanges = new ConcurrentHashMap<>();
+    private final Map<Long, Boolean> published = new ConcurrentHashMap<>();
+    private final Set<Long> unsynced = ConcurrentHashMap.newKeySet();
+    private long lastStoreRefresh;
+    private TimerWheel<String> expiryWheel;
+    
+    private final AtomicLong expiredSessions = new AtomicLong();
+    private final AtomicLong publishedChanges = new AtomicLong();
+    private final AtomicLong coalescedChanges = new AtomicLong();
+    private final AtomicLong storeSyncFailures = new AtomicLong();
+    
+    @PostConstruct
+    void init() {
+        expiryWheel = new TimerWheel<>(properties.getTickMs(), properties.getWheelSlots());
+    }
+    
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        Long userId = resolveUserId(event.getUser());
+        String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+        if (userId != null && sessionId != null) {
+            connect(userId, sessionId);
+        }
+    }
+    
+    @EventListener
+    public void onDisconnected(SessionDisconnectEvent event) {
+        disconnect(event.getSessionId());
+    }
+    
+    public void heartbeat(Long userId, String sessionId) {
+        Session session = sessions.get(sessionId);
+        if (session == null) {
+            // Expired while the socket stayed open, or the connect event carried no user
+            connect(userId, sessionId);
+            return;
+        }
+        session.lastHeartbeat = System.currentTimeMillis();
+    }
+    
+    public void disconnect(String sessionId) {
+        Session session = sessions.remove(sessionId);
+        if (session == null) {
+            return;
+        }
+        lastSeen.put(session.userId, System.currentTimeMillis());
+        Integer remaining = sessionCounts.computeIfPresent(session.userId, (id, count) -> count > 1 ? count - 1 : null);
+        if (remaining == null) {
+            recordChange(session.userId);
+        }
+    }
+    
+    public boolean isOnline(Long userId) {
+        if (sessionCounts.containsKey(userId)) {
+            return true;
+        }
+        return isClustered() && presenceStore.findOnline(List.of(userId)).contains(userId);
+    }
+    
+    public PresenceEvent getPresence(Long userId) {
+        boolean online = isOnline(userId);
+        Long seen = online ? null : lastSeen.get(userId);
+        return PresenceEvent.builder()
+                .userId(userId)
+                .online(online)
+                .lastSeenAt(seen != null ? toDateTime(seen) : null)
+                .build();
+    }
+    
+    public List<Long> getOnlineFriendIds(Long userId) {
+        List<Long> friendIds = friendshipRepository.findFriendIdsByUserId(userId);
+        if (!isClustered()) {
+            return friendIds.stream()
+                    .filter(sessionCounts::containsKey)
+                    .collect(Collectors.toList());
+        }
+        Set<Long> online = presenceStore.findOnline(friendIds);
+        return friendIds.stream()
+                .filter(friendId -> sessionCounts.containsKey(friendId) || online.contains(friendId))
+                .collect(Collectors.toList());
+    }
+    
+    @Scheduled(fixedRateString = "${app.presence.tick-ms:1000}")
+    public void tick() {
+        long now = System.currentTimeMillis();
+        int expired = expiryWheel.advance(now, sessionId -> checkExpiry(sessionId, now));
+        if (expired > 0) {
+            log.debug("Checked {} presence sessions for expiry", expired);
+        }
+        if (isClustered()) {
+            // Mirror local changes first so the published state accounts for sessions on other nodes
+            syncStore(now);
+        }
+        publishPending(now);
+    }
+    
+    private void connect(Long userId, String sessionId) {
+        long now = System.currentTimeMillis();
+        if (sessions.putIfAbsent(sessionId, new Session(userId, now)) != null) {
+            return;
+        }
+        expiryWheel.schedule(sessionId, now + properties.getHeartbeatTimeoutMs());
+        if (sessionCounts.merge(userId, 1, Integer::sum) == 1) {
+            recordChange(userId);
+        }
+    }
+    
+    private void checkExpiry(String sessionId, long now) {
+        Session session = sessions.get(sessionId);
+        if (session == null) {
+            return;
+        }
+        long deadline = session.lastHeartbeat + properties.getHeartbeatTimeoutMs();
+        if (deadline > now) {
+            // Heartbeats only touch the timestamp, so live sessions are re-armed lazily here
+            expiryWheel.schedule(sessionId, deadline);
+            return;
+        }
+        expiredSessions.incrementAndGet();
+        disconnect(sessionId);
+    }
+    
+    private void recordChange(Long userId) {
+        if (isClustered()) {
+            unsynced.add(userId);
+        }
+        pendingChanges.putIfAbsent(userId, System.currentTimeMillis());
+    }
+    
+    private void syncStore(long now) {
+        List<Long> online = new ArrayList<>();
+        List<Long> offline = new ArrayList<>();
+        for (Iterator<Long> iterator = unsynced.iterator(); iterator.hasNext(); ) {
+            Long userId = iterator.next();
+            iterator.remove();
+            (sessionCounts.containsKey(userId) ? online : offline).add(userId);
+        }
+        try {
+            presenceStore.sync(online, offline);
+            if (now - lastStoreRefresh >= properties.getNodeTimeoutMs() / 3) {
+                presenceStore.refresh();
+                lastStoreRefresh = now;
+            }
+        } catch (RuntimeException e) {
+            storeSyncFailures.incrementAndGet();
+            unsynced.addAll(online);
+            unsynced.addAll(offline);
+            log.warn("Failed to sync presence to the shared store; retrying on the next tick", e);
+        }
+    }
+    
+    private boolean isClustered() {
+        return clusterProperties.isEnabled();
+    }
+    
+    private void publishPending(long now) {
+        Iterator<Map.Entry<Long, Long>> iterator = pendingChanges.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Long> change = iterator.next();
+            if (change.getValue() + properties.getCoalesceWindowMs() > now) {
+                continue;
+            }
+            iterator.remove();
+            Long userId = change.getKey();
+            boolean online = isOnline(userId);
+            boolean previouslyOnline = Boolean.TRUE.equals(published.get(userId));
+            if (online == previouslyOnline) {
+                coalescedChanges.incrementAndGet();
+                continue;
+            }
+            if (online) {
+                published.put(userId, true);
+            } else {
+                published.remove(userId);
+            }
+            publish(getPresence(userId));
+        }
+    }
+    
+    private void publish(PresenceEvent event) {
+        try {
+            for (Long friendId : getOnlineFriendIds(event.getUserId())) {
+                messagingTemplate.convertAndSendToUser(friendId.toString(), "/queue/presence", event);
+            }
+            publishedChanges.incrementAndGet();
+        } catch (Exception e) {
+            log.warn("Failed to publish presence change for user {}", event.getUserId(), e);
+        }
+    }
+    
+    private static Long resolveUserId(Principal principal) {
+        if (principal instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            return userPrincipal.getId();
+        }
+        if (principal == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(principal.getName());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+    
+    @Override
+    public String getMetricsName() {
+        return "presence";
+    }
+    
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("onlineUsers", sessionCounts.size());
+        metrics.put("sessions", sessions.size());
+        metrics.put("scheduledExpiries", expiryWheel.size());
+        metrics.put("pendingChanges", pendingChanges.size());
+        metrics.put("expiredSessions", expiredSessions.get());
+        metrics.put("publishedChanges", publishedChanges.get());
+        metrics.put("coalescedChanges", coalescedChanges.get());
+        metrics.put("storeSyncFailures", storeSyncFailures.get());
+        return metrics;
+    }
+    
+    private static final class Session {
+        private final Long userId;
+        private volatile long lastHeartbeat;
+        
+        private Session(Long userId, long lastHeartbeat) {
+            this.userId = userId;
+            this.lastHeartbeat = lastHeartbeat;
+        }
+    }
+}
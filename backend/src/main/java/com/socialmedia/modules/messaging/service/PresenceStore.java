@@ -0,0 +1,86 @@
+package com.socialmedia.modules.messaging.service;
+
+import com.socialmedia.modules.messaging.config.PresenceProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Presence shared by all nodes through PostgreSQL, used when app.cluster.enabled is set because a user's sessions
+ * may live on any node. Each node keeps one row per user it holds a session for and refreshes its rows periodically,
+ * so the rows of a node that died stop counting once they are older than the node timeout.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PresenceStore {
+    
+    private static final String UPSERT_SQL =
+            "INSERT INTO user_presence (node_id, user_id, seen_at) VALUES (?, ?, now()) " +
+            "ON CONFLICT (node_id, user_id) DO UPDATE SET seen_at = now()";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final PresenceProperties properties;
+    
+    private final String nodeId = UUID.randomUUID().toString();
+    
+    public void sync(Collection<Long> online, Collection<Long> offline) {
+        if (!online.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, online, online.size(), (statement, userId) -> {
+                statement.setString(1, nodeId);
+                statement.setLong(2, userId);
+            });
+        }
+        if (!offline.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM user_presence WHERE node_id = ? AND user_id = ?",
+                    offline, offline.size(), (statement, userId) -> {
+                        statement.setString(1, nodeId);
+                        statement.setLong(2, userId);
+                    });
+        }
+    }
+    
+    // Keeps this node's rows alive and drops the rows of nodes that stopped refreshing
+    public void refresh() {
+        jdbcTemplate.update("UPDATE user_presence SET seen_at = now() WHERE node_id = ?", nodeId);
+        int expired = jdbcTemplate.update(
+                "DELETE FROM user_presence WHERE seen_at < now() - ? * INTERVAL '1 millisecond'",
+                properties.getNodeTimeoutMs());
+        if (expired > 0) {
+            log.info("Dropped {} presence rows of nodes that stopped refreshing", expired);
+        }
+    }
+    
+    // The given users that have a live session on any node
+    public Set<Long> findOnline(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        List<Object> args = new ArrayList<>(userIds);
+        args.add(properties.getNodeTimeoutMs());
+        String placeholders = String.join(", ", Collections.nCopies(userIds.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT DISTINCT user_id FROM user_presence WHERE user_id IN (" + placeholders + ") " +
+                "AND seen_at >= now() - ? * INTERVAL '1 millisecond'", Long.class, args.toArray()));
+    }
+    
+    @PreDestroy
+    public void clear() {
+        try {
+            jdbcTemplate.update("DELETE FROM user_presence WHERE node_id = ?", nodeId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to clear presence rows of this node; they expire after {} ms",
+                    properties.getNodeTimeoutMs(), e);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.socialmedia.modules.messaging.service;
+
+import com.socialmedia.modules.messaging.config.TypingProperties;
+import com.socialmedia.modules.messaging.dto.TypingNotification;
+import com.socialmedia.shared.metrics.MetricsSource;
+import com.socialmedia.shared.timer.TimerWheel;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Turns the raw typing frames of a (sender, receiver) pair into start/stop transitions. Repeated starts only
+ * refresh the state, a stop is held back for the dedup window so a resumed start cancels it, and a start
+ * with no follow-up frames expires into a stop.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TypingIndicatorService implements MetricsSource {
+    
+    private final TypingProperties properties;
+    private final SimpMessagingTemplate messagingTemplate;
+    
+    private final Map<TypingKey, State> states = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private TimerWheel<Timer> timers;
+    
+    private final AtomicLong framesReceived = new AtomicLong();
+    private final AtomicLong framesForwarded = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    
+    @PostConstruct
+    void init() {
+        timers = new TimerWheel<>(properties.getTickMs(), properties.getWheelSlots());
+    }
+    
+    public void onFrame(String sessionId, Long senderId, Long receiverId, boolean typing) {
+        framesReceived.incrementAndGet();
+        String bucketKey = sessionId != null ? sessionId : "user:" + senderId;
+        if (!buckets.computeIfAbsent(bucketKey, key -> new TokenBucket(properties.getFramesPerSecond(), properties.getBurst()))
+                .tryAcquire()) {
+            rateLimited.incrementAndGet();
+            return;
+        }
+        
+        long now = System.currentTimeMillis();
+        TypingKey key = new TypingKey(senderId, receiverId);
+        boolean[] started = new boolean[1];
+        states.compute(key, (k, state) -> {
+            if (typing) {
+                if (state == null) {
+                    state = new State();
+                    started[0] = true;
+                }
+                state.typing = true;
+                state.lastFrame = now;
+            } else if (state != null && state.typing) {
+                state.typing = false;
+                state.stoppedAt = now;
+            }
+            if (state != null) {
+                arm(k, state);
+            }
+            return state;
+        });
+        if (started[0]) {
+            forward(key, true);
+        }
+    }
+    
+    // The delivered message replaces the indicator on the receiver's side, so no stop frame is sent
+    public void clear(Long senderId, Long receiverId) {
+        states.remove(new TypingKey(senderId, receiverId));
+    }
+    
+    @EventListener
+    public void onDisconnected(SessionDisconnectEvent event) {
+        buckets.remove(event.getSessionId());
+    }
+    
+    @Scheduled(fixedRateString = "${app.typing.tick-ms:250}")
+    public void tick() {
+        long now = System.currentTimeMillis();
+        timers.advance(now, timer -> evaluate(timer, now));
+    }
+    
+    private void evaluate(Timer timer, long now) {
+        boolean[] stopped = new boolean[1];
+        states.computeIfPresent(timer.key(), (key, state) -> {
+            if (state.armedAt != timer.deadline()) {
+                return state;
+            }
+            state.armedAt = 0;
+            if (deadline(state) > now) {
+                arm(key, state);
+                return state;
+            }
+            if (state.typing) {
+                expired.incrementAndGet();
+            }
+            stopped[0] = true;
+            return null;
+        });
+        if (stopped[0]) {
+            forward(timer.key(), false);
+        }
+    }
+    
+    private void arm(TypingKey key, State state) {
+        long deadline = deadline(state);
+        if (state.armedAt == 0 || deadline < state.armedAt) {
+            state.armedAt = deadline;
+            timers.schedule(new Timer(key, deadline), deadline);
+        }
+    }
+    
+    private long deadline(State state) {
+        return state.typing
+                ? state.lastFrame + properties.getExpireMs()
+                : state.stoppedAt + properties.getDedupWindowMs();
+    }
+    
+    private void forward(TypingKey key, boolean typing) {
+        framesForwarded.incrementAndGet();
+        try {
+            messagingTemplate.convertAndSendToUser(
+                key.receiverId().toString(),
+                "/queue/typing",
+                new TypingNotification(key.senderId(), key.receiverId(), typing)
+            );
+        } catch (Exception e) {
+            log.warn("Failed to forward typing state from {} to {}", key.senderId(), key.receiverId(), e);
+        }
+    }
+    
+    @Override
+    public String getMetricsName() {
+        return "typing";
+    }
+    
+    @Override
+    public Map<String, Object> getMetrics() {
+        long received = framesReceived.get();
+        long forwarded = framesForwarded.get();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("framesReceived", received);
+        metrics.put("framesForwarded", forwarded);
+        metrics.put("rateLimited", rateLimited.get());
+        metrics.put("expired", expired.get());
+        metrics.put("forwardRatio", received == 0 ? 0.0 : (double) forwarded / received);
+        metrics.put("activeStates", states.size());
+        metrics.put("sessions", buckets.size());
+        return metrics;
+    }
+    
+    private record TypingKey(Long senderId, Long receiverId) {
+    }
+    
+    private record Timer(TypingKey key, long deadline) {
+    }
+    
+    private static final class State {
+        private boolean typing;
+        private long lastFrame;
+        private long stoppedAt;
+        private long armedAt;
+    }
+    
+    private static final class TokenBucket {
+        private final double ratePerMs;
+        private final double capacity;
+        private double tokens;
+        private long refilledAt = System.currentTimeMillis();
+        
+        private TokenBucket(double perSecond, int burst) {
+            this.ratePerMs = perSecond / 1000.0;
+            this.capacity = Math.max(1, burst);
+            this.tokens = capacity;
+        }
+        
+        private synchronized boolean tryAcquire() {
+            long now = System.currentTimeMillis();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * ratePerMs);
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.socialmedia.modules.messaging.service.impl;
 
+import com.socialmedia.modules.messaging.archive.ArchivedMessage;
+import com.socialmedia.modules.messaging.archive.MessageArchiveService;
+import com.socialmedia.modules.messaging.entity.Conversation;
 import com.socialmedia.modules.messaging.entity.Message;
 import com.socialmedia.modules.user.entity.User;
 import com.socialmedia.modules.messaging.dto.MessageRequest;
@@ -7,21 +10,47 @@ import com.socialmedia.modules.messaging.dto.MessageResponse;
 import com.socialmedia.modules.messaging.dto.ConversationResponse;
 import com.socialmedia.shared.exception.exceptions.MessageNotFoundException;
 import com.socialmedia.shared.exception.exceptions.UnauthorizedMessageAccessException;
+import com.socialmedia.modules.messaging.service.ConversationService;
+import com.socialmedia.modules.messaging.service.MessageSendPipeline;
 import com.socialmedia.modules.messaging.service.MessageService;
+import com.socialmedia.modules.messaging.search.MessageSearchIndex;
+import com.socialmedia.modules.notification.service.NotificationEventService;
 import com.socialmedia.modules.user.dto.UserSummaryResponse;
+import com.socialmedia.shared.exception.enums.ErrorCode;
+import com.socialmedia.shared.exception.exceptions.DatabaseException;
 import com.socialmedia.shared.exception.exceptions.UserNotFoundException;
+import com.socialmedia.shared.exception.exceptions.ValidationException;
 import com.socialmedia.modules.messaging.repository.MessageRepository;
 import com.socialmedia.modules.user.repository.UserRepository;
+import com.socialmedia.modules.user.service.UserSummaryCache;
+import com.socialmedia.shared.pagination.Cursor;
+import com.socialmedia.shared.pagination.CursorPage;
+import com.socialmedia.shared.transaction.TransactionCallbacks;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -32,11 +61,64 @@ public class MessageServiceImpl implements MessageService {
 
     private final MessageRepository messageRepository;
     private final UserRepository userRepository;
+    private final UserSummaryCache userSummaryCache;
+    private final ConversationService conversationService;
+    private final MessageSearchIndex messageSearchIndex;
+    private final MessageSendPipeline messageSendPipeline;
+    private final MessageArchiveService messageArchiveService;
+    private final NotificationEventService notificationEventService;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public MessageResponse sendMessage(MessageRequest messageRequest, Long senderId) {
-        log.info("Sending message from user {} to user {}", senderId, messageRequest.getReceiverId());
+        CompletableFuture<MessageResponse> sent = sendMessageAsync(messageRequest, senderId);
+        try {
+            return sent.get(messageSendPipeline.getAckTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new DatabaseException(ErrorCode.QUERY_TIMEOUT, "Message was not committed in time");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException(ErrorCode.SERVICE_UNAVAILABLE, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new DatabaseException(ErrorCode.INTERNAL_SERVER_ERROR, e.getCause());
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<MessageResponse> sendMessageAsync(MessageRequest messageRequest, Long senderId) {
+        log.debug("Sending message from user {} to user {}", senderId, messageRequest.getReceiverId());
+        
+        // STOMP frames and the pipeline never pass through @Valid, so the request is checked here for every caller
+        validate(messageRequest);
+        if (!messageSendPipeline.isEnabled()) {
+            return CompletableFuture.completedFuture(
+                transactionTemplate.execute(status -> persistMessage(messageRequest, senderId)));
+        }
         
+        // Summaries are cached, so this avoids loading both User entities per message
+        if (userSummaryCache.get(messageRequest.getReceiverId()) == null) {
+            throw new UserNotFoundException("Receiver not found");
+        }
+        return messageSendPipeline.submit(senderId, messageRequest.getReceiverId(), messageRequest.getContent());
+    }
+
+    private void validate(MessageRequest messageRequest) {
+        Set<ConstraintViolation<MessageRequest>> violations = validator.validate(messageRequest);
+        if (!violations.isEmpty()) {
+            throw new ValidationException(ErrorCode.VALIDATION_FAILED, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+    }
+
+    private MessageResponse persistMessage(MessageRequest messageRequest, Long senderId) {
         User sender = userRepository.findById(senderId)
             .orElseThrow(() -> new UserNotFoundException("Sender not found"));
         User receiver = userRepository.findById(messageRequest.getReceiverId())
@@ -51,9 +133,13 @@ public class MessageServiceImpl implements MessageService {
             .build();
 
         Message savedMessage = messageRepository.save(message);
-        log.info("Message sent successfully with ID: {}", savedMessage.getId());
+        conversationService.recordMessage(savedMessage);
+        notificationEventService.createMessageNotification(receiver.getId(), senderId, savedMessage.getId());
+        TransactionCallbacks.afterCommit(() -> messageSearchIndex.index(
+            savedMessage.getId(), savedMessage.getUserLowId(), savedMessage.getUserHighId(), savedMessage.getContent()));
+        log.debug("Message sent successfully with ID: {}", savedMessage.getId());
         
-        return convertToMessageResponse(savedMessage);
+        return convertToMessageResponse(savedMessage, false);
     }
 
     @Override
@@ -68,8 +154,69 @@ public class MessageServiceImpl implements MessageService {
             throw new UserNotFoundException("Other user not found: " + otherUserId);
         }
 
-        Page<Message> messages = messageRepository.findConversationMessages(userId, otherUserId, pageable);
-        return messages.map(this::convertToMessageResponse);
+        Long userLowId = Math.min(userId, otherUserId);
+        Long userHighId = Math.max(userId, otherUserId);
+        Page<Message> messages = messageRepository.findConversationMessages(userLowId, userHighId, pageable);
+        List<MessageResponse> content = toMessageResponses(messages.getContent(), userId);
+        long archived = messageArchiveService.count(userLowId, userHighId);
+        if (archived == 0) {
+            return new PageImpl<>(content, pageable, messages.getTotalElements());
+        }
+        
+        // Archived history is strictly older than anything still in the table, so it continues after the last hot row
+        int missing = pageable.getPageSize() - content.size();
+        if (missing > 0) {
+            long archiveOffset = Math.max(0, pageable.getOffset() - messages.getTotalElements());
+            content = new ArrayList<>(content);
+            content.addAll(toArchivedResponses(
+                    messageArchiveService.read(userLowId, userHighId, archiveOffset, missing), userId, otherUserId));
+        }
+        return new PageImpl<>(content, pageable, messages.getTotalElements() + archived);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<MessageResponse> getConversationMessages(Long userId, Long otherUserId, String cursor, int size) {
+        log.debug("Getting conversation messages between user {} and user {} before cursor", userId, otherUserId);
+        
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("User not found: " + userId);
+        }
+        if (!userRepository.existsById(otherUserId)) {
+            throw new UserNotFoundException("Other user not found: " + otherUserId);
+        }
+
+        size = CursorPage.clampSize(size);
+        Long userLowId = Math.min(userId, otherUserId);
+        Long userHighId = Math.max(userId, otherUserId);
+        Cursor position = Cursor.decode(cursor);
+        Slice<Message> messages = messageRepository.findConversationMessagesBefore(
+                userLowId, userHighId, position.getCreatedAt(), position.getId(), PageRequest.of(0, size));
+        if (messages.hasNext() || messageArchiveService.count(userLowId, userHighId) == 0) {
+            return CursorPage.of(messages,
+                    message -> new Cursor(message.getCreatedAt(), message.getId()),
+                    content -> toMessageResponses(content, userId));
+        }
+        
+        // The table ran out before the page filled; continue seamlessly into the archive
+        if (messages.hasContent()) {
+            Message oldest = messages.getContent().get(messages.getNumberOfElements() - 1);
+            position = new Cursor(oldest.getCreatedAt(), oldest.getId());
+        }
+        int missing = size - messages.getNumberOfElements();
+        List<ArchivedMessage> archived = messageArchiveService.readBefore(
+                userLowId, userHighId, position.getCreatedAt(), position.getId(), missing + 1);
+        boolean hasNext = archived.size() > missing;
+        if (hasNext) {
+            archived = archived.subList(0, missing);
+        }
+        if (!archived.isEmpty()) {
+            ArchivedMessage oldest = archived.get(archived.size() - 1);
+            position = new Cursor(oldest.createdAt(), oldest.id());
+        }
+        List<MessageResponse> content = new ArrayList<>(toMessageResponses(messages.getContent(), userId));
+        content.addAll(toArchivedResponses(archived, userId, otherUserId));
+        return new CursorPage<>(content, hasNext ? position.encode() : null, hasNext, content.size());
     }
 
     @Override
@@ -81,33 +228,19 @@ public class MessageServiceImpl implements MessageService {
             throw new UserNotFoundException("User not found: " + userId);
         }
 
-        List<Object[]> conversationData = messageRepository.findUserConversations(userId);
-        
-        List<ConversationResponse> conversations = conversationData.stream()
-            .map(data -> {
-                Long otherUserId = (Long) data[0];
-                String lastMessageContent = (String) data[1];
-                LocalDateTime lastMessageTime = (LocalDateTime) data[2];
-                Long unreadCount = (Long) data[3];
-                
-                User otherUser = userRepository.findById(otherUserId).orElse(null);
-                if (otherUser == null) return null;
-                
-                return ConversationResponse.builder()
-                    .conversationPartner(convertToUserSummary(otherUser))
-                    .lastMessage(lastMessageContent)
-                    .lastMessageTime(lastMessageTime)
-                    .unreadCount(unreadCount != null ? unreadCount : 0L)
-                    .build();
-            })
-            .filter(conv -> conv != null)
-            .collect(Collectors.toList());
+        return conversationService.getConversations(userId, pageable);
+    }
 
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), conversations.size());
-        List<ConversationResponse> pageContent = conversations.subList(start, end);
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ConversationResponse> getUserConversations(Long userId, String cursor, int size) {
+        log.debug("Getting conversations for user {} before cursor", userId);
         
-        return new PageImpl<>(pageContent, pageable, conversations.size());
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("User not found: " + userId);
+        }
+
+        return conversationService.getConversations(userId, cursor, size);
     }
 
     @Override
@@ -115,14 +248,22 @@ public class MessageServiceImpl implements MessageService {
     public MessageResponse getMessageById(Long messageId, Long userId) {
         log.info("Getting message {} for user {}", messageId, userId);
         
-        Message message = messageRepository.findById(messageId)
-            .orElseThrow(() -> new MessageNotFoundException("Message not found: " + messageId));
+        Message message = messageRepository.findById(messageId).orElse(null);
+        if (message == null) {
+            // Old messages live in the archive, which only looks in the user's own conversations
+            ArchivedMessage archived = messageArchiveService.find(messageId, userId);
+            if (archived == null) {
+                throw new MessageNotFoundException("Message not found: " + messageId);
+            }
+            Long otherUserId = archived.senderId().equals(userId) ? archived.receiverId() : archived.senderId();
+            return toArchivedResponses(List.of(archived), userId, otherUserId).get(0);
+        }
         
         if (!message.getSender().getId().equals(userId) && !message.getReceiver().getId().equals(userId)) {
             throw new UnauthorizedMessageAccessException("Unauthorized access to message: " + messageId);
         }
         
-        return convertToMessageResponse(message);
+        return toMessageResponses(List.of(message), userId).get(0);
     }
 
     @Override
@@ -136,8 +277,8 @@ public class MessageServiceImpl implements MessageService {
             throw new UnauthorizedMessageAccessException("Only receiver can mark message as read: " + messageId);
         }
         
-        message.setReadStatus(true);
-        messageRepository.save(message);
+        // Advances the reader's watermark; earlier messages in the conversation count as read too
+        conversationService.recordRead(userId, message.getSender().getId(), messageId);
         log.info("Message {} marked as read", messageId);
     }
 
@@ -152,8 +293,8 @@ public class MessageServiceImpl implements MessageService {
             throw new UserNotFoundException("Other user not found: " + otherUserId);
         }
         
-        int updatedCount = messageRepository.markConversationAsRead(userId, otherUserId);
-        log.info("Marked {} messages as read in conversation", updatedCount);
+        conversationService.recordConversationRead(userId, otherUserId);
+        log.info("Marked conversation between user {} and user {} as read", userId, otherUserId);
     }
 
     @Override
@@ -165,7 +306,7 @@ public class MessageServiceImpl implements MessageService {
             throw new UserNotFoundException("User not found: " + userId);
         }
         
-        return messageRepository.countUnreadMessages(userId);
+        return conversationService.getUnreadCount(userId);
     }
 
     @Override
@@ -180,7 +321,7 @@ public class MessageServiceImpl implements MessageService {
             throw new UserNotFoundException("Other user not found: " + otherUserId);
         }
         
-        return messageRepository.countUnreadMessagesInConversation(userId, otherUserId);
+        return conversationService.getUnreadCount(userId, otherUserId);
     }
 
     @Override
@@ -194,29 +335,36 @@ public class MessageServiceImpl implements MessageService {
         
         Pageable pageable = Pageable.ofSize(limit);
         List<Message> messages = messageRepository.findRecentMessages(userId, pageable);
-        return messages.stream()
-            .map(this::convertToMessageResponse)
-            .collect(Collectors.toList());
+        return toMessageResponses(messages, userId);
     }
 
     @Override
     public void deleteMessage(Long messageId, Long userId) {
         log.info("Deleting message {} by user {}", messageId, userId);
         
-        Message message = messageRepository.findById(messageId)
-            .orElseThrow(() -> new MessageNotFoundException("Message not found: " + messageId));
+        Message message = messageRepository.findById(messageId).orElse(null);
+        if (message == null) {
+            // Old messages live in the archive; the sender can still delete them there
+            if (!messageArchiveService.delete(messageId, userId)) {
+                throw new MessageNotFoundException("Message not found: " + messageId);
+            }
+            log.info("Archived message {} deleted successfully", messageId);
+            return;
+        }
         
         if (!message.getSender().getId().equals(userId)) {
             throw new UnauthorizedMessageAccessException("Only sender can delete message: " + messageId);
         }
         
         messageRepository.delete(message);
+        conversationService.recordDeletion(message);
+        TransactionCallbacks.afterCommit(() -> messageSearchIndex.delete(messageId));
         log.info("Message {} deleted successfully", messageId);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<MessageResponse> searchMessagesInConversation(Long userId, Long otherUserId, String query) {
+    public List<MessageResponse> searchMessagesInConversation(Long userId, Long otherUserId, String query, Pageable pageable) {
         log.info("Searching messages in conversation between user {} and user {} with query: {}", userId, otherUserId, query);
         
         if (!userRepository.existsById(userId)) {
@@ -226,10 +374,48 @@ public class MessageServiceImpl implements MessageService {
             throw new UserNotFoundException("Other user not found: " + otherUserId);
         }
         
-        List<Message> messages = messageRepository.searchMessagesInConversation(userId, otherUserId, query);
-        return messages.stream()
-            .map(this::convertToMessageResponse)
+        if (messageSearchIndex.isActive()) {
+            return loadRanked(messageSearchIndex.search(userId, otherUserId, query, pageable), userId).getContent();
+        }
+        
+        List<Message> messages = messageRepository.searchMessagesInConversation(
+            Math.min(userId, otherUserId), Math.max(userId, otherUserId), query, pageable);
+        return toMessageResponses(messages, userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MessageResponse> searchMessages(Long userId, String query, Pageable pageable) {
+        log.info("Searching all conversations of user {} with query: {}", userId, query);
+        
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("User not found: " + userId);
+        }
+        
+        if (messageSearchIndex.isActive()) {
+            return loadRanked(messageSearchIndex.search(userId, null, query, pageable), userId);
+        }
+        
+        // Index still catching up after startup
+        Slice<Message> messages = messageRepository.searchMessagesByParticipant(userId, query, pageable);
+        long seen = pageable.getOffset() + messages.getNumberOfElements() + (messages.hasNext() ? 1 : 0);
+        return new PageImpl<>(toMessageResponses(messages.getContent(), userId), pageable, seen);
+    }
+
+    private Page<MessageResponse> loadRanked(Page<Long> ids, Long userId) {
+        Map<Long, Message> messages = messageRepository.findAllById(ids.getContent()).stream()
+            .collect(Collectors.toMap(Message::getId, Function.identity()));
+        List<Message> ranked = ids.getContent().stream()
+            .map(messages::get)
+            .filter(message -> message != null)
             .collect(Collectors.toList());
+        if (ranked.size() < ids.getNumberOfElements()) {
+            // Deleted or archived through another node; drop them from this node's index too
+            messageSearchIndex.delete(ids.getContent().stream()
+                .filter(id -> !messages.containsKey(id))
+                .collect(Collectors.toList()));
+        }
+        return new PageImpl<>(toMessageResponses(ranked, userId), ids.getPageable(), ids.getTotalElements());
     }
 
     @Override
@@ -241,27 +427,59 @@ public class MessageServiceImpl implements MessageService {
             return false;
         }
         
-        return messageRepository.hasConversation(userId, otherUserId);
+        Long userLowId = Math.min(userId, otherUserId);
+        Long userHighId = Math.max(userId, otherUserId);
+        return messageRepository.existsByUserLowIdAndUserHighId(userLowId, userHighId)
+            || messageArchiveService.count(userLowId, userHighId) > 0;
     }
 
-    private MessageResponse convertToMessageResponse(Message message) {
+    // Read state comes from the receiver's watermark on the conversation row, one query per list
+    private List<MessageResponse> toMessageResponses(List<Message> messages, Long userId) {
+        Set<Long> partnerIds = messages.stream()
+            .map(message -> userId.equals(message.getSender().getId()) ? message.getReceiver().getId() : message.getSender().getId())
+            .collect(Collectors.toSet());
+        Map<Long, Conversation> conversations = conversationService.getConversationsWith(userId, partnerIds);
+        return messages.stream()
+            .map(message -> {
+                Long receiverId = message.getReceiver().getId();
+                Conversation conversation = conversations.get(
+                    userId.equals(message.getSender().getId()) ? receiverId : message.getSender().getId());
+                boolean read = conversation != null && message.getId() <= conversation.getLastReadMessageId(receiverId);
+                return convertToMessageResponse(message, read);
+            })
+            .collect(Collectors.toList());
+    }
+
+    private List<MessageResponse> toArchivedResponses(List<ArchivedMessage> messages, Long userId, Long otherUserId) {
+        if (messages.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Conversation conversation = conversationService.getConversationsWith(userId, Set.of(otherUserId)).get(otherUserId);
+        Map<Long, UserSummaryResponse> users = userSummaryCache.getAll(List.of(userId, otherUserId));
+        return messages.stream()
+            .map(message -> MessageResponse.builder()
+                .id(message.id())
+                .content(message.content())
+                .sender(users.get(message.senderId()))
+                .receiver(users.get(message.receiverId()))
+                .createdAt(message.createdAt())
+                .readStatus(conversation != null && message.id() <= conversation.getLastReadMessageId(message.receiverId()))
+                .build())
+            .collect(Collectors.toList());
+    }
+
+    private MessageResponse convertToMessageResponse(Message message, boolean read) {
         return MessageResponse.builder()
             .id(message.getId())
             .content(message.getContent())
             .sender(convertToUserSummary(message.getSender()))
             .receiver(convertToUserSummary(message.getReceiver()))
             .createdAt(message.getCreatedAt())
-            .readStatus(message.getReadStatus())
+            .readStatus(read)
             .build();
     }
 
     private UserSummaryResponse convertToUserSummary(User user) {
-        return UserSummaryResponse.builder()
-            .id(user.getId())
-            .username(user.getUsername())
-            .firstName(user.getFirstName())
-            .lastName(user.getLastName())
-            .profileImageUrl(user.getProfileImageUrl())
-            .build();
+        return userSummaryCache.summarize(user);
     }
 } 
\ No newline at end of file
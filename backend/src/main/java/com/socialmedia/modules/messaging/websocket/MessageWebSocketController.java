@@ -2,9 +2,14 @@ package com.socialmedia.modules.messaging.websocket;
 
 import com.socialmedia.modules.messaging.dto.MessageRequest;
 import com.socialmedia.modules.messaging.dto.MessageResponse;
+import com.socialmedia.modules.messaging.dto.TypingNotification;
 import com.socialmedia.modules.messaging.service.MessageService;
+import com.socialmedia.modules.messaging.service.PresenceService;
+import com.socialmedia.modules.messaging.service.TypingIndicatorService;
+import com.socialmedia.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
@@ -13,6 +18,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
+import java.util.Map;
 
 @Slf4j
 @Controller
@@ -21,36 +27,37 @@ public class MessageWebSocketController {
 
     private final MessageService messageService;
     private final SimpMessagingTemplate messagingTemplate;
+    private final PresenceService presenceService;
+    private final TypingIndicatorService typingIndicatorService;
 
     @MessageMapping("/chat.sendMessage")
     public void sendMessage(@Payload MessageRequest messageRequest, Principal principal) {
         try {
-            log.info("WebSocket: Sending message from {} to {}", principal.getName(), messageRequest.getReceiverId());
+            log.debug("WebSocket: Sending message from {} to {}", principal.getName(), messageRequest.getReceiverId());
             
             Long senderId = extractUserIdFromPrincipal(principal);
-            MessageResponse messageResponse = messageService.sendMessage(messageRequest, senderId);
-            
-            messagingTemplate.convertAndSendToUser(
-                messageRequest.getReceiverId().toString(),
-                "/queue/messages",
-                messageResponse
-            );
-            
-            messagingTemplate.convertAndSendToUser(
-                senderId.toString(),
-                "/queue/messages/sent",
-                messageResponse
-            );
-            
-            log.info("WebSocket: Message sent successfully with ID: {}", messageResponse.getId());
+            typingIndicatorService.clear(senderId, messageRequest.getReceiverId());
+            // Delivery happens once the message is committed, without holding the inbound thread
+            messageService.sendMessageAsync(messageRequest, senderId).whenComplete((messageResponse, error) -> {
+                if (error != null) {
+                    sendError(principal, "Failed to send message", error);
+                    return;
+                }
+                
+                messagingTemplate.convertAndSendToUser(
+                    messageRequest.getReceiverId().toString(),
+                    "/queue/messages",
+                    messageResponse
+                );
+                
+                messagingTemplate.convertAndSendToUser(
+                    senderId.toString(),
+                    "/queue/messages/sent",
+                    messageResponse
+                );
+            });
         } catch (Exception e) {
-            log.error("WebSocket: Error sending message", e);
-            
-            messagingTemplate.convertAndSendToUser(
-                principal.getName(),
-                "/queue/errors",
-                "Failed to send message: " + e.getMessage()
-            );
+            sendError(principal, "Failed to send message", e);
         }
     }
 
@@ -107,18 +114,11 @@ public class MessageWebSocketController {
     }
 
     @MessageMapping("/chat.typing")
-    public void handleTyping(@Payload TypingNotification typingNotification, Principal principal) {
+    public void handleTyping(@Payload TypingNotification typingNotification, Principal principal,
+                             @Header("simpSessionId") String sessionId) {
         try {
-            log.debug("WebSocket: User {} typing to {}", principal.getName(), typingNotification.getReceiverId());
-            
             Long senderId = extractUserIdFromPrincipal(principal);
-            typingNotification.setSenderId(senderId);
-            
-            messagingTemplate.convertAndSendToUser(
-                typingNotification.getReceiverId().toString(),
-                "/queue/typing",
-                typingNotification
-            );
+            typingIndicatorService.onFrame(sessionId, senderId, typingNotification.getReceiverId(), typingNotification.isTyping());
         } catch (Exception e) {
             log.error("WebSocket: Error handling typing notification", e);
         }
@@ -126,15 +126,10 @@ public class MessageWebSocketController {
 
     @MessageMapping("/chat.online")
     @SendToUser("/queue/reply")
-    public String handleOnlineStatus(Principal principal) {
+    public String handleOnlineStatus(Principal principal, @Header("simpSessionId") String sessionId) {
         try {
-            log.info("WebSocket: User {} is online", principal.getName());
-            
-            messagingTemplate.convertAndSend(
-                "/topic/users/online",
-                principal.getName()
-            );
-            
+            log.debug("WebSocket: User {} is online", principal.getName());
+            presenceService.heartbeat(extractUserIdFromPrincipal(principal), sessionId);
             return "Online status updated";
         } catch (Exception e) {
             log.error("WebSocket: Error updating online status", e);
@@ -142,12 +137,39 @@ public class MessageWebSocketController {
         }
     }
 
+    @MessageMapping({"/presence.heartbeat", "/online-status"})
+    public void handleHeartbeat(@Payload(required = false) Map<String, Object> status, Principal principal,
+                                @Header("simpSessionId") String sessionId) {
+        try {
+            if (status != null && Boolean.FALSE.equals(status.get("isOnline"))) {
+                presenceService.disconnect(sessionId);
+                return;
+            }
+            presenceService.heartbeat(extractUserIdFromPrincipal(principal), sessionId);
+        } catch (Exception e) {
+            log.error("WebSocket: Error handling presence heartbeat", e);
+        }
+    }
+
+    private void sendError(Principal principal, String message, Throwable error) {
+        log.error("WebSocket: {}", message, error);
+        
+        messagingTemplate.convertAndSendToUser(
+            principal.getName(),
+            "/queue/errors",
+            message + ": " + error.getMessage()
+        );
+    }
+
     private Long extractUserIdFromPrincipal(Principal principal) {
         if (principal instanceof UsernamePasswordAuthenticationToken) {
             Object details = ((UsernamePasswordAuthenticationToken) principal).getDetails();
             if (details instanceof Long) {
                 return (Long) details;
             }
+            if (((UsernamePasswordAuthenticationToken) principal).getPrincipal() instanceof UserPrincipal userPrincipal) {
+                return userPrincipal.getId();
+            }
         }
         
         try {
@@ -157,42 +179,4 @@ public class MessageWebSocketController {
             throw new RuntimeException("Invalid user ID in principal");
         }
     }
-
-    public static class TypingNotification {
-        private Long senderId;
-        private Long receiverId;
-        private boolean isTyping;
-
-        public TypingNotification() {}
-
-        public TypingNotification(Long senderId, Long receiverId, boolean isTyping) {
-            this.senderId = senderId;
-            this.receiverId = receiverId;
-            this.isTyping = isTyping;
-        }
-
-        public Long getSenderId() {
-            return senderId;
-        }
-
-        public void setSenderId(Long senderId) {
-            this.senderId = senderId;
-        }
-
-        public Long getReceiverId() {
-            return receiverId;
-        }
-
-        public void setReceiverId(Long receiverId) {
-            this.receiverId = receiverId;
-        }
-
-        public boolean isTyping() {
-            return isTyping;
-        }
-
-        public void setTyping(boolean typing) {
-            isTyping = typing;
-        }
-    }
-} 
\ No newline at end of file
+}
\ No newline at end of file
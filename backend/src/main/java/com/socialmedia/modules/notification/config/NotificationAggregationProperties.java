@@ -0,0 +1,24 @@
+package com.socialmedia.modules.notification.config;
+
+import com.socialmedia.modules.notification.entity.Notification;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.notification.aggregation")
+@Data
+public class NotificationAggregationProperties {
+    
+    private boolean enabled = true;
+    private Set<Notification.NotificationType> types =
+            EnumSet.of(Notification.NotificationType.LIKE, Notification.NotificationType.COMMENT);
+    
+    // Events for the same (recipient, type, relatedId) within one window share a row
+    private long windowMs = 3600000;
+    private int lastActors = 5;
+    private long debounceMs = 2000;
+}
@@ -0,0 +1,18 @@
+package com.socialmedia.modules.notification.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.cache.notification-unread")
+@Data
+public class NotificationCounterProperties {
+    
+    private int maximumSize = 10000;
+    private long ttlSeconds = 600;
+    
+    // Used instead of ttlSeconds when app.cluster.enabled is set: a node only adjusts its own
+    // copy, so counts changed through another node are picked up when the entry expires
+    private long clusteredTtlSeconds = 5;
+}
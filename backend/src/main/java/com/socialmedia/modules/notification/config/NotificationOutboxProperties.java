@@ -0,0 +1,16 @@
+package com.socialmedia.modules.notification.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.notification.outbox")
+@Data
+public class NotificationOutboxProperties {
+    
+    private boolean enabled = true;
+    private long pollIntervalMs = 200;
+    private int batchSize = 500;
+    private int maxAttempts = 5;
+}
@@ -0,0 +1,30 @@
+package com.socialmedia.modules.notification.config;
+
+import com.socialmedia.modules.notification.entity.Notification;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.LocalDateTime;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.notification.retention")
+@Data
+public class NotificationRetentionProperties {
+    
+    // Deleting users' notifications is opt-in
+    private boolean enabled = false;
+    private int retentionDays = 90;
+    private long purgeIntervalMs = 3600000;
+    
+    // Only used when notifications is not partitioned, or for expired rows in its default partition
+    private int purgeBatchSize = 5000;
+    
+    // Daily partitions created ahead of time when notifications is partitioned by bucket
+    private int partitionsAhead = 7;
+    
+    // Oldest bucket still inside the retention window; older rows are neither counted as unread nor kept
+    public int oldestLiveBucket() {
+        return enabled ? Notification.bucketOf(LocalDateTime.now().minusDays(retentionDays)) : Integer.MIN_VALUE;
+    }
+}
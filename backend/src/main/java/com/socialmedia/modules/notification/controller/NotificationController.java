@@ -5,6 +5,7 @@ import com.socialmedia.modules.notification.dto.NotificationResponse;
 import com.socialmedia.modules.notification.dto.NotificationSummary;
 import com.socialmedia.modules.notification.service.NotificationService;
 import com.socialmedia.security.UserPrincipal;
+import com.socialmedia.shared.pagination.CursorPage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -93,6 +94,37 @@ public class NotificationController {
         return ResponseEntity.ok(notifications);
     }
 
+    @Operation(
+        summary = "Get User Notifications (Cursor)",
+        description = "Retrieve notifications for the authenticated user using keyset pagination, newest first. Pass the returned nextCursor to load older notifications."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Notifications retrieved successfully",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = CursorPage.class)
+            )
+        ),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+        @ApiResponse(responseCode = "401", description = "Authentication required")
+    })
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<NotificationResponse>> getUserNotificationsByCursor(
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal currentUser,
+            @Parameter(description = "Opaque cursor from the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(
+                description = "Number of notifications per page",
+                example = "20"
+            )
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<NotificationResponse> notifications = notificationService.getUserNotifications(
+                currentUser.getId(), cursor, size);
+        return ResponseEntity.ok(notifications);
+    }
+
     @Operation(
         summary = "Get Unread Notifications",
         description = "Retrieve paginated unread notifications for the authenticated user. Useful for notification badges and alerts."
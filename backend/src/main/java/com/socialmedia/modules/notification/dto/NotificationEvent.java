@@ -0,0 +1,17 @@
+package com.socialmedia.modules.notification.dto;
+
+import com.socialmedia.modules.notification.entity.Notification;
+import com.socialmedia.modules.notification.entity.NotificationOutbox;
+
+public record NotificationEvent(Long userId, Long actorId, Notification.NotificationType type, Long relatedId,
+                                NotificationOutbox.Action action) {
+
+    public static NotificationEvent create(Long userId, Long actorId, Notification.NotificationType type, Long relatedId) {
+        return new NotificationEvent(userId, actorId, type, relatedId, NotificationOutbox.Action.CREATE);
+    }
+
+    // A null actor removes every notification of this type for relatedId
+    public static NotificationEvent remove(Long userId, Long actorId, Notification.NotificationType type, Long relatedId) {
+        return new NotificationEvent(userId, actorId, type, relatedId, NotificationOutbox.Action.REMOVE);
+    }
+}
@@ -1,11 +1,13 @@
 package com.socialmedia.modules.notification.dto;
 
+import com.socialmedia.modules.post.dto.PostSummaryResponse;
 import com.socialmedia.modules.user.dto.UserSummaryResponse;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -18,4 +20,13 @@ public class NotificationResponse {
     private Boolean readStatus;
     private LocalDateTime createdAt;
     private UserSummaryResponse relatedUser;
-} 
\ No newline at end of file
+    private Long actorCount;
+    private List<Long> lastActorIds;
+    private PostSummaryResponse relatedPost;
+
+    public NotificationResponse(Long id, String type, String content, Long relatedId, Boolean readStatus,
+                                LocalDateTime createdAt, UserSummaryResponse relatedUser, Long actorCount,
+                                List<Long> lastActorIds) {
+        this(id, type, content, relatedId, readStatus, createdAt, relatedUser, actorCount, lastActorIds, null);
+    }
+}
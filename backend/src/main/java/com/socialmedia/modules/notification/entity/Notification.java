@@ -12,7 +12,13 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_notification_aggregation_bucket", columnNames = {"aggregation_key", "bucket"})
+}, indexes = {
+    @Index(name = "idx_notification_bucket", columnList = "bucket"),
+    @Index(name = "idx_notification_user_unread", columnList = "user_id, read_status, bucket"),
+    @Index(name = "idx_notification_user_created", columnList = "user_id, created_at DESC, id DESC")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -35,14 +41,42 @@ public class Notification {
     @Column(nullable = false)
     private Boolean readStatus = false;
 
+    // For aggregated rows this moves to the latest merged event, so the row resurfaces at the top
     @CreationTimestamp
     @Column(updatable = false)
     private LocalDateTime createdAt;
 
+    // recipient:type:relatedId:window for aggregated types, null otherwise
+    @Column(name = "aggregation_key", length = 100)
+    private String aggregationKey;
+
+    @Column(name = "actor_count", nullable = false)
+    private Long actorCount = 1L;
+
+    // Most recent distinct actors, newest first
+    @Column(name = "last_actor_ids", nullable = false)
+    private Long[] lastActorIds = new Long[0];
+
+    // Day of createdAt (of the window start for aggregated rows); retention drops whole days at a time,
+    // and the table can be range-partitioned by it (db/notifications-partitioning.sql)
+    @Column(name = "bucket", nullable = false)
+    private Integer bucket;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    @PrePersist
+    void assignBucket() {
+        if (bucket == null) {
+            bucket = bucketOf(createdAt != null ? createdAt : LocalDateTime.now());
+        }
+    }
+
+    public static int bucketOf(LocalDateTime time) {
+        return (int) time.toLocalDate().toEpochDay();
+    }
+
     public enum NotificationType {
         LIKE,
         COMMENT,
@@ -0,0 +1,55 @@
+package com.socialmedia.modules.notification.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Notification events written in the same transaction as the action that caused them
+@Entity
+@Table(name = "notification_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+public class NotificationOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "actor_id")
+    private Long actorId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Notification.NotificationType type;
+
+    @Column(name = "related_id")
+    private Long relatedId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Action action;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // Set once the row has failed max-attempts times on its own; parked rows are no longer dispatched
+    @Column(name = "parked_at")
+    private LocalDateTime parkedAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    public enum Action {
+        CREATE,
+        REMOVE
+    }
+}
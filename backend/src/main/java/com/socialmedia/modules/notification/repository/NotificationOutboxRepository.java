@@ -0,0 +1,32 @@
+package com.socialmedia.modules.notification.repository;
+
+import com.socialmedia.modules.notification.entity.NotificationOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+    
+    // SKIP LOCKED lets several nodes drain the outbox without dispatching a row twice
+    @Query(value = "SELECT * FROM notification_outbox WHERE parked_at IS NULL " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<NotificationOutbox> lockBatch(@Param("limit") int limit);
+    
+    @Query(value = "SELECT * FROM notification_outbox WHERE id = :id AND parked_at IS NULL FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<NotificationOutbox> lockPending(@Param("id") Long id);
+    
+    // Returns whether the row is now parked
+    @Query(value = "UPDATE notification_outbox SET attempts = attempts + 1, last_error = :error, " +
+                   "parked_at = CASE WHEN attempts + 1 >= :maxAttempts THEN now() END " +
+                   "WHERE id = :id RETURNING parked_at IS NOT NULL",
+           nativeQuery = true)
+    List<Boolean> recordFailure(@Param("id") Long id,
+                                @Param("error") String error,
+                                @Param("maxAttempts") int maxAttempts);
+}
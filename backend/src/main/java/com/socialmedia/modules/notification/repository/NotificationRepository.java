@@ -3,32 +3,46 @@ package com.socialmedia.modules.notification.repository;
 import com.socialmedia.modules.notification.entity.Notification;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     
     @Query("SELECT n FROM Notification n WHERE n.user.id = :userId ORDER BY n.createdAt DESC")
     Page<Notification> findNotificationsByUserIdOrderedByCreatedAt(@Param("userId") Long userId, Pageable pageable);
     
-    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId AND n.readStatus = false ORDER BY n.createdAt DESC")
-    Page<Notification> findUnreadNotificationsByUserId(@Param("userId") Long userId, Pageable pageable);
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId AND n.readStatus = false AND n.bucket >= :minBucket " +
+           "ORDER BY n.createdAt DESC")
+    Page<Notification> findUnreadNotificationsByUserId(@Param("userId") Long userId,
+                                                       @Param("minBucket") int minBucket,
+                                                       Pageable pageable);
     
     @Query("SELECT COUNT(n) FROM Notification n WHERE n.user.id = :userId AND n.readStatus = false")
     Long countUnreadNotificationsByUserId(@Param("userId") Long userId);
     
+    @Query("SELECT n.type, COUNT(n) FROM Notification n WHERE n.user.id = :userId AND n.readStatus = false " +
+           "AND n.bucket >= :minBucket GROUP BY n.type")
+    List<Object[]> countUnreadByType(@Param("userId") Long userId, @Param("minBucket") int minBucket);
+    
     @Query("SELECT n FROM Notification n WHERE n.user.id = :userId AND n.type = :type ORDER BY n.createdAt DESC")
     Page<Notification> findNotificationsByUserIdAndType(@Param("userId") Long userId, 
                                                        @Param("type") Notification.NotificationType type, 
                                                        Pageable pageable);
     
+    // Rows past retention are left alone; the purge job is about to drop them anyway
     @Modifying
-    @Query("UPDATE Notification n SET n.readStatus = true WHERE n.user.id = :userId")
-    void markAllNotificationsAsReadByUserId(@Param("userId") Long userId);
+    @Query("UPDATE Notification n SET n.readStatus = true " +
+           "WHERE n.user.id = :userId AND n.readStatus = false AND n.bucket >= :minBucket")
+    int markAllNotificationsAsReadByUserId(@Param("userId") Long userId, @Param("minBucket") int minBucket);
     
     @Modifying
     @Query("UPDATE Notification n SET n.readStatus = true WHERE n.id = :notificationId AND n.user.id = :userId")
@@ -44,4 +58,66 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
                                                                Pageable pageable);
     
     void deleteByUserIdAndRelatedIdAndType(Long userId, Long relatedId, Notification.NotificationType type);
-} 
\ No newline at end of file
+    
+    @Query("SELECT MIN(n.bucket) FROM Notification n")
+    Optional<Integer> findOldestBucket();
+    
+    @Modifying
+    @Query(value = "DELETE FROM notifications WHERE id IN " +
+                   "(SELECT id FROM notifications WHERE bucket = :bucket LIMIT :limit)",
+           nativeQuery = true)
+    int deleteFromBucket(@Param("bucket") int bucket, @Param("limit") int limit);
+    
+    // Merges a batch of events into the window's row; returns id, actor_count and the comma-separated last actors.
+    // The bucket is the window start's day and never changes, so it can be part of the conflict key.
+    @Query(value = "INSERT INTO notifications (user_id, type, content, related_id, read_status, created_at, " +
+                   "aggregation_key, actor_count, last_actor_ids, bucket) " +
+                   "VALUES (:userId, :type, :content, :relatedId, false, :createdAt, :aggregationKey, :actorCount, " +
+                   "CAST(:actorIds AS BIGINT[]), :bucket) " +
+                   "ON CONFLICT (aggregation_key, bucket) DO UPDATE SET " +
+                   "actor_count = notifications.actor_count + EXCLUDED.actor_count - cardinality(ARRAY(" +
+                   "SELECT unnest(EXCLUDED.last_actor_ids) INTERSECT SELECT unnest(notifications.last_actor_ids))), " +
+                   "last_actor_ids = ARRAY(SELECT a FROM unnest(EXCLUDED.last_actor_ids || notifications.last_actor_ids) " +
+                   "WITH ORDINALITY AS t(a, ord) GROUP BY a ORDER BY MIN(ord) LIMIT :lastActors), " +
+                   "read_status = false, " +
+                   "created_at = GREATEST(notifications.created_at, EXCLUDED.created_at) " +
+                   "RETURNING id, actor_count, array_to_string(last_actor_ids, ',')",
+           nativeQuery = true)
+    List<Object[]> upsertAggregate(@Param("userId") Long userId,
+                                   @Param("type") String type,
+                                   @Param("content") String content,
+                                   @Param("relatedId") Long relatedId,
+                                   @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("aggregationKey") String aggregationKey,
+                                   @Param("actorCount") long actorCount,
+                                   @Param("actorIds") String actorIds,
+                                   @Param("lastActors") int lastActors,
+                                   @Param("bucket") int bucket);
+    
+    // Undoes one actor's contribution, e.g. an unlike; the actor must still be among the recent ones to be attributable
+    @Modifying
+    @Query(value = "UPDATE notifications SET actor_count = actor_count - 1, " +
+                   "last_actor_ids = array_remove(last_actor_ids, :actorId) " +
+                   "WHERE user_id = :userId AND type = :type AND related_id = :relatedId AND :actorId = ANY(last_actor_ids)",
+           nativeQuery = true)
+    int removeActor(@Param("userId") Long userId,
+                    @Param("type") String type,
+                    @Param("relatedId") Long relatedId,
+                    @Param("actorId") Long actorId);
+    
+    @Modifying
+    @Query(value = "DELETE FROM notifications WHERE user_id = :userId AND type = :type AND related_id = :relatedId " +
+                   "AND actor_count <= 0",
+           nativeQuery = true)
+    int deleteWithoutActors(@Param("userId") Long userId,
+                              @Param("type") String type,
+                              @Param("relatedId") Long relatedId);
+    
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId AND " +
+           "(n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<Notification> findNotificationsByUserIdBefore(@Param("userId") Long userId,
+                                                        @Param("createdAt") LocalDateTime createdAt,
+                                                        @Param("id") Long id,
+                                                        Pageable pageable);
+}
@@ -1,145 +1,91 @@
 package com.socialmedia.modules.notification.service;
 
+import com.socialmedia.modules.notification.dto.NotificationEvent;
 import com.socialmedia.modules.notification.entity.Notification;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Records notification events in the outbox as part of the caller's transaction; the
+ * outbox dispatcher turns them into notifications and pushes once they are committed.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Transactional
 public class NotificationEventService {
 
-    private final NotificationService notificationService;
-
-    public void createLikeNotification(Long userId, String likerUsername, Long postId) {
-        String content = String.format("%s liked your post", likerUsername);
-        try {
-            notificationService.createNotification(
-                    userId,
-                    Notification.NotificationType.LIKE,
-                    content,
-                    postId
-            );
-            log.info("Like notification created for user ID: {} from user: {}", userId, likerUsername);
-        } catch (Exception e) {
-            log.error("Failed to create like notification: {}", e.getMessage(), e);
-        }
+    private static final String INSERT_OUTBOX_SQL =
+            "INSERT INTO notification_outbox (user_id, actor_id, type, related_id, action, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void createLikeNotification(Long userId, Long likerId, Long postId) {
+        publish(NotificationEvent.create(userId, likerId, Notification.NotificationType.LIKE, postId));
     }
 
-    public void createCommentNotification(Long userId, String commenterUsername, Long postId) {
-        String content = String.format("%s commented on your post", commenterUsername);
-        try {
-            notificationService.createNotification(
-                    userId,
-                    Notification.NotificationType.COMMENT,
-                    content,
-                    postId
-            );
-            log.info("Comment notification created for user ID: {} from user: {}", userId, commenterUsername);
-        } catch (Exception e) {
-            log.error("Failed to create comment notification: {}", e.getMessage(), e);
-        }
+    public void createCommentNotification(Long userId, Long commenterId, Long postId) {
+        publish(NotificationEvent.create(userId, commenterId, Notification.NotificationType.COMMENT, postId));
     }
 
-    public void createFriendRequestNotification(Long userId, String requesterUsername, Long requesterId) {
-        String content = String.format("%s sent you a friend request", requesterUsername);
-        try {
-            notificationService.createNotification(
-                    userId,
-                    Notification.NotificationType.FRIEND_REQUEST,
-                    content,
-                    requesterId
-            );
-            log.info("Friend request notification created for user ID: {} from user: {}", userId, requesterUsername);
-        } catch (Exception e) {
-            log.error("Failed to create friend request notification: {}", e.getMessage(), e);
-        }
+    public void createFriendRequestNotification(Long userId, Long requesterId) {
+        publish(NotificationEvent.create(userId, requesterId, Notification.NotificationType.FRIEND_REQUEST, requesterId));
     }
 
-    public void createFriendAcceptedNotification(Long userId, String accepterUsername, Long accepterId) {
-        String content = String.format("%s accepted your friend request", accepterUsername);
-        try {
-            notificationService.createNotification(
-                    userId,
-                    Notification.NotificationType.FRIEND_ACCEPTED,
-                    content,
-                    accepterId
-            );
-            log.info("Friend accepted notification created for user ID: {} from user: {}", userId, accepterUsername);
-        } catch (Exception e) {
-            log.error("Failed to create friend accepted notification: {}", e.getMessage(), e);
-        }
+    public void createFriendAcceptedNotification(Long userId, Long accepterId) {
+        publish(NotificationEvent.create(userId, accepterId, Notification.NotificationType.FRIEND_ACCEPTED, accepterId));
     }
 
-    public void createMessageNotification(Long userId, String senderUsername, Long messageId) {
-        String content = String.format("%s sent you a message", senderUsername);
-        try {
-            notificationService.createNotification(
-                    userId,
-                    Notification.NotificationType.MESSAGE,
-                    content,
-                    messageId
-            );
-            log.info("Message notification created for user ID: {} from user: {}", userId, senderUsername);
-        } catch (Exception e) {
-            log.error("Failed to create message notification: {}", e.getMessage(), e);
-        }
+    public void createMessageNotification(Long userId, Long senderId, Long messageId) {
+        publish(NotificationEvent.create(userId, senderId, Notification.NotificationType.MESSAGE, messageId));
     }
 
-    public void createPostMentionNotification(Long userId, String mentionerUsername, Long postId) {
-        String content = String.format("%s mentioned you in a post", mentionerUsername);
-        try {
-            notificationService.createNotification(
-                    userId,
-                    Notification.NotificationType.POST_MENTION,
-                    content,
-                    postId
-            );
-            log.info("Post mention notification created for user ID: {} from user: {}", userId, mentionerUsername);
-        } catch (Exception e) {
-            log.error("Failed to create post mention notification: {}", e.getMessage(), e);
-        }
+    public void createPostMentionNotification(Long userId, Long mentionerId, Long postId) {
+        publish(NotificationEvent.create(userId, mentionerId, Notification.NotificationType.POST_MENTION, postId));
     }
 
-    public void createCommentMentionNotification(Long userId, String mentionerUsername, Long commentId) {
-        String content = String.format("%s mentioned you in a comment", mentionerUsername);
-        try {
-            notificationService.createNotification(
-                    userId,
-                    Notification.NotificationType.COMMENT_MENTION,
-                    content,
-                    commentId
-            );
-            log.info("Comment mention notification created for user ID: {} from user: {}", userId, mentionerUsername);
-        } catch (Exception e) {
-            log.error("Failed to create comment mention notification: {}", e.getMessage(), e);
-        }
+    public void createCommentMentionNotification(Long userId, Long mentionerId, Long commentId) {
+        publish(NotificationEvent.create(userId, mentionerId, Notification.NotificationType.COMMENT_MENTION, commentId));
     }
 
-    public void removeLikeNotification(Long userId, Long postId) {
-        try {
-            notificationService.deleteNotificationsByRelatedId(
-                    userId,
-                    postId,
-                    Notification.NotificationType.LIKE
-            );
-            log.info("Like notification removed for user ID: {} and post ID: {}", userId, postId);
-        } catch (Exception e) {
-            log.error("Failed to remove like notification: {}", e.getMessage(), e);
-        }
+    public void removeLikeNotification(Long userId, Long likerId, Long postId) {
+        publish(NotificationEvent.remove(userId, likerId, Notification.NotificationType.LIKE, postId));
     }
 
     public void removeFriendRequestNotification(Long userId, Long requesterId) {
-        try {
-            notificationService.deleteNotificationsByRelatedId(
-                    userId,
-                    requesterId,
-                    Notification.NotificationType.FRIEND_REQUEST
-            );
-            log.info("Friend request notification removed for user ID: {} and requester ID: {}", userId, requesterId);
-        } catch (Exception e) {
-            log.error("Failed to remove friend request notification: {}", e.getMessage(), e);
+        publish(NotificationEvent.remove(userId, null, Notification.NotificationType.FRIEND_REQUEST, requesterId));
+    }
+
+    public void publish(NotificationEvent event) {
+        publishAll(List.of(event));
+    }
+
+    public void publishAll(List<NotificationEvent> events) {
+        // Nobody is notified about their own actions
+        List<NotificationEvent> outgoing = events.stream()
+                .filter(event -> !event.userId().equals(event.actorId()))
+                .collect(Collectors.toList());
+        if (outgoing.isEmpty()) {
+            return;
         }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, outgoing, outgoing.size(), (statement, event) -> {
+            statement.setLong(1, event.userId());
+            statement.setObject(2, event.actorId());
+            statement.setString(3, event.type().name());
+            statement.setObject(4, event.relatedId());
+            statement.setString(5, event.action().name());
+            statement.setTimestamp(6, now);
+        });
+        log.debug("Queued {} notification events", outgoing.size());
     }
-} 
\ No newline at end of file
+}
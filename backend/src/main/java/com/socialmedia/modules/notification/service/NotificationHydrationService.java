@@ -0,0 +1,149 @@
+package com.socialmedia.modules.notification.service;
+
+import com.socialmedia.modules.messaging.repository.MessageRepository;
+import com.socialmedia.modules.notification.dto.NotificationResponse;
+import com.socialmedia.modules.notification.entity.Notification;
+import com.socialmedia.modules.post.dto.PostSummaryResponse;
+import com.socialmedia.modules.post.repository.PostRepository;
+import com.socialmedia.modules.post.service.PostHydrationService;
+import com.socialmedia.modules.social.repository.CommentRepository;
+import com.socialmedia.modules.user.dto.UserSummaryResponse;
+import com.socialmedia.modules.user.service.UserSummaryCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves what each notification's relatedId points at, one bulk lookup per kind per page.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class NotificationHydrationService {
+
+    private final UserSummaryCache userSummaryCache;
+    private final PostRepository postRepository;
+    private final PostHydrationService postHydrationService;
+    private final CommentRepository commentRepository;
+    private final MessageRepository messageRepository;
+
+    public List<NotificationResponse> hydrate(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Set<Long> postIds = new HashSet<>();
+        Set<Long> commentIds = new HashSet<>();
+        Set<Long> messageIds = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        for (Notification notification : notifications) {
+            if (notification.getLastActorIds().length > 0) {
+                userIds.add(notification.getLastActorIds()[0]);
+            }
+            Long relatedId = notification.getRelatedId();
+            if (relatedId == null) {
+                continue;
+            }
+            switch (relatedKind(notification.getType())) {
+                case POST -> postIds.add(relatedId);
+                case COMMENT -> commentIds.add(relatedId);
+                case MESSAGE -> messageIds.add(relatedId);
+                case USER -> userIds.add(relatedId);
+            }
+        }
+
+        Map<Long, Long> commentPostIds = commentIds.isEmpty() ? Collections.emptyMap()
+                : toIdMap(commentRepository.findPostIdsByIds(new ArrayList<>(commentIds)));
+        postIds.addAll(commentPostIds.values());
+        // Rows written before actors were recorded still name the sender through the message
+        Map<Long, Long> messageSenderIds = messageIds.isEmpty() ? Collections.emptyMap()
+                : toIdMap(messageRepository.findSenderIdsByIds(new ArrayList<>(messageIds)));
+        userIds.addAll(messageSenderIds.values());
+
+        Map<Long, PostSummaryResponse> posts = postIds.isEmpty() ? Collections.emptyMap()
+                : postHydrationService.hydrateSummaries(postRepository.findPostsWithUserByIds(new ArrayList<>(postIds)))
+                        .stream()
+                        .collect(Collectors.toMap(PostSummaryResponse::getId, Function.identity()));
+        Map<Long, UserSummaryResponse> users = userSummaryCache.getAll(userIds);
+
+        return notifications.stream()
+                .map(notification -> toResponse(notification, users, posts, commentPostIds, messageSenderIds))
+                .collect(Collectors.toList());
+    }
+
+    public NotificationResponse hydrate(Notification notification) {
+        return hydrate(List.of(notification)).get(0);
+    }
+
+    private NotificationResponse toResponse(Notification notification, Map<Long, UserSummaryResponse> users,
+                                            Map<Long, PostSummaryResponse> posts, Map<Long, Long> commentPostIds,
+                                            Map<Long, Long> messageSenderIds) {
+        Long relatedId = notification.getRelatedId();
+        Long[] lastActorIds = notification.getLastActorIds();
+        UserSummaryResponse actor = lastActorIds.length > 0 ? users.get(lastActorIds[0]) : null;
+
+        UserSummaryResponse relatedUser = actor;
+        PostSummaryResponse relatedPost = null;
+        if (relatedId != null) {
+            switch (relatedKind(notification.getType())) {
+                case POST -> relatedPost = posts.get(relatedId);
+                case COMMENT -> relatedPost = posts.get(commentPostIds.get(relatedId));
+                case MESSAGE -> relatedUser = actor != null ? actor : users.get(messageSenderIds.get(relatedId));
+                case USER -> relatedUser = users.get(relatedId);
+            }
+        }
+
+        // Aggregated rows keep the first actor's text; the current one is rendered from the actor list
+        String content = notification.getContent();
+        if (notification.getActorCount() > 1 && actor != null) {
+            content = NotificationTemplates.render(notification.getType(), actor.getUsername(), notification.getActorCount());
+        }
+
+        return new NotificationResponse(
+                notification.getId(),
+                notification.getType().name(),
+                content,
+                relatedId,
+                notification.getReadStatus(),
+                notification.getCreatedAt(),
+                relatedUser,
+                notification.getActorCount(),
+                List.of(lastActorIds),
+                relatedPost
+        );
+    }
+
+    private static RelatedKind relatedKind(Notification.NotificationType type) {
+        return switch (type) {
+            case LIKE, COMMENT, POST_MENTION -> RelatedKind.POST;
+            case COMMENT_MENTION -> RelatedKind.COMMENT;
+            case MESSAGE -> RelatedKind.MESSAGE;
+            case FRIEND_REQUEST, FRIEND_ACCEPTED -> RelatedKind.USER;
+        };
+    }
+
+    private static Map<Long, Long> toIdMap(List<Object[]> rows) {
+        Map<Long, Long> ids = new HashMap<>();
+        for (Object[] row : rows) {
+            ids.put((Long) row[0], (Long) row[1]);
+        }
+        return ids;
+    }
+
+    private enum RelatedKind {
+        USER,
+        POST,
+        COMMENT,
+        MESSAGE
+    }
+}
@@ -0,0 +1,368 @@
+package com.socialmedia.modules.notification.service;
+
+import com.socialmedia.modules.notification.config.NotificationAggregationProperties;
+import com.socialmedia.modules.notification.config.NotificationOutboxProperties;
+import com.socialmedia.modules.notification.dto.NotificationResponse;
+import com.socialmedia.modules.notification.entity.Notification;
+import com.socialmedia.modules.notification.entity.NotificationOutbox;
+import com.socialmedia.modules.notification.repository.NotificationOutboxRepository;
+import com.socialmedia.modules.notification.repository.NotificationRepository;
+import com.socialmedia.modules.user.dto.UserSummaryResponse;
+import com.socialmedia.modules.user.service.UserSummaryCache;
+import com.socialmedia.shared.metrics.MetricsSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the notification outbox in id order: inserts notifications in JDBC batches, merges
+ * aggregated types into one row per window, applies removals, and pushes to WebSocket
+ * subscribers only after the batch has committed. A failing batch is retried row by row so
+ * one bad row cannot block the rest; a row that keeps failing on its own is parked.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationOutboxDispatcher implements MetricsSource {
+
+    private static final String INSERT_NOTIFICATION_SQL =
+            "INSERT INTO notifications (user_id, type, content, related_id, read_status, created_at, " +
+            "actor_count, last_actor_ids, bucket) VALUES (?, ?, ?, ?, false, ?, 1, ARRAY[?]::BIGINT[], ?)";
+
+    private final NotificationOutboxProperties properties;
+    private final NotificationAggregationProperties aggregationProperties;
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationRepository notificationRepository;
+    private final NotificationService notificationService;
+    private final UserSummaryCache userSummaryCache;
+    private final NotificationUnreadCounters unreadCounters;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Latest state per aggregated notification id, pushed once per debounce tick
+    private final Map<Long, Push> debounced = new ConcurrentHashMap<>();
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong aggregatedEvents = new AtomicLong();
+    private final AtomicLong aggregateUpserts = new AtomicLong();
+    private final AtomicLong removed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong isolatedBatches = new AtomicLong();
+    private final AtomicLong rowFailures = new AtomicLong();
+    private final AtomicLong parked = new AtomicLong();
+    private final AtomicLong pushes = new AtomicLong();
+    private final AtomicLong debouncedPushes = new AtomicLong();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+
+    @Scheduled(fixedDelayString = "${app.notification.outbox.poll-interval-ms:200}")
+    public void dispatch() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        int processed;
+        do {
+            List<Long> lockedIds = new ArrayList<>();
+            try {
+                processed = dispatchCommitted(() -> outboxRepository.lockBatch(properties.getBatchSize()), lockedIds);
+            } catch (Exception e) {
+                if (lockedIds.isEmpty()) {
+                    log.error("Failed to lock notification outbox batch", e);
+                    return;
+                }
+                log.warn("Notification outbox batch of {} rows failed, retrying them one at a time", lockedIds.size(), e);
+                if (!isolate(lockedIds)) {
+                    return;
+                }
+                processed = lockedIds.size();
+            }
+        } while (processed == properties.getBatchSize());
+    }
+
+    // One transaction over the locked rows; pushes go out only once it has committed
+    private int dispatchCommitted(Supplier<List<NotificationOutbox>> locker, List<Long> lockedIds) {
+        List<Push> immediate = new ArrayList<>();
+        List<Push> aggregated = new ArrayList<>();
+        Integer processed = transactionTemplate.execute(status -> {
+            List<NotificationOutbox> rows = locker.get();
+            rows.forEach(row -> lockedIds.add(row.getId()));
+            return dispatchBatch(rows, immediate, aggregated);
+        });
+        immediate.forEach(this::push);
+        for (Push push : aggregated) {
+            if (debounced.put(push.notification().getId(), push) != null) {
+                debouncedPushes.incrementAndGet();
+            }
+        }
+        return processed == null ? 0 : processed;
+    }
+
+    // Returns false when the failure looks systemic, so the caller backs off until the next poll
+    private boolean isolate(List<Long> ids) {
+        isolatedBatches.incrementAndGet();
+        Map<Long, Exception> failures = new LinkedHashMap<>();
+        for (Long id : ids) {
+            try {
+                dispatchCommitted(() -> outboxRepository.lockPending(id), new ArrayList<>());
+            } catch (Exception e) {
+                failures.put(id, e);
+            }
+        }
+        if (ids.size() > 1 && failures.size() == ids.size()) {
+            // Nothing succeeded on its own either, e.g. the database is down; don't charge the rows for it
+            log.error("All {} outbox rows failed individually, leaving them for the next poll", ids.size());
+            return false;
+        }
+        failures.forEach(this::recordFailure);
+        return true;
+    }
+
+    private void recordFailure(Long id, Exception error) {
+        rowFailures.incrementAndGet();
+        String message = String.valueOf(error.getMessage());
+        String lastError = message.length() > 1000 ? message.substring(0, 1000) : message;
+        try {
+            List<Boolean> result = transactionTemplate.execute(status ->
+                    outboxRepository.recordFailure(id, lastError, properties.getMaxAttempts()));
+            if (result != null && !result.isEmpty() && Boolean.TRUE.equals(result.get(0))) {
+                parked.incrementAndGet();
+                log.error("Parked notification outbox row {} after {} failed attempts", id,
+                        properties.getMaxAttempts(), error);
+            } else {
+                log.warn("Notification outbox row {} failed and will be retried", id, error);
+            }
+        } catch (Exception e) {
+            log.error("Failed to record failure of notification outbox row {}", id, e);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${app.notification.aggregation.debounce-ms:2000}")
+    public void flushDebounced() {
+        for (Long id : new ArrayList<>(debounced.keySet())) {
+            Push push = debounced.remove(id);
+            if (push != null) {
+                push(push);
+            }
+        }
+    }
+
+    private void push(Push push) {
+        pushes.incrementAndGet();
+        notificationService.sendRealTimeNotification(push.userId(), push.notification());
+    }
+
+    private int dispatchBatch(List<NotificationOutbox> rows, List<Push> immediate, List<Push> aggregated) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        lastLagMillis.set(Duration.between(rows.get(0).getCreatedAt(), LocalDateTime.now()).toMillis());
+
+        Map<Long, UserSummaryResponse> actors = userSummaryCache.getAll(rows.stream()
+                .map(NotificationOutbox::getActorId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        List<NotificationOutbox> plain = new ArrayList<>();
+        Map<String, Aggregate> aggregates = new LinkedHashMap<>();
+        for (NotificationOutbox row : rows) {
+            if (row.getAction() == NotificationOutbox.Action.CREATE) {
+                if (!actors.containsKey(row.getActorId())) {
+                    // Actor account is gone; there is nothing meaningful left to say
+                    dropped.incrementAndGet();
+                } else if (isAggregated(row)) {
+                    aggregates.computeIfAbsent(aggregationKey(row), key -> new Aggregate(row)).add(row);
+                } else {
+                    plain.add(row);
+                }
+                continue;
+            }
+            // A removal must see every create queued before it
+            insert(plain, actors, immediate);
+            upsert(aggregates, actors, aggregated);
+            plain.clear();
+            aggregates.clear();
+            remove(row);
+        }
+        insert(plain, actors, immediate);
+        upsert(aggregates, actors, aggregated);
+
+        outboxRepository.deleteAllByIdInBatch(rows.stream().map(NotificationOutbox::getId).collect(Collectors.toList()));
+        batches.incrementAndGet();
+        return rows.size();
+    }
+
+    private boolean isAggregated(NotificationOutbox row) {
+        return aggregationProperties.isEnabled() && aggregationProperties.getTypes().contains(row.getType())
+                && row.getRelatedId() != null;
+    }
+
+    // Tumbling windows keep the key deterministic across nodes and restarts
+    private String aggregationKey(NotificationOutbox row) {
+        long window = row.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli() / aggregationProperties.getWindowMs();
+        return row.getUserId() + ":" + row.getType() + ":" + row.getRelatedId() + ":" + window;
+    }
+
+    // Day of the window start: the same for every event of the window, on every node
+    private int windowBucket(LocalDateTime at) {
+        long windowMs = aggregationProperties.getWindowMs();
+        long windowStart = at.toInstant(ZoneOffset.UTC).toEpochMilli() / windowMs * windowMs;
+        return Notification.bucketOf(LocalDateTime.ofEpochSecond(Math.floorDiv(windowStart, 1000L), 0, ZoneOffset.UTC));
+    }
+
+    private void remove(NotificationOutbox row) {
+        if (row.getActorId() == null) {
+            notificationRepository.deleteByUserIdAndRelatedIdAndType(row.getUserId(), row.getRelatedId(), row.getType());
+        } else {
+            notificationRepository.removeActor(row.getUserId(), row.getType().name(), row.getRelatedId(), row.getActorId());
+            notificationRepository.deleteWithoutActors(row.getUserId(), row.getType().name(), row.getRelatedId());
+        }
+        unreadCounters.invalidate(row.getUserId());
+        removed.incrementAndGet();
+    }
+
+    private void upsert(Map<String, Aggregate> aggregates, Map<Long, UserSummaryResponse> actors, List<Push> aggregated) {
+        for (Map.Entry<String, Aggregate> entry : aggregates.entrySet()) {
+            Aggregate aggregate = entry.getValue();
+            List<Long> recent = aggregate.recentActors(aggregationProperties.getLastActors());
+            UserSummaryResponse newest = actors.get(recent.get(0));
+            List<Object[]> result = notificationRepository.upsertAggregate(aggregate.userId, aggregate.type.name(),
+                    NotificationTemplates.render(aggregate.type, newest.getUsername(), 1), aggregate.relatedId,
+                    aggregate.lastAt, entry.getKey(), aggregate.actorIds.size(),
+                    recent.stream().map(String::valueOf).collect(Collectors.joining(",", "{", "}")),
+                    aggregationProperties.getLastActors(), windowBucket(aggregate.lastAt));
+            Object[] row = result.get(0);
+            long actorCount = ((Number) row[1]).longValue();
+            List<Long> lastActorIds = Arrays.stream(((String) row[2]).split(","))
+                    .filter(id -> !id.isEmpty())
+                    .map(Long::valueOf)
+                    .collect(Collectors.toList());
+            aggregated.add(new Push(aggregate.userId, new NotificationResponse(((Number) row[0]).longValue(),
+                    aggregate.type.name(), NotificationTemplates.render(aggregate.type, newest.getUsername(), actorCount),
+                    aggregate.relatedId, false, aggregate.lastAt, newest, actorCount, lastActorIds)));
+            // The upsert may or may not have turned a read row unread again
+            unreadCounters.invalidate(aggregate.userId);
+            aggregatedEvents.addAndGet(aggregate.events);
+            aggregateUpserts.incrementAndGet();
+        }
+    }
+
+    private void insert(List<NotificationOutbox> rows, Map<Long, UserSummaryResponse> actors, List<Push> immediate) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<Push> notifications = new ArrayList<>(rows.size());
+        for (NotificationOutbox row : rows) {
+            UserSummaryResponse actor = actors.get(row.getActorId());
+            notifications.add(new Push(row.getUserId(), new NotificationResponse(null, row.getType().name(),
+                    NotificationTemplates.render(row.getType(), actor.getUsername(), 1), row.getRelatedId(), false,
+                    row.getCreatedAt(), actor, 1L, List.of(row.getActorId()))));
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_NOTIFICATION_SQL, new String[] {"id"})) {
+                for (Push push : notifications) {
+                    NotificationResponse notification = push.notification();
+                    statement.setLong(1, push.userId());
+                    statement.setString(2, notification.getType());
+                    statement.setString(3, notification.getContent());
+                    statement.setObject(4, notification.getRelatedId());
+                    statement.setTimestamp(5, Timestamp.valueOf(notification.getCreatedAt()));
+                    statement.setLong(6, notification.getLastActorIds().get(0));
+                    statement.setInt(7, Notification.bucketOf(notification.getCreatedAt()));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (int i = 0; keys.next(); i++) {
+                        notifications.get(i).notification().setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+        for (Push push : notifications) {
+            unreadCounters.increment(push.userId(), Notification.NotificationType.valueOf(push.notification().getType()));
+        }
+        created.addAndGet(notifications.size());
+        immediate.addAll(notifications);
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "notification-outbox";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", properties.isEnabled());
+        metrics.put("batches", batches.get());
+        metrics.put("created", created.get());
+        metrics.put("aggregatedEvents", aggregatedEvents.get());
+        metrics.put("aggregateUpserts", aggregateUpserts.get());
+        metrics.put("removed", removed.get());
+        metrics.put("dropped", dropped.get());
+        metrics.put("isolatedBatches", isolatedBatches.get());
+        metrics.put("rowFailures", rowFailures.get());
+        metrics.put("parked", parked.get());
+        metrics.put("pushes", pushes.get());
+        metrics.put("debouncedPushes", debouncedPushes.get());
+        metrics.put("pendingPushes", debounced.size());
+        metrics.put("lastLagMillis", lastLagMillis.get());
+        return metrics;
+    }
+
+    // Events of one batch that fall into the same aggregation window
+    private static final class Aggregate {
+        private final Long userId;
+        private final Notification.NotificationType type;
+        private final Long relatedId;
+        private final LinkedHashSet<Long> actorIds = new LinkedHashSet<>();
+        private LocalDateTime lastAt;
+        private int events;
+
+        private Aggregate(NotificationOutbox first) {
+            this.userId = first.getUserId();
+            this.type = first.getType();
+            this.relatedId = first.getRelatedId();
+        }
+
+        private void add(NotificationOutbox row) {
+            // Re-inserting moves a repeat actor to the newest end
+            actorIds.remove(row.getActorId());
+            actorIds.add(row.getActorId());
+            lastAt = row.getCreatedAt();
+            events++;
+        }
+
+        private List<Long> recentActors(int limit) {
+            List<Long> newestFirst = new ArrayList<>(actorIds);
+            Collections.reverse(newestFirst);
+            return newestFirst.subList(0, Math.min(limit, newestFirst.size()));
+        }
+    }
+
+    private record Push(Long userId, NotificationResponse notification) {
+    }
+}
@@ -0,0 +1,142 @@
+package com.socialmedia.modules.notification.service;
+
+import com.socialmedia.modules.notification.config.NotificationRetentionProperties;
+import com.socialmedia.modules.notification.entity.Notification;
+import com.socialmedia.modules.notification.repository.NotificationRepository;
+import com.socialmedia.shared.metrics.MetricsSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Retires notifications by whole day buckets once they fall outside the retention window. When notifications is
+ * range-partitioned by bucket (db/notifications-partitioning.sql) expired days are dropped as partitions and
+ * upcoming days get their partition ahead of time; otherwise expired rows are deleted in short batches.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationRetentionService implements MetricsSource {
+
+    private static final Pattern DAILY_PARTITION = Pattern.compile("notifications_b(\\d+)");
+
+    private final NotificationRetentionProperties properties;
+    private final NotificationRepository notificationRepository;
+    private final NotificationUnreadCounters unreadCounters;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final AtomicLong purgedBuckets = new AtomicLong();
+    private final AtomicLong purgedRows = new AtomicLong();
+    private final AtomicLong droppedPartitions = new AtomicLong();
+    private final AtomicLong createdPartitions = new AtomicLong();
+    private volatile boolean partitioned;
+    private final AtomicLong lastRunMillis = new AtomicLong();
+
+    @Scheduled(fixedDelayString = "${app.notification.retention.purge-interval-ms:3600000}")
+    public void purge() {
+        partitioned = Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('notifications'))",
+                Boolean.class));
+        if (partitioned) {
+            // Needed whether or not retention is on, so new rows never pile up in the default partition
+            createPartitionsAhead();
+        }
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int oldestLive = properties.oldestLiveBucket();
+        boolean dropped = partitioned && dropExpiredPartitions(oldestLive) > 0;
+        // Without partitions, or for expired rows that landed in the default partition
+        long rows = 0;
+        Integer bucket;
+        while ((bucket = notificationRepository.findOldestBucket().orElse(null)) != null && bucket < oldestLive) {
+            int expired = bucket;
+            int deleted;
+            // Short transactions in index order keep lock time and vacuum work per step bounded
+            do {
+                deleted = transactionTemplate.execute(status ->
+                        notificationRepository.deleteFromBucket(expired, properties.getPurgeBatchSize()));
+                rows += deleted;
+            } while (deleted == properties.getPurgeBatchSize());
+            purgedBuckets.incrementAndGet();
+        }
+
+        lastRunMillis.set(System.currentTimeMillis() - start);
+        if (rows > 0) {
+            purgedRows.addAndGet(rows);
+            log.info("Purged {} notifications older than bucket {}", rows, oldestLive);
+        }
+        if (rows > 0 || dropped) {
+            // Purged rows may have been unread; cheaper to reload than to track per user
+            unreadCounters.invalidateAll();
+        }
+    }
+
+    private void createPartitionsAhead() {
+        int today = Notification.bucketOf(LocalDateTime.now());
+        for (int bucket = today; bucket <= today + properties.getPartitionsAhead(); bucket++) {
+            String name = "notifications_b" + bucket;
+            Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+            if (Boolean.TRUE.equals(exists)) {
+                continue;
+            }
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF notifications " +
+                    "FOR VALUES FROM (" + bucket + ") TO (" + (bucket + 1) + ")");
+            createdPartitions.incrementAndGet();
+            log.info("Created notification partition {}", name);
+        }
+    }
+
+    // A whole expired day goes away with one catalog change instead of row deletes and vacuum work
+    private int dropExpiredPartitions(int oldestLive) {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = to_regclass('notifications')", String.class);
+        int dropped = 0;
+        for (String partition : partitions) {
+            Matcher matcher = DAILY_PARTITION.matcher(partition);
+            if (!matcher.matches() || Integer.parseInt(matcher.group(1)) >= oldestLive) {
+                continue;
+            }
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+            droppedPartitions.incrementAndGet();
+            purgedBuckets.incrementAndGet();
+            dropped++;
+            log.info("Dropped expired notification partition {}", partition);
+        }
+        return dropped;
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "notification-retention";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", properties.isEnabled());
+        metrics.put("partitioned", partitioned);
+        metrics.put("retentionDays", properties.getRetentionDays());
+        metrics.put("oldestLiveBucket", properties.oldestLiveBucket());
+        metrics.put("purgedBuckets", purgedBuckets.get());
+        metrics.put("purgedRows", purgedRows.get());
+        metrics.put("createdPartitions", createdPartitions.get());
+        metrics.put("droppedPartitions", droppedPartitions.get());
+        metrics.put("lastRunMillis", lastRunMillis.get());
+        return metrics;
+    }
+}
@@ -3,6 +3,7 @@ package com.socialmedia.modules.notification.service;
 import com.socialmedia.modules.notification.entity.Notification;
 import com.socialmedia.modules.notification.dto.NotificationResponse;
 import com.socialmedia.modules.notification.dto.NotificationSummary;
+import com.socialmedia.shared.pagination.CursorPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -12,6 +13,8 @@ public interface NotificationService {
     
     Page<NotificationResponse> getUserNotifications(Long userId, Pageable pageable);
     
+    CursorPage<NotificationResponse> getUserNotifications(Long userId, String cursor, int size);
+    
     Page<NotificationResponse> getUnreadNotifications(Long userId, Pageable pageable);
     
     Page<NotificationResponse> getNotificationsByType(Long userId, Notification.NotificationType type, Pageable pageable);
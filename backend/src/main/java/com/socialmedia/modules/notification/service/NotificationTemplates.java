@@ -0,0 +1,35 @@
+package com.socialmedia.modules.notification.service;
+
+import com.socialmedia.modules.notification.entity.Notification;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+public final class NotificationTemplates {
+
+    private static final Map<Notification.NotificationType, String> ACTIONS =
+            new EnumMap<>(Notification.NotificationType.class);
+
+    static {
+        ACTIONS.put(Notification.NotificationType.LIKE, "liked your post");
+        ACTIONS.put(Notification.NotificationType.COMMENT, "commented on your post");
+        ACTIONS.put(Notification.NotificationType.FRIEND_REQUEST, "sent you a friend request");
+        ACTIONS.put(Notification.NotificationType.FRIEND_ACCEPTED, "accepted your friend request");
+        ACTIONS.put(Notification.NotificationType.MESSAGE, "sent you a message");
+        ACTIONS.put(Notification.NotificationType.POST_MENTION, "mentioned you in a post");
+        ACTIONS.put(Notification.NotificationType.COMMENT_MENTION, "mentioned you in a comment");
+    }
+
+    private NotificationTemplates() {
+    }
+
+    // "alice liked your post", "alice and 41 others liked your post"
+    public static String render(Notification.NotificationType type, String actorName, long actorCount) {
+        String action = ACTIONS.get(type);
+        if (actorCount <= 1) {
+            return actorName + " " + action;
+        }
+        long others = actorCount - 1;
+        return actorName + " and " + others + (others == 1 ? " other " : " others ") + action;
+    }
+}
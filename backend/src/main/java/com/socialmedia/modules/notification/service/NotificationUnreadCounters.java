@@ -0,0 +1,111 @@
+package com.socialmedia.modules.notification.service;
+
+import com.socialmedia.config.ClusterProperties;
+import com.socialmedia.modules.notification.config.NotificationCounterProperties;
+import com.socialmedia.modules.notification.config.NotificationRetentionProperties;
+import com.socialmedia.modules.notification.entity.Notification;
+import com.socialmedia.modules.notification.repository.NotificationRepository;
+import com.socialmedia.shared.cache.LocalCache;
+import com.socialmedia.shared.metrics.MetricsSource;
+import com.socialmedia.shared.transaction.TransactionCallbacks;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-user unread notification counts indexed by {@link Notification.NotificationType} ordinal.
+ * Loaded with one grouped query and adjusted in place once the changing transaction commits.
+ * Adjustments are node-local, so with several nodes entries live only a few seconds.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationUnreadCounters implements MetricsSource {
+    
+    private static final int TYPES = Notification.NotificationType.values().length;
+    
+    private final NotificationRepository notificationRepository;
+    private final NotificationCounterProperties properties;
+    private final NotificationRetentionProperties retentionProperties;
+    private final ClusterProperties clusterProperties;
+    
+    private LocalCache<Long, AtomicLongArray> cache;
+    
+    @PostConstruct
+    void init() {
+        boolean clustered = clusterProperties.isEnabled();
+        long ttlSeconds = clustered ? properties.getClusteredTtlSeconds() : properties.getTtlSeconds();
+        cache = new LocalCache<>(properties.getMaximumSize(), Duration.ofSeconds(ttlSeconds));
+    }
+    
+    public long get(Long userId, Notification.NotificationType type) {
+        return counters(userId).get(type.ordinal());
+    }
+    
+    public long total(Long userId) {
+        AtomicLongArray counters = counters(userId);
+        long total = 0;
+        for (int i = 0; i < TYPES; i++) {
+            total += counters.get(i);
+        }
+        return total;
+    }
+    
+    public void increment(Long userId, Notification.NotificationType type) {
+        TransactionCallbacks.afterCommit(() -> adjust(userId, type, 1));
+    }
+    
+    public void decrement(Long userId, Notification.NotificationType type) {
+        TransactionCallbacks.afterCommit(() -> adjust(userId, type, -1));
+    }
+    
+    public void clear(Long userId) {
+        TransactionCallbacks.afterCommit(() -> cache.put(userId, new AtomicLongArray(TYPES)));
+    }
+    
+    // For changes whose effect on the unread count is not known up front
+    public void invalidate(Long userId) {
+        TransactionCallbacks.afterCommit(() -> cache.invalidate(userId));
+    }
+    
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+    
+    private AtomicLongArray counters(Long userId) {
+        return cache.get(userId, id -> {
+            AtomicLongArray counters = new AtomicLongArray(TYPES);
+            for (Object[] row : notificationRepository.countUnreadByType(id, retentionProperties.oldestLiveBucket())) {
+                counters.set(((Notification.NotificationType) row[0]).ordinal(), (Long) row[1]);
+            }
+            return counters;
+        });
+    }
+    
+    // Users not in the cache are loaded fresh on their next read
+    private void adjust(Long userId, Notification.NotificationType type, long delta) {
+        AtomicLongArray counters = cache.getIfPresent(userId);
+        if (counters != null) {
+            counters.getAndUpdate(type.ordinal(), count -> Math.max(0, count + delta));
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.cache.notification-unread.cleanup-interval-ms:60000}")
+    public void cleanUp() {
+        cache.cleanUp();
+    }
+    
+    @Override
+    public String getMetricsName() {
+        return "cache.notificationUnread";
+    }
+    
+    @Override
+    public Map<String, Object> getMetrics() {
+        return cache.stats();
+    }
+}
@@ -1,20 +1,27 @@
 package com.socialmedia.modules.notification.service.impl;
 
+import com.socialmedia.modules.notification.config.NotificationRetentionProperties;
 import com.socialmedia.modules.notification.entity.Notification;
-import com.socialmedia.modules.user.entity.User;
 import com.socialmedia.modules.notification.dto.NotificationResponse;
 import com.socialmedia.modules.notification.dto.NotificationSummary;
 import com.socialmedia.shared.exception.exceptions.NotificationNotFoundException;
 import com.socialmedia.shared.exception.exceptions.UnauthorizedNotificationAccessException;
+import com.socialmedia.modules.notification.service.NotificationHydrationService;
 import com.socialmedia.modules.notification.service.NotificationService;
-import com.socialmedia.modules.user.dto.UserSummaryResponse;
+import com.socialmedia.modules.notification.service.NotificationUnreadCounters;
 import com.socialmedia.shared.exception.exceptions.UserNotFoundException;
 import com.socialmedia.modules.notification.repository.NotificationRepository;
 import com.socialmedia.modules.user.repository.UserRepository;
+import com.socialmedia.shared.pagination.Cursor;
+import com.socialmedia.shared.pagination.CursorPage;
+import com.socialmedia.shared.transaction.TransactionCallbacks;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,21 +34,27 @@ public class NotificationServiceImpl implements NotificationService {
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
     private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationUnreadCounters unreadCounters;
+    private final NotificationHydrationService notificationHydrationService;
+    private final NotificationRetentionProperties retentionProperties;
 
     @Override
     @Transactional
     public NotificationResponse createNotification(Long userId, Notification.NotificationType type, String content, Long relatedId) {
         log.info("Creating notification for user ID: {} with type: {}", userId, type);
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException(userId));
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException(userId);
+        }
 
-        Notification notification = new Notification(user, type, content, relatedId);
+        Notification notification = new Notification(userRepository.getReferenceById(userId), type, content, relatedId);
         notification = notificationRepository.save(notification);
 
-        NotificationResponse response = convertToResponse(notification);
+        NotificationResponse response = notificationHydrationService.hydrate(notification);
         
-        sendRealTimeNotification(userId, response);
+        // Never push a notification the caller's transaction might still roll back
+        TransactionCallbacks.afterCommit(() -> sendRealTimeNotification(userId, response));
+        unreadCounters.increment(userId, type);
         
         log.info("Notification created successfully with ID: {}", notification.getId());
         return response;
@@ -55,7 +68,21 @@ public class NotificationServiceImpl implements NotificationService {
         Page<Notification> notifications = notificationRepository
                 .findNotificationsByUserIdOrderedByCreatedAt(userId, pageable);
         
-        return notifications.map(this::convertToResponse);
+        return new PageImpl<>(notificationHydrationService.hydrate(notifications.getContent()), pageable, notifications.getTotalElements());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<NotificationResponse> getUserNotifications(Long userId, String cursor, int size) {
+        log.info("Fetching notifications for user ID: {} with cursor", userId);
+        
+        Cursor position = Cursor.decode(cursor);
+        Slice<Notification> notifications = notificationRepository.findNotificationsByUserIdBefore(
+                userId, position.getCreatedAt(), position.getId(), PageRequest.of(0, CursorPage.clampSize(size)));
+        
+        return CursorPage.of(notifications,
+                notification -> new Cursor(notification.getCreatedAt(), notification.getId()),
+                notificationHydrationService::hydrate);
     }
 
     @Override
@@ -64,9 +91,9 @@ public class NotificationServiceImpl implements NotificationService {
         log.info("Fetching unread notifications for user ID: {}", userId);
         
         Page<Notification> notifications = notificationRepository
-                .findUnreadNotificationsByUserId(userId, pageable);
+                .findUnreadNotificationsByUserId(userId, retentionProperties.oldestLiveBucket(), pageable);
         
-        return notifications.map(this::convertToResponse);
+        return new PageImpl<>(notificationHydrationService.hydrate(notifications.getContent()), pageable, notifications.getTotalElements());
     }
 
     @Override
@@ -77,7 +104,7 @@ public class NotificationServiceImpl implements NotificationService {
         Page<Notification> notifications = notificationRepository
                 .findNotificationsByUserIdAndType(userId, type, pageable);
         
-        return notifications.map(this::convertToResponse);
+        return new PageImpl<>(notificationHydrationService.hydrate(notifications.getContent()), pageable, notifications.getTotalElements());
     }
 
     @Override
@@ -92,10 +119,13 @@ public class NotificationServiceImpl implements NotificationService {
             throw new UnauthorizedNotificationAccessException("User not authorized to mark this notification as read");
         }
 
+        if (!notification.getReadStatus()) {
+            unreadCounters.decrement(userId, notification.getType());
+        }
         notification.setReadStatus(true);
         notification = notificationRepository.save(notification);
 
-        NotificationResponse response = convertToResponse(notification);
+        NotificationResponse response = notificationHydrationService.hydrate(notification);
         
         messagingTemplate.convertAndSendToUser(
                 userId.toString(),
@@ -111,7 +141,9 @@ public class NotificationServiceImpl implements NotificationService {
     public void markAllAsRead(Long userId) {
         log.info("Marking all notifications as read for user ID: {}", userId);
         
-        notificationRepository.markAllNotificationsAsReadByUserId(userId);
+        int updated = notificationRepository.markAllNotificationsAsReadByUserId(userId, retentionProperties.oldestLiveBucket());
+        log.debug("Marked {} notifications as read for user ID: {}", updated, userId);
+        unreadCounters.clear(userId);
         
         messagingTemplate.convertAndSendToUser(
                 userId.toString(),
@@ -124,7 +156,7 @@ public class NotificationServiceImpl implements NotificationService {
     @Transactional(readOnly = true)
     public Long getUnreadCount(Long userId) {
         log.info("Getting unread notification count for user ID: {}", userId);
-        return notificationRepository.countUnreadNotificationsByUserId(userId);
+        return unreadCounters.total(userId);
     }
 
     @Override
@@ -132,14 +164,15 @@ public class NotificationServiceImpl implements NotificationService {
     public NotificationSummary getNotificationSummary(Long userId) {
         log.info("Getting notification summary for user ID: {}", userId);
 
-        Long totalUnread = notificationRepository.countUnreadNotificationsByUserId(userId);
+        // Unread counts only, served from the cached per-type vector
+        Long totalUnread = unreadCounters.total(userId);
         
-        Long likeNotifications = getCountByType(userId, Notification.NotificationType.LIKE);
-        Long commentNotifications = getCountByType(userId, Notification.NotificationType.COMMENT);
-        Long friendRequestNotifications = getCountByType(userId, Notification.NotificationType.FRIEND_REQUEST);
-        Long messageNotifications = getCountByType(userId, Notification.NotificationType.MESSAGE);
-        Long mentionNotifications = getCountByType(userId, Notification.NotificationType.POST_MENTION) +
-                                  getCountByType(userId, Notification.NotificationType.COMMENT_MENTION);
+        Long likeNotifications = unreadCounters.get(userId, Notification.NotificationType.LIKE);
+        Long commentNotifications = unreadCounters.get(userId, Notification.NotificationType.COMMENT);
+        Long friendRequestNotifications = unreadCounters.get(userId, Notification.NotificationType.FRIEND_REQUEST);
+        Long messageNotifications = unreadCounters.get(userId, Notification.NotificationType.MESSAGE);
+        Long mentionNotifications = unreadCounters.get(userId, Notification.NotificationType.POST_MENTION) +
+                                  unreadCounters.get(userId, Notification.NotificationType.COMMENT_MENTION);
 
         return new NotificationSummary(
                 totalUnread,
@@ -163,7 +196,7 @@ public class NotificationServiceImpl implements NotificationService {
             throw new UnauthorizedNotificationAccessException("User not authorized to access this notification");
         }
 
-        return convertToResponse(notification);
+        return notificationHydrationService.hydrate(notification);
     }
 
     @Override
@@ -179,6 +212,9 @@ public class NotificationServiceImpl implements NotificationService {
         }
 
         notificationRepository.delete(notification);
+        if (!notification.getReadStatus()) {
+            unreadCounters.decrement(userId, notification.getType());
+        }
         log.info("Notification deleted successfully");
     }
 
@@ -187,6 +223,7 @@ public class NotificationServiceImpl implements NotificationService {
     public void deleteNotificationsByRelatedId(Long userId, Long relatedId, Notification.NotificationType type) {
         log.info("Deleting notifications for user ID: {} with related ID: {} and type: {}", userId, relatedId, type);
         notificationRepository.deleteByUserIdAndRelatedIdAndType(userId, relatedId, type);
+        unreadCounters.invalidate(userId);
     }
 
     @Override
@@ -204,38 +241,4 @@ public class NotificationServiceImpl implements NotificationService {
         }
     }
 
-    private Long getCountByType(Long userId, Notification.NotificationType type) {
-        return notificationRepository.findNotificationsByUserIdAndType(userId, type, Pageable.unpaged())
-                .getTotalElements();
-    }
-
-    private NotificationResponse convertToResponse(Notification notification) {
-        UserSummaryResponse relatedUser = null;
-        if (notification.getRelatedId() != null) {
-            try {
-                User user = userRepository.findById(notification.getRelatedId()).orElse(null);
-                if (user != null) {
-                    relatedUser = new UserSummaryResponse(
-                            user.getId(),
-                            user.getUsername(),
-                            user.getFirstName(),
-                            user.getLastName(),
-                            user.getProfileImageUrl()
-                    );
-                }
-            } catch (Exception e) {
-                log.warn("Could not load related user for notification: {}", e.getMessage());
-            }
-        }
-
-        return new NotificationResponse(
-                notification.getId(),
-                notification.getType().name(),
-                notification.getContent(),
-                notification.getRelatedId(),
-                notification.getReadStatus(),
-                notification.getCreatedAt(),
-                relatedUser
-        );
-    }
-} 
\ No newline at end of file
+}
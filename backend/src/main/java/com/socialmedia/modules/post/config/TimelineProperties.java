@@ -0,0 +1,24 @@
+package com.socialmedia.modules.post.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.feed.timeline")
+@Data
+public class TimelineProperties {
+    
+    private int bufferSize = 200;
+    private int maxCachedUsers = 10000;
+    
+    private int fanoutFriendLimit = 1000;
+    private int writeBatchSize = 500;
+    private int friendBackfillLimit = 200;
+    
+    private long celebrityRefreshSeconds = 300;
+    
+    // With app.cluster.enabled, posts fanned out by another node only reach this node's buffers when they are
+    // reloaded from timeline_entries, so buffers are dropped once they are this old
+    private long clusteredBufferTtlSeconds = 5;
+}
@@ -5,6 +5,7 @@ import com.socialmedia.modules.post.dto.PostResponse;
 import com.socialmedia.modules.post.dto.PostSummaryResponse;
 import com.socialmedia.modules.post.service.PostService;
 import com.socialmedia.security.UserPrincipal;
+import com.socialmedia.shared.pagination.CursorPage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -270,7 +271,7 @@ public class PostController {
 
     @Operation(
             summary = "Get Feed Posts",
-            description = "Get paginated feed posts for the authenticated user, including posts from friends and public posts.",
+            description = "Get paginated feed posts for the authenticated user, including posts from friends and the user's own posts.",
             parameters = {
                     @Parameter(name = "page", description = "Page number (0-based)", example = "0"),
                     @Parameter(name = "size", description = "Number of posts per page", example = "10")
@@ -332,6 +333,59 @@ public class PostController {
         return ResponseEntity.ok(feedPosts);
     }
 
+    @Operation(
+            summary = "Get Feed Posts (Cursor)",
+            description = "Get feed posts using keyset pagination. Pass the returned nextCursor to fetch the following page. No total count is computed.",
+            parameters = {
+                    @Parameter(name = "cursor", description = "Opaque cursor from the previous page; omit for the first page"),
+                    @Parameter(name = "size", description = "Number of posts per page", example = "10")
+            }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Feed posts retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(
+                                    value = """
+                                            {
+                                              "content": [
+                                                {
+                                                  "id": 1,
+                                                  "content": "Beautiful sunset today!",
+                                                  "likeCount": 25,
+                                                  "commentCount": 8,
+                                                  "isLikedByCurrentUser": true
+                                                }
+                                              ],
+                                              "nextCursor": "MjAyNC0wMS0xNVQxNDozMHwx",
+                                              "hasNext": true,
+                                              "size": 10
+                                            }"""
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid cursor",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Authentication required",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @GetMapping("/feed/cursor")
+    public ResponseEntity<CursorPage<PostResponse>> getFeedPostsByCursor(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        CursorPage<PostResponse> feedPosts = postService.getFeedPosts(userPrincipal.getId(), cursor, size);
+        return ResponseEntity.ok(feedPosts);
+    }
+
     @Operation(
             summary = "Get User Posts",
             description = "Get paginated posts for a specific user.",
@@ -368,6 +422,41 @@ public class PostController {
         return ResponseEntity.ok(userPosts);
     }
 
+    @Operation(
+            summary = "Get User Posts (Cursor)",
+            description = "Get posts for a specific user using keyset pagination.",
+            parameters = {
+                    @Parameter(name = "userId", description = "User ID to get posts for", required = true, example = "1"),
+                    @Parameter(name = "cursor", description = "Opaque cursor from the previous page; omit for the first page"),
+                    @Parameter(name = "size", description = "Number of posts per page", example = "10")
+            }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "User posts retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = CursorPage.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid cursor",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @GetMapping("/user/{userId}/cursor")
+    public ResponseEntity<CursorPage<PostResponse>> getUserPostsByCursor(
+            @PathVariable Long userId,
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        Long currentUserId = userPrincipal != null ? userPrincipal.getId() : null;
+        CursorPage<PostResponse> userPosts = postService.getUserPosts(userId, currentUserId, cursor, size);
+        return ResponseEntity.ok(userPosts);
+    }
+
     @Operation(
             summary = "Get Recent Posts",
             description = "Get a list of recent posts for dashboard or widget display.",
@@ -0,0 +1,43 @@
+package com.socialmedia.modules.post.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "timeline_entries", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"owner_id", "post_id"})
+}, indexes = {
+    @Index(name = "idx_timeline_owner_created", columnList = "owner_id, created_at DESC, post_id DESC"),
+    @Index(name = "idx_timeline_post", columnList = "post_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class TimelineEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+
+    @Column(name = "author_id", nullable = false)
+    private Long authorId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public TimelineEntry(Long ownerId, Long postId, Long authorId, LocalDateTime createdAt) {
+        this.ownerId = ownerId;
+        this.postId = postId;
+        this.authorId = authorId;
+        this.createdAt = createdAt;
+    }
+}
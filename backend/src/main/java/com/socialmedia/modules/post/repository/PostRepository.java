@@ -1,24 +1,85 @@
 package com.socialmedia.modules.post.repository;
 
 import com.socialmedia.modules.post.entity.Post;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
     
-    @Query("SELECT p FROM Post p JOIN p.user u ORDER BY p.createdAt DESC")
+    @Query(value = "SELECT p FROM Post p JOIN FETCH p.user u ORDER BY p.createdAt DESC",
+           countQuery = "SELECT COUNT(p) FROM Post p")
     Page<Post> findAllPostsOrderedByCreatedAt(Pageable pageable);
     
-    @Query("SELECT p FROM Post p WHERE p.user.id = :userId ORDER BY p.createdAt DESC")
+    @Query(value = "SELECT p FROM Post p JOIN FETCH p.user WHERE p.user.id = :userId ORDER BY p.createdAt DESC",
+           countQuery = "SELECT COUNT(p) FROM Post p WHERE p.user.id = :userId")
     Page<Post> findPostsByUserIdOrderedByCreatedAt(@Param("userId") Long userId, Pageable pageable);
     
     @Query("SELECT p FROM Post p WHERE p.user.id IN :friendIds ORDER BY p.createdAt DESC")
     Page<Post> findPostsByUserIds(@Param("friendIds") java.util.List<Long> friendIds, Pageable pageable);
     
+    @Query("SELECT p.id, p.createdAt FROM Post p WHERE p.user.id IN :userIds ORDER BY p.createdAt DESC, p.id DESC")
+    List<Object[]> findPostKeysByUserIds(@Param("userIds") List<Long> userIds, Pageable pageable);
+    
+    @Query("SELECT p FROM Post p JOIN FETCH p.user WHERE p.id IN :ids")
+    List<Post> findPostsWithUserByIds(@Param("ids") List<Long> ids);
+    
     Long countByUserId(Long userId);
-} 
\ No newline at end of file
+    
+    Long countByUserIdIn(List<Long> userIds);
+    
+    @Query("SELECT p.likeCount FROM Post p WHERE p.id = :postId")
+    Optional<Long> findLikeCountById(@Param("postId") Long postId);
+    
+    @Query("SELECT p.commentCount FROM Post p WHERE p.id = :postId")
+    Optional<Long> findCommentCountById(@Param("postId") Long postId);
+    
+    @Query("SELECT p.user.id FROM Post p WHERE p.id = :postId")
+    Optional<Long> findAuthorIdById(@Param("postId") Long postId);
+    
+    @Query("SELECT p.id, p.user.id FROM Post p WHERE p.id IN :postIds")
+    List<Object[]> findAuthorIdsByIds(@Param("postIds") Collection<Long> postIds);
+    
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "posts"))
+    @Query(value = "UPDATE posts p SET like_count = c.like_count, comment_count = c.comment_count " +
+                   "FROM (SELECT p2.id, " +
+                   "(SELECT COUNT(*) FROM likes l WHERE l.post_id = p2.id) AS like_count, " +
+                   "(SELECT COUNT(*) FROM comments cm WHERE cm.post_id = p2.id) AS comment_count " +
+                   "FROM posts p2 WHERE p2.id IN (:postIds)) c " +
+                   "WHERE p.id = c.id AND (p.like_count <> c.like_count OR p.comment_count <> c.comment_count)",
+           nativeQuery = true)
+    int reconcileCounters(@Param("postIds") List<Long> postIds);
+    
+    @Query("SELECT p FROM Post p JOIN FETCH p.user WHERE p.user.id = :userId AND " +
+           "(p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<Post> findPostsByUserIdBefore(@Param("userId") Long userId,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id,
+                                        Pageable pageable);
+    
+    @Query("SELECT p.id, p.createdAt FROM Post p WHERE p.user.id IN :userIds AND " +
+           "(p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Object[]> findPostKeysByUserIdsBefore(@Param("userIds") List<Long> userIds,
+                                               @Param("createdAt") LocalDateTime createdAt,
+                                               @Param("id") Long id,
+                                               Pageable pageable);
+}
@@ -0,0 +1,38 @@
+package com.socialmedia.modules.post.repository;
+
+import com.socialmedia.modules.post.entity.TimelineEntry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface TimelineEntryRepository extends JpaRepository<TimelineEntry, Long> {
+    
+    @Query("SELECT t FROM TimelineEntry t WHERE t.ownerId = :ownerId ORDER BY t.createdAt DESC, t.postId DESC")
+    Page<TimelineEntry> findByOwnerIdOrderedByCreatedAt(@Param("ownerId") Long ownerId, Pageable pageable);
+    
+    Long countByOwnerId(Long ownerId);
+    
+    @Modifying
+    @Query("DELETE FROM TimelineEntry t WHERE t.postId = :postId")
+    void deleteByPostId(@Param("postId") Long postId);
+    
+    @Modifying
+    @Query("DELETE FROM TimelineEntry t WHERE t.ownerId = :ownerId AND t.authorId = :authorId")
+    int deleteByOwnerIdAndAuthorId(@Param("ownerId") Long ownerId, @Param("authorId") Long authorId);
+    
+    @Query("SELECT t FROM TimelineEntry t WHERE t.ownerId = :ownerId AND " +
+           "(t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.postId < :postId)) " +
+           "ORDER BY t.createdAt DESC, t.postId DESC")
+    Slice<TimelineEntry> findByOwnerIdBefore(@Param("ownerId") Long ownerId,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("postId") Long postId,
+                                             Pageable pageable);
+}
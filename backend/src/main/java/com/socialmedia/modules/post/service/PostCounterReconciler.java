@@ -0,0 +1,43 @@
+package com.socialmedia.modules.post.service;
+
+import com.socialmedia.modules.post.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PostCounterReconciler {
+    
+    private final PostRepository postRepository;
+    private final PostCounterService postCounterService;
+    
+    @Value("${app.feed.counters.reconcile-batch-size:1000}")
+    private int batchSize;
+    
+    // Only posts whose counters moved since the last run are recounted, so the cost tracks activity, not table size
+    @Scheduled(initialDelayString = "${app.feed.counters.reconcile-initial-delay-ms:30000}",
+               fixedDelayString = "${app.feed.counters.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        List<Long> postIds = postCounterService.drainTouched();
+        int corrected = 0;
+        for (int from = 0; from < postIds.size(); from += batchSize) {
+            List<Long> batch = postIds.subList(from, Math.min(from + batchSize, postIds.size()));
+            try {
+                corrected += postRepository.reconcileCounters(batch);
+            } catch (RuntimeException e) {
+                log.warn("Counter reconciliation failed, retrying {} posts next run", postIds.size() - from, e);
+                postCounterService.markTouched(postIds.subList(from, postIds.size()));
+                break;
+            }
+        }
+        if (corrected > 0) {
+            log.info("Reconciled like/comment counters on {} of {} recently touched posts", corrected, postIds.size());
+        }
+    }
+}
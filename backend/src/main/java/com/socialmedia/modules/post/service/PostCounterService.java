@@ -0,0 +1,63 @@
+package com.socialmedia.modules.post.service;
+
+import com.socialmedia.modules.post.entity.Post;
+import com.socialmedia.shared.transaction.TransactionCallbacks;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+public class PostCounterService {
+    
+    private static final String INCREMENT_LIKES_SQL = "UPDATE posts SET like_count = like_count + ? WHERE id = ?";
+    private static final String INCREMENT_COMMENTS_SQL = "UPDATE posts SET comment_count = comment_count + ? WHERE id = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    
+    private final Set<Long> touched = ConcurrentHashMap.newKeySet();
+    
+    // Counters are written through JDBC so a single like does not flush the whole Post cache region
+    public void incrementLikeCount(Long postId, long delta) {
+        jdbcTemplate.update(INCREMENT_LIKES_SQL, delta, postId);
+        touched.add(postId);
+        evict(List.of(postId));
+    }
+    
+    public void incrementCommentCount(Long postId, long delta) {
+        jdbcTemplate.update(INCREMENT_COMMENTS_SQL, delta, postId);
+        touched.add(postId);
+        evict(List.of(postId));
+    }
+    
+    // For counter writes that bypass the increment methods, e.g. the like write-behind flush
+    public void markTouched(Collection<Long> postIds) {
+        touched.addAll(postIds);
+    }
+    
+    // Hands the reconciler every post whose counters changed on this node since the previous call
+    public List<Long> drainTouched() {
+        List<Long> postIds = new ArrayList<>(touched);
+        postIds.forEach(touched::remove);
+        return postIds;
+    }
+    
+    public void evict(Collection<Long> postIds) {
+        evictNow(postIds);
+        TransactionCallbacks.afterCompletion(() -> evictNow(postIds));
+    }
+    
+    private void evictNow(Collection<Long> postIds) {
+        for (Long postId : postIds) {
+            entityManagerFactory.getCache().evict(Post.class, postId);
+        }
+    }
+}
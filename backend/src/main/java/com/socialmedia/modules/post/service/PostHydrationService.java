@@ -0,0 +1,112 @@
+package com.socialmedia.modules.post.service;
+
+import com.socialmedia.modules.post.dto.PostResponse;
+import com.socialmedia.modules.post.dto.PostSummaryResponse;
+import com.socialmedia.modules.post.entity.Post;
+import com.socialmedia.modules.social.repository.LikeRepository;
+import com.socialmedia.modules.social.service.LikeBloomFilter;
+import com.socialmedia.modules.social.service.LikeWriteBuffer;
+import com.socialmedia.modules.user.service.UserSummaryCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class PostHydrationService {
+
+    private final LikeRepository likeRepository;
+    private final LikeWriteBuffer likeWriteBuffer;
+    private final LikeBloomFilter likeBloomFilter;
+    private final UserSummaryCache userSummaryCache;
+
+    public List<PostResponse> hydrate(List<Post> posts, Long currentUserId) {
+        if (posts.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Set<Long> likedPostIds = currentUserId != null
+                ? findLikedPostIds(getPostIds(posts), currentUserId)
+                : Collections.emptySet();
+
+        return posts.stream()
+                .map(post -> {
+                    PostResponse response = new PostResponse();
+                    response.setId(post.getId());
+                    response.setContent(post.getContent());
+                    response.setImageUrl(post.getImageUrl());
+                    response.setCreatedAt(post.getCreatedAt());
+                    response.setUpdatedAt(post.getUpdatedAt());
+                    response.setUser(userSummaryCache.summarize(post.getUser()));
+                    response.setLikeCount(getLikeCount(post));
+                    response.setCommentCount(post.getCommentCount());
+                    response.setIsLikedByCurrentUser(isLiked(post.getId(), currentUserId, likedPostIds));
+                    return response;
+                })
+                .collect(Collectors.toList());
+    }
+
+    public PostResponse hydrate(Post post, Long currentUserId) {
+        return hydrate(List.of(post), currentUserId).get(0);
+    }
+
+    public List<PostSummaryResponse> hydrateSummaries(List<Post> posts) {
+        if (posts.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return posts.stream()
+                .map(post -> new PostSummaryResponse(
+                        post.getId(),
+                        post.getContent().length() > 100 ?
+                            post.getContent().substring(0, 100) + "..." : post.getContent(),
+                        post.getImageUrl(),
+                        post.getCreatedAt(),
+                        post.getUser().getUsername(),
+                        post.getUser().getProfileImageUrl(),
+                        getLikeCount(post),
+                        post.getCommentCount()
+                ))
+                .collect(Collectors.toList());
+    }
+
+    private Set<Long> findLikedPostIds(List<Long> postIds, Long currentUserId) {
+        List<Long> candidates = postIds.stream()
+                .filter(postId -> likeBloomFilter.mightContain(postId, currentUserId))
+                .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Set<Long> liked = new HashSet<>(likeRepository.findLikedPostIdsByUserId(currentUserId, candidates));
+        likeBloomFilter.recordProbes(candidates.size(), liked.size());
+        return liked;
+    }
+
+    private Long getLikeCount(Post post) {
+        if (!likeWriteBuffer.isEnabled()) {
+            return post.getLikeCount();
+        }
+        return post.getLikeCount() + likeWriteBuffer.getPendingDelta(post.getId());
+    }
+
+    private boolean isLiked(Long postId, Long currentUserId, Set<Long> likedPostIds) {
+        Boolean buffered = likeWriteBuffer.isEnabled() && currentUserId != null
+                ? likeWriteBuffer.getBufferedState(postId, currentUserId)
+                : null;
+        return buffered != null ? buffered : likedPostIds.contains(postId);
+    }
+
+    private List<Long> getPostIds(List<Post> posts) {
+        return posts.stream()
+                .map(Post::getId)
+                .collect(Collectors.toList());
+    }
+}
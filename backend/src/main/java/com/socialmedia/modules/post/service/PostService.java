@@ -4,6 +4,7 @@ import com.socialmedia.modules.post.dto.PostRequest;
 import com.socialmedia.modules.post.dto.PostResponse;
 import com.socialmedia.modules.post.dto.PostSummaryResponse;
 import com.socialmedia.modules.post.entity.Post;
+import com.socialmedia.shared.pagination.CursorPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -15,8 +16,10 @@ public interface PostService {
     PostResponse getPostById(Long postId, Long currentUserId);
     Post getPostEntityById(Long postId);
     Page<PostResponse> getFeedPosts(Long userId, Pageable pageable);
+    CursorPage<PostResponse> getFeedPosts(Long userId, String cursor, int size);
     Page<PostResponse> getUserPosts(Long userId, Pageable pageable);
     Page<PostResponse> getUserPosts(Long userId, Long currentUserId, Pageable pageable);
+    CursorPage<PostResponse> getUserPosts(Long userId, Long currentUserId, String cursor, int size);
     PostResponse updatePost(Long postId, PostRequest postRequest, Long userId);
     boolean deletePost(Long postId, Long userId);
     List<PostSummaryResponse> getRecentPosts(int limit);
@@ -0,0 +1,390 @@
+package com.socialmedia.modules.post.service;
+
+import com.socialmedia.config.ClusterProperties;
+import com.socialmedia.modules.post.config.TimelineProperties;
+import com.socialmedia.modules.post.entity.Post;
+import com.socialmedia.modules.post.entity.TimelineEntry;
+import com.socialmedia.modules.post.repository.PostRepository;
+import com.socialmedia.modules.post.repository.TimelineEntryRepository;
+import com.socialmedia.modules.social.repository.FriendshipRepository;
+import com.socialmedia.shared.pagination.Cursor;
+import com.socialmedia.shared.pagination.CursorPage;
+import com.socialmedia.shared.transaction.TransactionCallbacks;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TimelineService {
+
+    private static final String INSERT_ENTRY_SQL =
+            "INSERT INTO timeline_entries (owner_id, post_id, author_id, created_at) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (owner_id, post_id) DO NOTHING";
+
+    private static final String BACKFILL_SQL =
+            "INSERT INTO timeline_entries (owner_id, post_id, author_id, created_at) " +
+            "SELECT p.user_id, p.id, p.user_id, p.created_at FROM posts p " +
+            "UNION ALL " +
+            "SELECT CASE WHEN f.requester_id = p.user_id THEN f.addressee_id ELSE f.requester_id END, " +
+            "p.id, p.user_id, p.created_at FROM posts p JOIN friendships f " +
+            "ON (f.requester_id = p.user_id OR f.addressee_id = p.user_id) AND f.status = 'ACCEPTED' " +
+            "ON CONFLICT (owner_id, post_id) DO NOTHING";
+
+    private static final String BACKFILL_AUTHOR_SQL =
+            "INSERT INTO timeline_entries (owner_id, post_id, author_id, created_at) " +
+            "SELECT ?, p.id, p.user_id, p.created_at FROM posts p WHERE p.user_id = ? " +
+            "ORDER BY p.created_at DESC, p.id DESC LIMIT ? " +
+            "ON CONFLICT (owner_id, post_id) DO NOTHING";
+
+    private final TimelineEntryRepository timelineEntryRepository;
+    private final FriendshipRepository friendshipRepository;
+    private final PostRepository postRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TimelineProperties timelineProperties;
+    private final ClusterProperties clusterProperties;
+
+    private Map<Long, TimelineBuffer> buffers;
+
+    @PostConstruct
+    void initBuffers() {
+        buffers = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, TimelineBuffer> eldest) {
+                return size() > timelineProperties.getMaxCachedUsers();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (timelineEntryRepository.count() > 0 || postRepository.count() == 0) {
+            return;
+        }
+        int inserted = jdbcTemplate.update(BACKFILL_SQL);
+        log.info("Backfilled {} timeline entries from existing posts", inserted);
+    }
+
+    @Transactional
+    public void fanOut(Post post) {
+        Long authorId = post.getUser().getId();
+        List<Long> friendIds = friendshipRepository.findFriendIdsByUserId(authorId);
+
+        List<Long> recipients = new ArrayList<>();
+        recipients.add(authorId);
+        if (friendIds.size() <= timelineProperties.getFanoutFriendLimit()) {
+            recipients.addAll(friendIds);
+        } else {
+            log.debug("Skipping fan-out for user {} with {} friends", authorId, friendIds.size());
+        }
+
+        Timestamp createdAt = Timestamp.valueOf(post.getCreatedAt());
+        jdbcTemplate.batchUpdate(INSERT_ENTRY_SQL, recipients, timelineProperties.getWriteBatchSize(),
+                (ps, ownerId) -> {
+                    ps.setLong(1, ownerId);
+                    ps.setLong(2, post.getId());
+                    ps.setLong(3, authorId);
+                    ps.setTimestamp(4, createdAt);
+                });
+
+        TimelineItem item = new TimelineItem(post.getId(), post.getCreatedAt());
+        TransactionCallbacks.afterCommit(() -> recipients.forEach(ownerId -> {
+            TimelineBuffer buffer = buffers.get(ownerId);
+            if (buffer != null) {
+                buffer.push(item);
+            }
+        }));
+    }
+
+    @Transactional
+    public void removePost(Long postId) {
+        timelineEntryRepository.deleteByPostId(postId);
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (buffers) {
+                buffers.values().forEach(buffer -> buffer.remove(postId));
+            }
+        });
+    }
+
+    // Runs after the friendship commit, so it needs its own transaction rather than joining the finished one
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void connect(Long userId, Long friendId) {
+        backfillAuthor(userId, friendId);
+        backfillAuthor(friendId, userId);
+        dropBuffers(userId, friendId);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void disconnect(Long userId, Long friendId) {
+        int removed = timelineEntryRepository.deleteByOwnerIdAndAuthorId(userId, friendId)
+                + timelineEntryRepository.deleteByOwnerIdAndAuthorId(friendId, userId);
+        log.debug("Pruned {} timeline entries between users {} and {}", removed, userId, friendId);
+        dropBuffers(userId, friendId);
+    }
+
+    // Celebrity authors are merged in at read time, so only regular authors are copied into the timeline
+    private void backfillAuthor(Long ownerId, Long authorId) {
+        if (friendshipRepository.findFriendIdsByUserId(authorId).size() > timelineProperties.getFanoutFriendLimit()) {
+            return;
+        }
+        jdbcTemplate.update(BACKFILL_AUTHOR_SQL, ownerId, authorId, timelineProperties.getFriendBackfillLimit());
+    }
+
+    // Buffers also cache the celebrity friend list, so both sides reload from the table on next read
+    private void dropBuffers(Long userId, Long friendId) {
+        TransactionCallbacks.afterCommit(() -> {
+            buffers.remove(userId);
+            buffers.remove(friendId);
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public Page<Long> getTimelinePostIds(Long userId, Pageable pageable) {
+        TimelineBuffer buffer = getBuffer(userId);
+        int window = (int) pageable.getOffset() + pageable.getPageSize();
+
+        List<TimelineItem> items = buffer.head(window);
+        if (items == null) {
+            items = loadItems(userId, window);
+        }
+        long total = buffer.getTotal();
+
+        List<Long> celebrityIds = getCelebrityFriendIds(userId, buffer);
+        if (!celebrityIds.isEmpty()) {
+            List<TimelineItem> celebrityItems = postRepository
+                    .findPostKeysByUserIds(celebrityIds, PageRequest.of(0, window))
+                    .stream()
+                    .map(row -> new TimelineItem((Long) row[0], (LocalDateTime) row[1]))
+                    .collect(Collectors.toList());
+            total += postRepository.countByUserIdIn(celebrityIds);
+            items = merge(items, celebrityItems);
+        }
+
+        List<Long> postIds = items.stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .map(TimelineItem::postId)
+                .collect(Collectors.toList());
+        return new PageImpl<>(postIds, pageable, total);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Long> getTimelinePostIds(Long userId, Cursor cursor, int size) {
+        TimelineBuffer buffer = getBuffer(userId);
+        TimelineItem position = new TimelineItem(cursor.getId(), cursor.getCreatedAt());
+        int limit = size + 1;
+
+        List<TimelineItem> items = buffer.after(position, limit);
+        if (items == null) {
+            items = timelineEntryRepository
+                    .findByOwnerIdBefore(userId, cursor.getCreatedAt(), cursor.getId(), PageRequest.of(0, limit))
+                    .getContent().stream()
+                    .map(entry -> new TimelineItem(entry.getPostId(), entry.getCreatedAt()))
+                    .collect(Collectors.toList());
+        }
+
+        List<Long> celebrityIds = getCelebrityFriendIds(userId, buffer);
+        if (!celebrityIds.isEmpty()) {
+            List<TimelineItem> celebrityItems = postRepository
+                    .findPostKeysByUserIdsBefore(celebrityIds, cursor.getCreatedAt(), cursor.getId(),
+                            PageRequest.of(0, limit))
+                    .stream()
+                    .map(row -> new TimelineItem((Long) row[0], (LocalDateTime) row[1]))
+                    .collect(Collectors.toList());
+            items = merge(items, celebrityItems);
+        }
+
+        boolean hasNext = items.size() > size;
+        List<TimelineItem> pageItems = hasNext ? items.subList(0, size) : items;
+        return CursorPage.of(pageItems, hasNext,
+                item -> new Cursor(item.createdAt(), item.postId()),
+                rows -> rows.stream().map(TimelineItem::postId).collect(Collectors.toList()));
+    }
+
+    private TimelineBuffer getBuffer(Long userId) {
+        long now = System.currentTimeMillis();
+        TimelineBuffer buffer = buffers.get(userId);
+        if (buffer != null && !isStale(buffer, now)) {
+            return buffer;
+        }
+
+        TimelineBuffer fresh = new TimelineBuffer(timelineProperties.getBufferSize(), now);
+        List<TimelineItem> items = loadItems(userId, timelineProperties.getBufferSize());
+        fresh.load(items, timelineEntryRepository.countByOwnerId(userId));
+        if (buffer != null) {
+            // The celebrity list has its own refresh interval
+            fresh.copyCelebrityFriendIds(buffer);
+            buffers.replace(userId, buffer, fresh);
+            return fresh;
+        }
+        TimelineBuffer existing = buffers.putIfAbsent(userId, fresh);
+        return existing != null ? existing : fresh;
+    }
+
+    // Fan-out and removals on other nodes only update their own buffers
+    private boolean isStale(TimelineBuffer buffer, long now) {
+        return clusterProperties.isEnabled()
+                && now - buffer.getLoadedAt() >= timelineProperties.getClusteredBufferTtlSeconds() * 1000;
+    }
+
+    private List<TimelineItem> loadItems(Long userId, int limit) {
+        Page<TimelineEntry> entries = timelineEntryRepository
+                .findByOwnerIdOrderedByCreatedAt(userId, PageRequest.of(0, limit));
+        return entries.getContent().stream()
+                .map(entry -> new TimelineItem(entry.getPostId(), entry.getCreatedAt()))
+                .collect(Collectors.toList());
+    }
+
+    private List<Long> getCelebrityFriendIds(Long userId, TimelineBuffer buffer) {
+        long now = System.currentTimeMillis();
+        long refreshMillis = timelineProperties.getCelebrityRefreshSeconds() * 1000;
+        List<Long> cached = buffer.getCelebrityFriendIds(now, refreshMillis);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<Long> friendIds = friendshipRepository.findFriendIdsByUserId(userId);
+        List<Long> celebrityIds = Collections.emptyList();
+        if (!friendIds.isEmpty()) {
+            Map<Long, Long> friendCounts = new HashMap<>();
+            friendshipRepository.countAcceptedFriendshipsAsRequester(friendIds)
+                    .forEach(row -> friendCounts.merge((Long) row[0], (Long) row[1], Long::sum));
+            friendshipRepository.countAcceptedFriendshipsAsAddressee(friendIds)
+                    .forEach(row -> friendCounts.merge((Long) row[0], (Long) row[1], Long::sum));
+            celebrityIds = friendCounts.entrySet().stream()
+                    .filter(entry -> entry.getValue() > timelineProperties.getFanoutFriendLimit())
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        }
+        buffer.setCelebrityFriendIds(celebrityIds, now);
+        return celebrityIds;
+    }
+
+    private List<TimelineItem> merge(List<TimelineItem> first, List<TimelineItem> second) {
+        TreeSet<TimelineItem> merged = new TreeSet<>(TimelineItem.NEWEST_FIRST);
+        merged.addAll(first);
+        merged.addAll(second);
+        Map<Long, TimelineItem> distinct = new LinkedHashMap<>();
+        merged.forEach(item -> distinct.putIfAbsent(item.postId(), item));
+        return new ArrayList<>(distinct.values());
+    }
+
+    record TimelineItem(Long postId, LocalDateTime createdAt) {
+        static final Comparator<TimelineItem> NEWEST_FIRST = Comparator
+                .comparing(TimelineItem::createdAt, Comparator.reverseOrder())
+                .thenComparing(TimelineItem::postId, Comparator.reverseOrder());
+    }
+
+    static class TimelineBuffer {
+        private final int capacity;
+        private final long loadedAt;
+        private final TreeSet<TimelineItem> items = new TreeSet<>(TimelineItem.NEWEST_FIRST);
+        private boolean exhaustive;
+        private long total;
+        private List<Long> celebrityFriendIds;
+        private long celebrityRefreshedAt;
+
+        TimelineBuffer(int capacity, long loadedAt) {
+            this.capacity = capacity;
+            this.loadedAt = loadedAt;
+        }
+
+        long getLoadedAt() {
+            return loadedAt;
+        }
+
+        synchronized void load(List<TimelineItem> loaded, long totalEntries) {
+            items.addAll(loaded);
+            exhaustive = loaded.size() < capacity;
+            total = totalEntries;
+            trim();
+        }
+
+        synchronized void push(TimelineItem item) {
+            if (items.add(item)) {
+                total++;
+                trim();
+            }
+        }
+
+        synchronized void remove(Long postId) {
+            if (items.removeIf(item -> item.postId().equals(postId))) {
+                total--;
+            }
+        }
+
+        synchronized List<TimelineItem> head(int window) {
+            if (window > items.size() && !exhaustive) {
+                return null;
+            }
+            return items.stream().limit(window).collect(Collectors.toList());
+        }
+
+        synchronized List<TimelineItem> after(TimelineItem position, int limit) {
+            List<TimelineItem> older = items.tailSet(position, false).stream()
+                    .limit(limit)
+                    .collect(Collectors.toList());
+            if (older.size() < limit && !exhaustive) {
+                return null;
+            }
+            return older;
+        }
+
+        synchronized long getTotal() {
+            return total;
+        }
+
+        synchronized List<Long> getCelebrityFriendIds(long now, long refreshMillis) {
+            if (celebrityFriendIds == null || now - celebrityRefreshedAt > refreshMillis) {
+                return null;
+            }
+            return celebrityFriendIds;
+        }
+
+        synchronized void setCelebrityFriendIds(List<Long> ids, long refreshedAt) {
+            this.celebrityFriendIds = ids;
+            this.celebrityRefreshedAt = refreshedAt;
+        }
+
+        void copyCelebrityFriendIds(TimelineBuffer previous) {
+            List<Long> ids;
+            long refreshedAt;
+            synchronized (previous) {
+                ids = previous.celebrityFriendIds;
+                refreshedAt = previous.celebrityRefreshedAt;
+            }
+            setCelebrityFriendIds(ids, refreshedAt);
+        }
+
+        private void trim() {
+            while (items.size() > capacity) {
+                items.pollLast();
+                exhaustive = false;
+            }
+        }
+    }
+}
@@ -5,24 +5,30 @@ import com.socialmedia.modules.post.dto.PostResponse;
 import com.socialmedia.modules.post.dto.PostSummaryResponse;
 import com.socialmedia.shared.exception.exceptions.PostNotFoundException;
 import com.socialmedia.shared.exception.exceptions.UnauthorizedPostAccessException;
+import com.socialmedia.modules.post.service.PostHydrationService;
 import com.socialmedia.modules.post.service.PostService;
-import com.socialmedia.modules.user.dto.UserSummaryResponse;
+import com.socialmedia.modules.post.service.TimelineService;
 import com.socialmedia.shared.exception.exceptions.UserNotFoundException;
 import com.socialmedia.modules.post.entity.Post;
 import com.socialmedia.modules.user.entity.User;
 import com.socialmedia.modules.post.repository.PostRepository;
-import com.socialmedia.modules.social.repository.LikeRepository;
-import com.socialmedia.modules.social.repository.CommentRepository;
 import com.socialmedia.modules.user.repository.UserRepository;
+import com.socialmedia.shared.pagination.Cursor;
+import com.socialmedia.shared.pagination.CursorPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,10 +42,10 @@ public class PostServiceImpl implements PostService {
     private UserRepository userRepository;
 
     @Autowired
-    private LikeRepository likeRepository;
+    private PostHydrationService postHydrationService;
 
     @Autowired
-    private CommentRepository commentRepository;
+    private TimelineService timelineService;
 
     @Override
     public PostResponse createPost(PostRequest postRequest, Long userId) {
@@ -54,6 +60,7 @@ public class PostServiceImpl implements PostService {
         post.setUpdatedAt(LocalDateTime.now());
 
         Post savedPost = postRepository.save(post);
+        timelineService.fanOut(savedPost);
         return convertToPostResponse(savedPost, userId);
     }
 
@@ -81,22 +88,44 @@ public class PostServiceImpl implements PostService {
     @Override
     @Transactional(readOnly = true)
     public Page<PostResponse> getFeedPosts(Long userId, Pageable pageable) {
-        Page<Post> posts = postRepository.findAllPostsOrderedByCreatedAt(pageable);
-        return posts.map(post -> convertToPostResponse(post, userId));
+        Page<Long> postIds = timelineService.getTimelinePostIds(userId, pageable);
+        List<Post> posts = findPostsInOrder(postIds.getContent());
+        List<PostResponse> content = postHydrationService.hydrate(posts, userId);
+        return new PageImpl<>(content, pageable, postIds.getTotalElements());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<PostResponse> getFeedPosts(Long userId, String cursor, int size) {
+        CursorPage<Long> postIds = timelineService.getTimelinePostIds(
+                userId, Cursor.decode(cursor), CursorPage.clampSize(size));
+        List<Post> posts = findPostsInOrder(postIds.getContent());
+        return postIds.withContent(postHydrationService.hydrate(posts, userId));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<PostResponse> getUserPosts(Long userId, Pageable pageable) {
         Page<Post> posts = postRepository.findPostsByUserIdOrderedByCreatedAt(userId, pageable);
-        return posts.map(post -> convertToPostResponse(post, null));
+        return hydratePage(posts, null);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<PostResponse> getUserPosts(Long userId, Long currentUserId, Pageable pageable) {
         Page<Post> posts = postRepository.findPostsByUserIdOrderedByCreatedAt(userId, pageable);
-        return posts.map(post -> convertToPostResponse(post, currentUserId));
+        return hydratePage(posts, currentUserId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<PostResponse> getUserPosts(Long userId, Long currentUserId, String cursor, int size) {
+        Cursor position = Cursor.decode(cursor);
+        Slice<Post> posts = postRepository.findPostsByUserIdBefore(
+                userId, position.getCreatedAt(), position.getId(), PageRequest.of(0, CursorPage.clampSize(size)));
+        return CursorPage.of(posts,
+                post -> new Cursor(post.getCreatedAt(), post.getId()),
+                content -> postHydrationService.hydrate(content, currentUserId));
     }
 
     @Override
@@ -126,6 +155,7 @@ public class PostServiceImpl implements PostService {
         }
 
         postRepository.delete(post);
+        timelineService.removePost(postId);
         return true;
     }
 
@@ -134,10 +164,7 @@ public class PostServiceImpl implements PostService {
     public List<PostSummaryResponse> getRecentPosts(int limit) {
         Pageable pageable = PageRequest.of(0, limit);
         Page<Post> posts = postRepository.findAllPostsOrderedByCreatedAt(pageable);
-        
-        return posts.getContent().stream()
-                .map(this::convertToPostSummaryResponse)
-                .collect(Collectors.toList());
+        return postHydrationService.hydrateSummaries(posts.getContent());
     }
 
     @Override
@@ -147,55 +174,23 @@ public class PostServiceImpl implements PostService {
     }
 
     private PostResponse convertToPostResponse(Post post, Long currentUserId) {
-        UserSummaryResponse userSummary = new UserSummaryResponse(
-                post.getUser().getId(),
-                post.getUser().getUsername(),
-                post.getUser().getFirstName(),
-                post.getUser().getLastName(),
-                post.getUser().getProfileImageUrl()
-        );
-
-        Long likeCount = likeRepository.countByPostId(post.getId());
-        Long commentCount = commentRepository.countByPostId(post.getId());
-        Boolean isLikedByCurrentUser = false;
-
-        if (currentUserId != null) {
-            isLikedByCurrentUser = likeRepository.existsByPostIdAndUserId(post.getId(), currentUserId);
-        }
+        return postHydrationService.hydrate(post, currentUserId);
+    }
 
-        PostResponse response = new PostResponse();
-        response.setId(post.getId());
-        response.setContent(post.getContent());
-        response.setImageUrl(post.getImageUrl());
-        response.setCreatedAt(post.getCreatedAt());
-        response.setUpdatedAt(post.getUpdatedAt());
-        response.setUser(userSummary);
-        response.setLikeCount(likeCount);
-        response.setCommentCount(commentCount);
-        response.setIsLikedByCurrentUser(isLikedByCurrentUser);
-
-        return response;
-    }
-
-    private PostSummaryResponse convertToPostSummaryResponse(Post post) {
-        UserSummaryResponse userSummary = new UserSummaryResponse(
-                post.getUser().getId(),
-                post.getUser().getUsername(),
-                post.getUser().getFirstName(),
-                post.getUser().getLastName(),
-                post.getUser().getProfileImageUrl()
-        );
-
-        return new PostSummaryResponse(
-                post.getId(),
-                post.getContent().length() > 100 ? 
-                    post.getContent().substring(0, 100) + "..." : post.getContent(),
-                post.getImageUrl(),
-                post.getCreatedAt(),
-                userSummary.getUsername(),
-                userSummary.getProfileImageUrl(),
-                likeRepository.countByPostId(post.getId()),
-                commentRepository.countByPostId(post.getId())
-        );
-    }
-} 
\ No newline at end of file
+    private Page<PostResponse> hydratePage(Page<Post> posts, Long currentUserId) {
+        List<PostResponse> content = postHydrationService.hydrate(posts.getContent(), currentUserId);
+        return new PageImpl<>(content, posts.getPageable(), posts.getTotalElements());
+    }
+
+    private List<Post> findPostsInOrder(List<Long> postIds) {
+        if (postIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Post> postsById = postRepository.findPostsWithUserByIds(postIds).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        return postIds.stream()
+                .map(postsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,19 @@
+package com.socialmedia.modules.social.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.likes.write-behind")
+@Data
+public class LikeBufferProperties {
+    
+    private boolean enabled = false;
+    
+    private int stripes = 16;
+    private long flushIntervalMs = 200;
+    private int flushThreshold = 1000;
+    private int batchSize = 500;
+    private int maxFlushAttempts = 5;
+}
@@ -0,0 +1,17 @@
+package com.socialmedia.modules.social.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.likes.bloom")
+@Data
+public class LikeFilterProperties {
+    
+    private boolean enabled = true;
+    
+    private int shards = 16;
+    private long expectedEntries = 1000000;
+    private double falsePositiveRate = 0.01;
+}
@@ -4,6 +4,7 @@ import com.socialmedia.modules.social.dto.CommentRequest;
 import com.socialmedia.modules.social.dto.CommentResponse;
 import com.socialmedia.modules.social.service.CommentService;
 import com.socialmedia.security.UserPrincipal;
+import com.socialmedia.shared.pagination.CursorPage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -286,6 +287,39 @@ public class CommentController {
         return ResponseEntity.ok(comments);
     }
 
+    @Operation(
+            summary = "Get Comments by Post (Cursor)",
+            description = "Get comments for a specific post using keyset pagination. Pass the returned nextCursor to fetch the following page.",
+            parameters = {
+                    @Parameter(name = "postId", description = "Post ID to get comments for", required = true, example = "1"),
+                    @Parameter(name = "cursor", description = "Opaque cursor from the previous page; omit for the first page"),
+                    @Parameter(name = "size", description = "Number of comments per page", example = "10")
+            }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Comments retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = CursorPage.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid cursor",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @GetMapping("/post/{postId}/cursor")
+    public ResponseEntity<CursorPage<CommentResponse>> getCommentsByPostIdByCursor(
+            @PathVariable Long postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        CursorPage<CommentResponse> comments = commentService.getCommentsByPostId(postId, cursor, size);
+        return ResponseEntity.ok(comments);
+    }
+
     @Operation(
             summary = "Get Comments by User",
             description = "Get paginated comments made by a specific user.",
@@ -16,4 +16,10 @@ public class CommentResponse {
     private LocalDateTime createdAt;
     private Long postId;
     private UserSummaryResponse user;
+
+    public CommentResponse(Long id, String content, LocalDateTime createdAt, Long postId,
+                           Long userId, String username, String firstName, String lastName, String profileImageUrl) {
+        this(id, content, createdAt, postId,
+                new UserSummaryResponse(userId, username, firstName, lastName, profileImageUrl));
+    }
 } 
\ No newline at end of file
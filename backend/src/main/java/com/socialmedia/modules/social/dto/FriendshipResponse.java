@@ -1,5 +1,6 @@
 package com.socialmedia.modules.social.dto;
 
+import com.socialmedia.modules.social.entity.Friendship;
 import com.socialmedia.modules.user.dto.UserSummaryResponse;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -16,4 +17,16 @@ public class FriendshipResponse {
     private LocalDateTime createdAt;
     private UserSummaryResponse requester;
     private UserSummaryResponse addressee;
+
+    public FriendshipResponse(Long id, Friendship.FriendshipStatus status, LocalDateTime createdAt,
+                              Long requesterId, String requesterUsername, String requesterFirstName,
+                              String requesterLastName, String requesterProfileImageUrl,
+                              Long addresseeId, String addresseeUsername, String addresseeFirstName,
+                              String addresseeLastName, String addresseeProfileImageUrl) {
+        this(id, status.toString(), createdAt,
+                new UserSummaryResponse(requesterId, requesterUsername, requesterFirstName,
+                        requesterLastName, requesterProfileImageUrl),
+                new UserSummaryResponse(addresseeId, addresseeUsername, addresseeFirstName,
+                        addresseeLastName, addresseeProfileImageUrl));
+    }
 } 
\ No newline at end of file
@@ -13,7 +13,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = {
+    @Index(name = "idx_comment_post_created", columnList = "post_id, created_at DESC, id DESC")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -1,13 +1,18 @@
 package com.socialmedia.modules.social.repository;
 
+import com.socialmedia.modules.social.dto.CommentResponse;
 import com.socialmedia.modules.social.entity.Comment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     
@@ -19,8 +24,27 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     
     Long countByPostId(Long postId);
     
+    @Query("SELECT c.id, c.post.id FROM Comment c WHERE c.id IN :ids")
+    List<Object[]> findPostIdsByIds(@Param("ids") List<Long> ids);
+    
     Long countByUserId(Long userId);
     
     @Query("SELECT c FROM Comment c WHERE c.post.id = :postId AND c.user.id = :userId")
     Page<Comment> findCommentsByPostIdAndUserId(@Param("postId") Long postId, @Param("userId") Long userId, Pageable pageable);
-} 
\ No newline at end of file
+    
+    @Query(value = "SELECT new com.socialmedia.modules.social.dto.CommentResponse(" +
+                   "c.id, c.content, c.createdAt, c.post.id, u.id, u.username, u.firstName, u.lastName, u.profileImageUrl) " +
+                   "FROM Comment c JOIN c.user u WHERE c.post.id = :postId ORDER BY c.createdAt DESC",
+           countQuery = "SELECT COUNT(c) FROM Comment c WHERE c.post.id = :postId")
+    Page<CommentResponse> findCommentResponsesByPostId(@Param("postId") Long postId, Pageable pageable);
+    
+    @Query("SELECT new com.socialmedia.modules.social.dto.CommentResponse(" +
+           "c.id, c.content, c.createdAt, c.post.id, u.id, u.username, u.firstName, u.lastName, u.profileImageUrl) " +
+           "FROM Comment c JOIN c.user u WHERE c.post.id = :postId AND " +
+           "(c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    Slice<CommentResponse> findCommentResponsesByPostIdBefore(@Param("postId") Long postId,
+                                                              @Param("createdAt") LocalDateTime createdAt,
+                                                              @Param("id") Long id,
+                                                              Pageable pageable);
+}
@@ -1,5 +1,6 @@
 package com.socialmedia.modules.social.repository;
 
+import com.socialmedia.modules.social.dto.FriendshipResponse;
 import com.socialmedia.modules.social.entity.Friendship;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -25,6 +26,34 @@ public interface FriendshipRepository extends JpaRepository<Friendship, Long> {
     @Query("SELECT f FROM Friendship f WHERE f.requester.id = :userId AND f.status = 'PENDING' ORDER BY f.createdAt DESC")
     Page<Friendship> findSentFriendRequestsByUserId(@Param("userId") Long userId, Pageable pageable);
     
+    @Query(value = "SELECT new com.socialmedia.modules.social.dto.FriendshipResponse(" +
+                   "f.id, f.status, f.createdAt, " +
+                   "r.id, r.username, r.firstName, r.lastName, r.profileImageUrl, " +
+                   "a.id, a.username, a.firstName, a.lastName, a.profileImageUrl) " +
+                   "FROM Friendship f JOIN f.requester r JOIN f.addressee a WHERE " +
+                   "(r.id = :userId OR a.id = :userId) AND f.status = 'ACCEPTED' ORDER BY f.createdAt DESC",
+           countQuery = "SELECT COUNT(f) FROM Friendship f WHERE " +
+                        "(f.requester.id = :userId OR f.addressee.id = :userId) AND f.status = 'ACCEPTED'")
+    Page<FriendshipResponse> findFriendResponsesByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query(value = "SELECT new com.socialmedia.modules.social.dto.FriendshipResponse(" +
+                   "f.id, f.status, f.createdAt, " +
+                   "r.id, r.username, r.firstName, r.lastName, r.profileImageUrl, " +
+                   "a.id, a.username, a.firstName, a.lastName, a.profileImageUrl) " +
+                   "FROM Friendship f JOIN f.requester r JOIN f.addressee a WHERE " +
+                   "a.id = :userId AND f.status = 'PENDING' ORDER BY f.createdAt DESC",
+           countQuery = "SELECT COUNT(f) FROM Friendship f WHERE f.addressee.id = :userId AND f.status = 'PENDING'")
+    Page<FriendshipResponse> findPendingRequestResponsesByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query(value = "SELECT new com.socialmedia.modules.social.dto.FriendshipResponse(" +
+                   "f.id, f.status, f.createdAt, " +
+                   "r.id, r.username, r.firstName, r.lastName, r.profileImageUrl, " +
+                   "a.id, a.username, a.firstName, a.lastName, a.profileImageUrl) " +
+                   "FROM Friendship f JOIN f.requester r JOIN f.addressee a WHERE " +
+                   "r.id = :userId AND f.status = 'PENDING' ORDER BY f.createdAt DESC",
+           countQuery = "SELECT COUNT(f) FROM Friendship f WHERE f.requester.id = :userId AND f.status = 'PENDING'")
+    Page<FriendshipResponse> findSentRequestResponsesByUserId(@Param("userId") Long userId, Pageable pageable);
+    
     @Query("SELECT f FROM Friendship f WHERE " +
            "((f.requester.id = :userId1 AND f.addressee.id = :userId2) OR " +
            "(f.requester.id = :userId2 AND f.addressee.id = :userId1))")
@@ -51,4 +80,12 @@ public interface FriendshipRepository extends JpaRepository<Friendship, Long> {
            "(f.requester.id = :currentUserId OR f.addressee.id = :currentUserId) " +
            "AND f.status = 'ACCEPTED'")
     List<Long> findFriendIdsByUserId(@Param("currentUserId") Long currentUserId);
-} 
\ No newline at end of file
+    
+    @Query("SELECT f.requester.id, COUNT(f) FROM Friendship f " +
+           "WHERE f.requester.id IN :userIds AND f.status = 'ACCEPTED' GROUP BY f.requester.id")
+    List<Object[]> countAcceptedFriendshipsAsRequester(@Param("userIds") List<Long> userIds);
+    
+    @Query("SELECT f.addressee.id, COUNT(f) FROM Friendship f " +
+           "WHERE f.addressee.id IN :userIds AND f.status = 'ACCEPTED' GROUP BY f.addressee.id")
+    List<Object[]> countAcceptedFriendshipsAsAddressee(@Param("userIds") List<Long> userIds);
+}
\ No newline at end of file
@@ -1,13 +1,16 @@
 package com.socialmedia.modules.social.repository;
 
 import com.socialmedia.modules.social.entity.Like;
+import com.socialmedia.modules.user.dto.UserSummaryResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -19,6 +22,16 @@ public interface LikeRepository extends JpaRepository<Like, Long> {
     @Query("SELECT l FROM Like l WHERE l.user.id = :userId ORDER BY l.createdAt DESC")
     Page<Like> findLikesByUserIdOrderedByCreatedAt(@Param("userId") Long userId, Pageable pageable);
     
+    @Query(value = "SELECT new com.socialmedia.modules.user.dto.UserSummaryResponse(" +
+                   "u.id, u.username, u.firstName, u.lastName, u.profileImageUrl) " +
+                   "FROM Like l JOIN l.user u WHERE l.post.id = :postId ORDER BY l.createdAt DESC",
+           countQuery = "SELECT COUNT(l) FROM Like l WHERE l.post.id = :postId")
+    Page<UserSummaryResponse> findLikerSummariesByPostId(@Param("postId") Long postId, Pageable pageable);
+    
+    @Query(value = "SELECT l.post.id FROM Like l WHERE l.user.id = :userId ORDER BY l.createdAt DESC",
+           countQuery = "SELECT COUNT(l) FROM Like l WHERE l.user.id = :userId")
+    Page<Long> findLikedPostIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+    
     Long countByPostId(Long postId);
     
     Long countByUserId(Long userId);
@@ -30,6 +43,13 @@ public interface LikeRepository extends JpaRepository<Like, Long> {
     
     void deleteByPostIdAndUserId(Long postId, Long userId);
     
+    @Modifying
+    @Query("DELETE FROM Like l WHERE l.post.id = :postId AND l.user.id = :userId")
+    int deleteLike(@Param("postId") Long postId, @Param("userId") Long userId);
+    
     @Query("SELECT COUNT(l) FROM Like l WHERE l.post.id = :postId")
     Long countLikesByPostId(@Param("postId") Long postId);
+    
+    @Query("SELECT l.post.id FROM Like l WHERE l.user.id = :userId AND l.post.id IN :postIds")
+    List<Long> findLikedPostIdsByUserId(@Param("userId") Long userId, @Param("postIds") List<Long> postIds);
 } 
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.socialmedia.modules.social.service;
 import com.socialmedia.modules.social.dto.CommentRequest;
 import com.socialmedia.modules.social.dto.CommentResponse;
 import com.socialmedia.modules.social.entity.Comment;
+import com.socialmedia.shared.pagination.CursorPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -13,6 +14,7 @@ public interface CommentService {
     CommentResponse getCommentById(Long commentId);
     Comment getCommentEntityById(Long commentId);
     Page<CommentResponse> getCommentsByPostId(Long postId, Pageable pageable);
+    CursorPage<CommentResponse> getCommentsByPostId(Long postId, String cursor, int size);
     Page<CommentResponse> getCommentsByUserId(Long userId, Pageable pageable);
     CommentResponse updateComment(Long commentId, CommentRequest commentRequest, Long userId);
     boolean deleteComment(Long commentId, Long userId);
@@ -0,0 +1,147 @@
+package com.socialmedia.modules.social.service;
+
+import com.socialmedia.config.ClusterProperties;
+import com.socialmedia.modules.social.config.LikeFilterProperties;
+import com.socialmedia.shared.bloom.CountingBloomFilter;
+import com.socialmedia.shared.metrics.MetricsSource;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LikeBloomFilter implements MetricsSource {
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final LikeFilterProperties likeFilterProperties;
+    private final ClusterProperties clusterProperties;
+    
+    private CountingBloomFilter[] shards;
+    private volatile boolean ready;
+    
+    private final AtomicLong negatives = new AtomicLong();
+    private final AtomicLong probes = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+    
+    @PostConstruct
+    void init() {
+        int count = Math.max(1, likeFilterProperties.getShards());
+        long perShard = Math.max(1, likeFilterProperties.getExpectedEntries() / count);
+        shards = new CountingBloomFilter[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new CountingBloomFilter(perShard, likeFilterProperties.getFalsePositiveRate());
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!likeFilterProperties.isEnabled()) {
+            return;
+        }
+        if (isClustered()) {
+            log.info("Clustered deployment; liked-by-user lookups go straight to the database");
+            return;
+        }
+        AtomicLong loaded = new AtomicLong();
+        jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement("SELECT post_id, user_id FROM likes");
+            statement.setFetchSize(10000);
+            return statement;
+        }, rs -> {
+            add(rs.getLong(1), rs.getLong(2));
+            loaded.incrementAndGet();
+        });
+        ready = true;
+        log.info("Loaded {} likes into the liked-by-user bloom filter", loaded.get());
+    }
+    
+    public boolean isActive() {
+        return likeFilterProperties.isEnabled() && ready && !isClustered();
+    }
+    
+    // Callers apply changes only after the like row commits, so a concurrent reader never sees a false negative
+    public void add(Long postId, Long userId) {
+        if (!likeFilterProperties.isEnabled() || isClustered()) {
+            return;
+        }
+        long hash = CountingBloomFilter.hash(postId, userId);
+        shardFor(hash).add(hash);
+    }
+    
+    public void remove(Long postId, Long userId) {
+        // Removals seen before the initial load finishes may not be in the filter yet
+        if (!ready) {
+            return;
+        }
+        long hash = CountingBloomFilter.hash(postId, userId);
+        shardFor(hash).remove(hash);
+    }
+    
+    public boolean mightContain(Long postId, Long userId) {
+        if (!isActive()) {
+            return true;
+        }
+        long hash = CountingBloomFilter.hash(postId, userId);
+        boolean result = shardFor(hash).mightContain(hash);
+        if (!result) {
+            negatives.incrementAndGet();
+        }
+        return result;
+    }
+    
+    public void recordProbes(int probed, int found) {
+        if (!isActive()) {
+            return;
+        }
+        probes.addAndGet(probed);
+        falsePositives.addAndGet(probed - found);
+    }
+    
+    @Override
+    public String getMetricsName() {
+        return "likes.bloom";
+    }
+    
+    @Override
+    public Map<String, Object> getMetrics() {
+        long entries = 0;
+        double expectedRate = 0;
+        for (CountingBloomFilter shard : shards) {
+            entries += shard.getEntries();
+            expectedRate += shard.getExpectedFalsePositiveRate();
+        }
+        long avoided = negatives.get();
+        long falsePositive = falsePositives.get();
+        
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", likeFilterProperties.isEnabled());
+        metrics.put("ready", ready);
+        metrics.put("active", isActive());
+        metrics.put("entries", entries);
+        metrics.put("dbProbesAvoided", avoided);
+        metrics.put("dbProbes", probes.get());
+        metrics.put("falsePositives", falsePositive);
+        metrics.put("observedFalsePositiveRate",
+                avoided + falsePositive == 0 ? 0.0 : (double) falsePositive / (avoided + falsePositive));
+        metrics.put("expectedFalsePositiveRate", expectedRate / shards.length);
+        return metrics;
+    }
+    
+    // Each node only sees its own writes, so a filter in one JVM would miss likes made on another
+    private boolean isClustered() {
+        return clusterProperties.isEnabled();
+    }
+    
+    private CountingBloomFilter shardFor(long hash) {
+        return shards[Math.floorMod(Long.hashCode(Long.rotateLeft(hash, 17)), shards.length)];
+    }
+}
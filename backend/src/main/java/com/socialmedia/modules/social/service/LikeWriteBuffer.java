@@ -0,0 +1,377 @@
+package com.socialmedia.modules.social.service;
+
+import com.socialmedia.modules.notification.dto.NotificationEvent;
+import com.socialmedia.modules.notification.entity.Notification;
+import com.socialmedia.modules.notification.service.NotificationEventService;
+import com.socialmedia.modules.post.repository.PostRepository;
+import com.socialmedia.modules.post.service.PostCounterService;
+import com.socialmedia.modules.social.config.LikeBufferProperties;
+import com.socialmedia.shared.metrics.MetricsSource;
+import com.socialmedia.shared.transaction.TransactionCallbacks;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LikeWriteBuffer implements MetricsSource {
+    
+    private static final String INSERT_LIKE_SQL =
+            "INSERT INTO likes (post_id, user_id, created_at) " +
+            "SELECT ?, ?, ? WHERE EXISTS (SELECT 1 FROM posts WHERE id = ?) " +
+            "ON CONFLICT (post_id, user_id) DO NOTHING";
+    
+    private static final String DELETE_LIKE_SQL =
+            "DELETE FROM likes WHERE post_id = ? AND user_id = ?";
+    
+    private static final String UPDATE_COUNT_SQL =
+            "UPDATE posts SET like_count = like_count + ? WHERE id = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LikeBufferProperties likeBufferProperties;
+    private final PostCounterService postCounterService;
+    private final LikeBloomFilter likeBloomFilter;
+    private final PostRepository postRepository;
+    private final NotificationEventService notificationEventService;
+    
+    private Stripe[] stripes;
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean flushRunning = new AtomicBoolean();
+    private final AtomicLong flushFailures = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private ExecutorService flushExecutor;
+    
+    @PostConstruct
+    void init() {
+        int size = Integer.highestOneBit(Math.max(1, likeBufferProperties.getStripes()) * 2 - 1);
+        stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        if (likeBufferProperties.isEnabled()) {
+            flushExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "like-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+    
+    public boolean isEnabled() {
+        return likeBufferProperties.isEnabled();
+    }
+    
+    public boolean like(Long postId, Long userId, BooleanSupplier persistedState) {
+        return record(postId, userId, true, persistedState);
+    }
+    
+    public boolean unlike(Long postId, Long userId, BooleanSupplier persistedState) {
+        return record(postId, userId, false, persistedState);
+    }
+    
+    public Boolean getBufferedState(Long postId, Long userId) {
+        Stripe stripe = stripeFor(postId);
+        synchronized (stripe) {
+            Intent intent = stripe.find(new LikeKey(postId, userId));
+            return intent != null ? intent.liked : null;
+        }
+    }
+    
+    public long getPendingDelta(Long postId) {
+        Stripe stripe = stripeFor(postId);
+        synchronized (stripe) {
+            return stripe.deltas.getOrDefault(postId, 0L) + stripe.flushingDeltas.getOrDefault(postId, 0L);
+        }
+    }
+    
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+    
+    @Override
+    public String getMetricsName() {
+        return "likes.write-behind";
+    }
+    
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", isEnabled());
+        metrics.put("pending", pendingCount.get());
+        metrics.put("flushFailures", flushFailures.get());
+        metrics.put("deadLettered", deadLettered.get());
+        return metrics;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.likes.write-behind.flush-interval-ms:200}")
+    public void scheduledFlush() {
+        if (isEnabled()) {
+            flush();
+        }
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+        }
+        if (isEnabled()) {
+            flush();
+        }
+    }
+    
+    public void flush() {
+        if (!flushRunning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (Stripe stripe : stripes) {
+                flushStripe(stripe);
+            }
+        } finally {
+            flushRunning.set(false);
+        }
+    }
+    
+    private boolean record(Long postId, Long userId, boolean liked, BooleanSupplier persistedState) {
+        LikeKey key = new LikeKey(postId, userId);
+        Stripe stripe = stripeFor(postId);
+        boolean changed;
+        while (true) {
+            long generation;
+            synchronized (stripe) {
+                Intent current = stripe.find(key);
+                if (current != null) {
+                    changed = apply(stripe, key, current.liked, liked);
+                    break;
+                }
+                generation = stripe.generation;
+            }
+            
+            // The database lookup runs without the stripe lock so other likers on the same stripe are not serialized behind it
+            boolean persisted = persistedState.getAsBoolean();
+            
+            synchronized (stripe) {
+                Intent current = stripe.find(key);
+                if (current == null && stripe.generation != generation) {
+                    continue; // A flush finished meanwhile, so the lookup may predate its writes
+                }
+                changed = apply(stripe, key, current != null ? current.liked : persisted, liked);
+                break;
+            }
+        }
+        if (changed && pendingCount.get() >= likeBufferProperties.getFlushThreshold() && !flushRunning.get()) {
+            flushExecutor.execute(this::flush);
+        }
+        return changed;
+    }
+    
+    // Caller holds the stripe lock
+    private boolean apply(Stripe stripe, LikeKey key, boolean currentlyLiked, boolean liked) {
+        if (currentlyLiked == liked) {
+            return false;
+        }
+        Intent pending = stripe.pending.get(key);
+        if (pending == null) {
+            stripe.pending.put(key, new Intent(liked, currentlyLiked));
+            pendingCount.incrementAndGet();
+        } else if (pending.baseline == liked) {
+            stripe.pending.remove(key);
+            pendingCount.decrementAndGet();
+        } else {
+            pending.liked = liked;
+        }
+        stripe.deltas.merge(key.postId(), liked ? 1L : -1L, LikeWriteBuffer::sumOrRemove);
+        return true;
+    }
+    
+    private void flushStripe(Stripe stripe) {
+        Map<LikeKey, Intent> batch;
+        synchronized (stripe) {
+            if (stripe.pending.isEmpty()) {
+                return;
+            }
+            batch = stripe.pending;
+            stripe.flushing = batch;
+            stripe.flushingDeltas = stripe.deltas;
+            stripe.pending = new HashMap<>();
+            stripe.deltas = new HashMap<>();
+            pendingCount.addAndGet(-batch.size());
+        }
+        
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(batch));
+            synchronized (stripe) {
+                stripe.flushing = Map.of();
+                stripe.flushingDeltas = Map.of();
+                stripe.generation++;
+            }
+        } catch (RuntimeException e) {
+            flushFailures.incrementAndGet();
+            log.error("Failed to flush {} buffered like intents", batch.size(), e);
+            List<String> dropped = new ArrayList<>();
+            synchronized (stripe) {
+                batch.forEach((key, intent) -> {
+                    Intent newer = stripe.pending.remove(key);
+                    if (newer != null) {
+                        // A toggle made during the flush assumed this write landed; together they are a no-op
+                        pendingCount.decrementAndGet();
+                        stripe.deltas.merge(key.postId(), newer.liked ? -1L : 1L, LikeWriteBuffer::sumOrRemove);
+                    } else if (++intent.attempts < likeBufferProperties.getMaxFlushAttempts()) {
+                        stripe.pending.put(key, intent);
+                        pendingCount.incrementAndGet();
+                        stripe.deltas.merge(key.postId(), intent.liked ? 1L : -1L, LikeWriteBuffer::sumOrRemove);
+                    } else {
+                        dropped.add(key.postId() + ":" + key.userId() + ":" + (intent.liked ? "like" : "unlike"));
+                    }
+                });
+                stripe.flushing = Map.of();
+                stripe.flushingDeltas = Map.of();
+                stripe.generation++;
+            }
+            if (!dropped.isEmpty()) {
+                deadLettered.addAndGet(dropped.size());
+                log.error("Dead-lettered {} like intents after {} failed flushes (postId:userId:action): {}",
+                        dropped.size(), likeBufferProperties.getMaxFlushAttempts(), dropped);
+            }
+        }
+    }
+    
+    private void write(Map<LikeKey, Intent> batch) {
+        List<LikeKey> inserts = new ArrayList<>();
+        List<LikeKey> deletes = new ArrayList<>();
+        batch.forEach((key, intent) -> (intent.liked ? inserts : deletes).add(key));
+        
+        Map<Long, Long> applied = new HashMap<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] inserted = jdbcTemplate.batchUpdate(INSERT_LIKE_SQL, inserts, likeBufferProperties.getBatchSize(),
+                (ps, key) -> {
+                    ps.setLong(1, key.postId());
+                    ps.setLong(2, key.userId());
+                    ps.setTimestamp(3, now);
+                    ps.setLong(4, key.postId());
+                });
+        List<LikeKey> likedKeys = collectApplied(inserts, inserted, 1L, applied);
+        
+        int[][] deleted = jdbcTemplate.batchUpdate(DELETE_LIKE_SQL, deletes, likeBufferProperties.getBatchSize(),
+                (ps, key) -> {
+                    ps.setLong(1, key.postId());
+                    ps.setLong(2, key.userId());
+                });
+        List<LikeKey> unlikedKeys = collectApplied(deletes, deleted, -1L, applied);
+        
+        List<Map.Entry<Long, Long>> counts = applied.entrySet().stream()
+                .filter(entry -> entry.getValue() != 0L)
+                .toList();
+        jdbcTemplate.batchUpdate(UPDATE_COUNT_SQL, counts, likeBufferProperties.getBatchSize(),
+                (ps, entry) -> {
+                    ps.setLong(1, entry.getValue());
+                    ps.setLong(2, entry.getKey());
+                });
+        postCounterService.markTouched(applied.keySet());
+        postCounterService.evict(applied.keySet());
+        publishNotifications(likedKeys, unlikedKeys, applied.keySet());
+        
+        // Runs before the stripe drops its flushing view, so reads never fall through to a stale filter
+        TransactionCallbacks.afterCommit(() -> {
+            likedKeys.forEach(key -> likeBloomFilter.add(key.postId(), key.userId()));
+            unlikedKeys.forEach(key -> likeBloomFilter.remove(key.postId(), key.userId()));
+        });
+    }
+    
+    // Queued in the flush transaction, so a like that never reaches the table never notifies anyone
+    private void publishNotifications(List<LikeKey> likedKeys, List<LikeKey> unlikedKeys, Collection<Long> postIds) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> authors = new HashMap<>();
+        postRepository.findAuthorIdsByIds(postIds)
+                .forEach(row -> authors.put((Long) row[0], (Long) row[1]));
+        List<NotificationEvent> events = new ArrayList<>();
+        for (LikeKey key : likedKeys) {
+            Long authorId = authors.get(key.postId());
+            if (authorId != null) {
+                events.add(NotificationEvent.create(authorId, key.userId(), Notification.NotificationType.LIKE, key.postId()));
+            }
+        }
+        for (LikeKey key : unlikedKeys) {
+            Long authorId = authors.get(key.postId());
+            if (authorId != null) {
+                events.add(NotificationEvent.remove(authorId, key.userId(), Notification.NotificationType.LIKE, key.postId()));
+            }
+        }
+        notificationEventService.publishAll(events);
+    }
+    
+    private List<LikeKey> collectApplied(List<LikeKey> keys, int[][] results, long sign, Map<Long, Long> applied) {
+        List<LikeKey> changed = new ArrayList<>();
+        int index = 0;
+        for (int[] batchResult : results) {
+            for (int rows : batchResult) {
+                LikeKey key = keys.get(index++);
+                if (rows > 0) {
+                    applied.merge(key.postId(), sign * rows, Long::sum);
+                    changed.add(key);
+                }
+            }
+        }
+        return changed;
+    }
+    
+    private static Long sumOrRemove(Long a, Long b) {
+        return a + b == 0L ? null : a + b;
+    }
+    
+    private Stripe stripeFor(Long postId) {
+        return stripes[Long.hashCode(postId) & (stripes.length - 1)];
+    }
+    
+    private record LikeKey(Long postId, Long userId) {
+    }
+    
+    private static final class Intent {
+        private boolean liked;
+        private final boolean baseline;
+        private int attempts;
+        
+        private Intent(boolean liked, boolean baseline) {
+            this.liked = liked;
+            this.baseline = baseline;
+        }
+    }
+    
+    private static final class Stripe {
+        private Map<LikeKey, Intent> pending = new HashMap<>();
+        private Map<Long, Long> deltas = new HashMap<>();
+        private Map<LikeKey, Intent> flushing = Map.of();
+        private Map<Long, Long> flushingDeltas = Map.of();
+        private long generation;
+        
+        private Intent find(LikeKey key) {
+            Intent intent = pending.get(key);
+            return intent != null ? intent : flushing.get(key);
+        }
+    }
+}
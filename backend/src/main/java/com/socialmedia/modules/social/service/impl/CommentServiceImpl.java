@@ -1,5 +1,6 @@
 package com.socialmedia.modules.social.service.impl;
 
+import com.socialmedia.modules.notification.service.NotificationEventService;
 import com.socialmedia.modules.social.dto.CommentRequest;
 import com.socialmedia.modules.social.dto.CommentResponse;
 import com.socialmedia.shared.exception.exceptions.CommentNotFoundException;
@@ -13,17 +14,21 @@ import com.socialmedia.modules.post.entity.Post;
 import com.socialmedia.modules.user.entity.User;
 import com.socialmedia.modules.social.repository.CommentRepository;
 import com.socialmedia.modules.post.repository.PostRepository;
+import com.socialmedia.modules.post.service.PostCounterService;
 import com.socialmedia.modules.user.repository.UserRepository;
+import com.socialmedia.modules.user.service.UserSummaryCache;
+import com.socialmedia.shared.pagination.Cursor;
+import com.socialmedia.shared.pagination.CursorPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -35,9 +40,18 @@ public class CommentServiceImpl implements CommentService {
     @Autowired
     private PostRepository postRepository;
 
+    @Autowired
+    private PostCounterService postCounterService;
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserSummaryCache userSummaryCache;
+
+    @Autowired
+    private NotificationEventService notificationEventService;
+
     @Override
     public CommentResponse createComment(CommentRequest commentRequest, Long userId) {
         User user = userRepository.findById(userId)
@@ -53,6 +67,8 @@ public class CommentServiceImpl implements CommentService {
         comment.setCreatedAt(LocalDateTime.now());
 
         Comment savedComment = commentRepository.save(comment);
+        postCounterService.incrementCommentCount(post.getId(), 1);
+        notificationEventService.createCommentNotification(post.getUser().getId(), userId, post.getId());
         return convertToCommentResponse(savedComment);
     }
 
@@ -73,8 +89,18 @@ public class CommentServiceImpl implements CommentService {
     @Override
     @Transactional(readOnly = true)
     public Page<CommentResponse> getCommentsByPostId(Long postId, Pageable pageable) {
-        Page<Comment> comments = commentRepository.findCommentsByPostIdOrderedByCreatedAt(postId, pageable);
-        return comments.map(this::convertToCommentResponse);
+        return commentRepository.findCommentResponsesByPostId(postId, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<CommentResponse> getCommentsByPostId(Long postId, String cursor, int size) {
+        Cursor position = Cursor.decode(cursor);
+        Slice<CommentResponse> comments = commentRepository.findCommentResponsesByPostIdBefore(
+                postId, position.getCreatedAt(), position.getId(), PageRequest.of(0, CursorPage.clampSize(size)));
+        return CursorPage.of(comments,
+                comment -> new Cursor(comment.getCreatedAt(), comment.getId()),
+                content -> content);
     }
 
     @Override
@@ -106,13 +132,14 @@ public class CommentServiceImpl implements CommentService {
         }
 
         commentRepository.delete(comment);
+        postCounterService.incrementCommentCount(comment.getPost().getId(), -1);
         return true;
     }
 
     @Override
     @Transactional(readOnly = true)
     public Long getCommentCountByPostId(Long postId) {
-        return commentRepository.countByPostId(postId);
+        return postRepository.findCommentCountById(postId).orElse(0L);
     }
 
     @Override
@@ -125,21 +152,11 @@ public class CommentServiceImpl implements CommentService {
     @Transactional(readOnly = true)
     public List<CommentResponse> getRecentCommentsByPostId(Long postId, int limit) {
         Pageable pageable = PageRequest.of(0, limit);
-        Page<Comment> comments = commentRepository.findCommentsByPostIdOrderedByCreatedAt(postId, pageable);
-        
-        return comments.getContent().stream()
-                .map(this::convertToCommentResponse)
-                .collect(Collectors.toList());
+        return commentRepository.findCommentResponsesByPostId(postId, pageable).getContent();
     }
 
     private CommentResponse convertToCommentResponse(Comment comment) {
-        UserSummaryResponse userSummary = new UserSummaryResponse(
-                comment.getUser().getId(),
-                comment.getUser().getUsername(),
-                comment.getUser().getFirstName(),
-                comment.getUser().getLastName(),
-                comment.getUser().getProfileImageUrl()
-        );
+        UserSummaryResponse userSummary = userSummaryCache.summarize(comment.getUser());
 
         return new CommentResponse(
                 comment.getId(),
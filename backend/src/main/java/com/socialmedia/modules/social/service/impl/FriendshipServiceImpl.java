@@ -1,5 +1,7 @@
 package com.socialmedia.modules.social.service.impl;
 
+import com.socialmedia.modules.notification.service.NotificationEventService;
+import com.socialmedia.modules.post.service.TimelineService;
 import com.socialmedia.modules.social.dto.FriendshipRequest;
 import com.socialmedia.modules.social.dto.FriendshipResponse;
 import com.socialmedia.shared.exception.exceptions.FriendshipNotFoundException;
@@ -12,6 +14,8 @@ import com.socialmedia.modules.user.entity.User;
 import com.socialmedia.shared.exception.exceptions.UserNotFoundException;
 import com.socialmedia.modules.social.repository.FriendshipRepository;
 import com.socialmedia.modules.user.repository.UserRepository;
+import com.socialmedia.modules.user.service.UserSummaryCache;
+import com.socialmedia.shared.transaction.TransactionCallbacks;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -31,6 +35,15 @@ public class FriendshipServiceImpl implements FriendshipService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserSummaryCache userSummaryCache;
+
+    @Autowired
+    private NotificationEventService notificationEventService;
+
+    @Autowired
+    private TimelineService timelineService;
+
     @Override
     public FriendshipResponse sendFriendRequest(FriendshipRequest friendshipRequest, Long requesterId) {
         if (requesterId.equals(friendshipRequest.getAddresseeId())) {
@@ -50,6 +63,7 @@ public class FriendshipServiceImpl implements FriendshipService {
 
         Friendship friendship = new Friendship(requester, addressee);
         Friendship savedFriendship = friendshipRepository.save(friendship);
+        notificationEventService.createFriendRequestNotification(addressee.getId(), requesterId);
         return convertToFriendshipResponse(savedFriendship);
     }
 
@@ -67,6 +81,10 @@ public class FriendshipServiceImpl implements FriendshipService {
 
         friendship.setStatus(Friendship.FriendshipStatus.ACCEPTED);
         Friendship updatedFriendship = friendshipRepository.save(friendship);
+        Long requesterId = friendship.getRequester().getId();
+        notificationEventService.removeFriendRequestNotification(userId, requesterId);
+        notificationEventService.createFriendAcceptedNotification(requesterId, userId);
+        TransactionCallbacks.afterCommit(() -> timelineService.connect(requesterId, userId));
         return convertToFriendshipResponse(updatedFriendship);
     }
 
@@ -84,6 +102,7 @@ public class FriendshipServiceImpl implements FriendshipService {
 
         friendship.setStatus(Friendship.FriendshipStatus.DECLINED);
         Friendship updatedFriendship = friendshipRepository.save(friendship);
+        notificationEventService.removeFriendRequestNotification(userId, friendship.getRequester().getId());
         return convertToFriendshipResponse(updatedFriendship);
     }
 
@@ -97,6 +116,7 @@ public class FriendshipServiceImpl implements FriendshipService {
         }
 
         friendshipRepository.delete(friendship);
+        disconnectTimelines(friendship);
         return true;
     }
 
@@ -105,6 +125,7 @@ public class FriendshipServiceImpl implements FriendshipService {
         Optional<Friendship> friendship = friendshipRepository.findFriendshipBetweenUsers(userId, friendId);
         if (friendship.isPresent() && friendship.get().getStatus() == Friendship.FriendshipStatus.ACCEPTED) {
             friendshipRepository.delete(friendship.get());
+            disconnectTimelines(friendship.get());
             return true;
         }
         throw new FriendshipNotFoundException(userId, friendId);
@@ -127,22 +148,19 @@ public class FriendshipServiceImpl implements FriendshipService {
     @Override
     @Transactional(readOnly = true)
     public Page<FriendshipResponse> getFriends(Long userId, Pageable pageable) {
-        Page<Friendship> friendships = friendshipRepository.findAcceptedFriendshipsByUserId(userId, pageable);
-        return friendships.map(this::convertToFriendshipResponse);
+        return friendshipRepository.findFriendResponsesByUserId(userId, pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<FriendshipResponse> getPendingFriendRequests(Long userId, Pageable pageable) {
-        Page<Friendship> friendships = friendshipRepository.findPendingFriendRequestsByUserId(userId, pageable);
-        return friendships.map(this::convertToFriendshipResponse);
+        return friendshipRepository.findPendingRequestResponsesByUserId(userId, pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<FriendshipResponse> getSentFriendRequests(Long userId, Pageable pageable) {
-        Page<Friendship> friendships = friendshipRepository.findSentFriendRequestsByUserId(userId, pageable);
-        return friendships.map(this::convertToFriendshipResponse);
+        return friendshipRepository.findSentRequestResponsesByUserId(userId, pageable);
     }
 
     @Override
@@ -183,22 +201,19 @@ public class FriendshipServiceImpl implements FriendshipService {
         return friendship.map(f -> f.getStatus().toString()).orElse("NONE");
     }
 
-    private FriendshipResponse convertToFriendshipResponse(Friendship friendship) {
-        UserSummaryResponse requesterSummary = new UserSummaryResponse(
-                friendship.getRequester().getId(),
-                friendship.getRequester().getUsername(),
-                friendship.getRequester().getFirstName(),
-                friendship.getRequester().getLastName(),
-                friendship.getRequester().getProfileImageUrl()
-        );
+    // Pending or declined requests never reached the timelines, so only accepted friendships need pruning
+    private void disconnectTimelines(Friendship friendship) {
+        if (friendship.getStatus() != Friendship.FriendshipStatus.ACCEPTED) {
+            return;
+        }
+        Long requesterId = friendship.getRequester().getId();
+        Long addresseeId = friendship.getAddressee().getId();
+        TransactionCallbacks.afterCommit(() -> timelineService.disconnect(requesterId, addresseeId));
+    }
 
-        UserSummaryResponse addresseeSummary = new UserSummaryResponse(
-                friendship.getAddressee().getId(),
-                friendship.getAddressee().getUsername(),
-                friendship.getAddressee().getFirstName(),
-                friendship.getAddressee().getLastName(),
-                friendship.getAddressee().getProfileImageUrl()
-        );
+    private FriendshipResponse convertToFriendshipResponse(Friendship friendship) {
+        UserSummaryResponse requesterSummary = userSummaryCache.summarize(friendship.getRequester());
+        UserSummaryResponse addresseeSummary = userSummaryCache.summarize(friendship.getAddressee());
 
         return new FriendshipResponse(
                 friendship.getId(),
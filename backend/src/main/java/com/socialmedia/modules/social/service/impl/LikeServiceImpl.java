@@ -1,6 +1,9 @@
 package com.socialmedia.modules.social.service.impl;
 
+import com.socialmedia.modules.notification.service.NotificationEventService;
+import com.socialmedia.modules.social.service.LikeBloomFilter;
 import com.socialmedia.modules.social.service.LikeService;
+import com.socialmedia.modules.social.service.LikeWriteBuffer;
 import com.socialmedia.modules.user.dto.UserSummaryResponse;
 import com.socialmedia.shared.exception.exceptions.UserNotFoundException;
 import com.socialmedia.shared.exception.exceptions.PostNotFoundException;
@@ -9,7 +12,9 @@ import com.socialmedia.modules.post.entity.Post;
 import com.socialmedia.modules.user.entity.User;
 import com.socialmedia.modules.social.repository.LikeRepository;
 import com.socialmedia.modules.post.repository.PostRepository;
+import com.socialmedia.modules.post.service.PostCounterService;
 import com.socialmedia.modules.user.repository.UserRepository;
+import com.socialmedia.shared.transaction.TransactionCallbacks;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -19,8 +24,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -32,13 +35,34 @@ public class LikeServiceImpl implements LikeService {
     @Autowired
     private PostRepository postRepository;
 
+    @Autowired
+    private PostCounterService postCounterService;
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LikeWriteBuffer likeWriteBuffer;
+
+    @Autowired
+    private LikeBloomFilter likeBloomFilter;
+
+    @Autowired
+    private NotificationEventService notificationEventService;
+
     @Override
     public boolean likePost(Long postId, Long userId) {
-        // Check if already liked
-        if (isPostLikedByUser(postId, userId)) {
+        if (likeWriteBuffer.isEnabled()) {
+            if (postRepository.findAuthorIdById(postId).isEmpty()) {
+                throw new PostNotFoundException(postId);
+            }
+            // The like notification is queued by the buffer's flush, once the like row exists
+            return likeWriteBuffer.like(postId, userId,
+                    () -> likeRepository.existsByPostIdAndUserId(postId, userId));
+        }
+
+        // Check if already liked; writes ask the database, the bloom filter may lag behind other transactions
+        if (likeRepository.existsByPostIdAndUserId(postId, userId)) {
             return false; // Already liked
         }
 
@@ -54,29 +78,58 @@ public class LikeServiceImpl implements LikeService {
         like.setCreatedAt(LocalDateTime.now());
 
         likeRepository.save(like);
+        postCounterService.incrementLikeCount(postId, 1);
+        TransactionCallbacks.afterCommit(() -> likeBloomFilter.add(postId, userId));
+        notificationEventService.createLikeNotification(post.getUser().getId(), userId, postId);
         return true;
     }
 
     @Override
     public boolean unlikePost(Long postId, Long userId) {
-        Optional<Like> existingLike = likeRepository.findByPostIdAndUserId(postId, userId);
-        if (existingLike.isPresent()) {
-            likeRepository.delete(existingLike.get());
+        if (likeWriteBuffer.isEnabled()) {
+            return likeWriteBuffer.unlike(postId, userId,
+                    () -> likeRepository.existsByPostIdAndUserId(postId, userId));
+        }
+
+        int deleted = likeRepository.deleteLike(postId, userId);
+        if (deleted > 0) {
+            postCounterService.incrementLikeCount(postId, -deleted);
+            TransactionCallbacks.afterCommit(() -> likeBloomFilter.remove(postId, userId));
+            removeLikeNotification(postId, userId);
             return true;
         }
         return false; // Not liked
     }
 
+    private void removeLikeNotification(Long postId, Long userId) {
+        postRepository.findAuthorIdById(postId)
+                .ifPresent(authorId -> notificationEventService.removeLikeNotification(authorId, userId, postId));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public boolean isPostLikedByUser(Long postId, Long userId) {
-        return likeRepository.existsByPostIdAndUserId(postId, userId);
+        Boolean buffered = likeWriteBuffer.isEnabled() ? likeWriteBuffer.getBufferedState(postId, userId) : null;
+        if (buffered != null) {
+            return buffered;
+        }
+        return existsLike(postId, userId);
+    }
+
+    private boolean existsLike(Long postId, Long userId) {
+        if (!likeBloomFilter.mightContain(postId, userId)) {
+            return false;
+        }
+        boolean exists = likeRepository.existsByPostIdAndUserId(postId, userId);
+        likeBloomFilter.recordProbes(1, exists ? 1 : 0);
+        return exists;
     }
 
     @Override
     @Transactional(readOnly = true)
     public Long getLikeCountByPostId(Long postId) {
-        return likeRepository.countByPostId(postId);
+        Long count = postRepository.findLikeCountById(postId).orElse(0L);
+        return likeWriteBuffer.isEnabled() ? count + likeWriteBuffer.getPendingDelta(postId) : count;
     }
 
     @Override
@@ -88,37 +141,19 @@ public class LikeServiceImpl implements LikeService {
     @Override
     @Transactional(readOnly = true)
     public Page<UserSummaryResponse> getUsersWhoLikedPost(Long postId, Pageable pageable) {
-        Page<Like> likes = likeRepository.findLikesByPostIdOrderedByCreatedAt(postId, pageable);
-        return likes.map(like -> new UserSummaryResponse(
-                like.getUser().getId(),
-                like.getUser().getUsername(),
-                like.getUser().getFirstName(),
-                like.getUser().getLastName(),
-                like.getUser().getProfileImageUrl()
-        ));
+        return likeRepository.findLikerSummariesByPostId(postId, pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<Long> getPostsLikedByUser(Long userId, Pageable pageable) {
-        Page<Like> likes = likeRepository.findLikesByUserIdOrderedByCreatedAt(userId, pageable);
-        return likes.map(like -> like.getPost().getId());
+        return likeRepository.findLikedPostIdsByUserId(userId, pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<UserSummaryResponse> getRecentLikersForPost(Long postId, int limit) {
         Pageable pageable = PageRequest.of(0, limit);
-        Page<Like> likes = likeRepository.findLikesByPostIdOrderedByCreatedAt(postId, pageable);
-        
-        return likes.getContent().stream()
-                .map(like -> new UserSummaryResponse(
-                        like.getUser().getId(),
-                        like.getUser().getUsername(),
-                        like.getUser().getFirstName(),
-                        like.getUser().getLastName(),
-                        like.getUser().getProfileImageUrl()
-                ))
-                .collect(Collectors.toList());
+        return likeRepository.findLikerSummariesByPostId(postId, pageable).getContent();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.socialmedia.modules.user.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.cache.user-summary")
+@Data
+public class UserCacheProperties {
+    
+    private int maximumSize = 10000;
+    private long ttlSeconds = 300;
+}
@@ -0,0 +1,113 @@
+package com.socialmedia.modules.user.service;
+
+import com.socialmedia.modules.user.config.UserCacheProperties;
+import com.socialmedia.modules.user.dto.UserSummaryResponse;
+import com.socialmedia.modules.user.entity.User;
+import com.socialmedia.modules.user.repository.UserRepository;
+import com.socialmedia.shared.cache.LocalCache;
+import com.socialmedia.shared.metrics.MetricsSource;
+import com.socialmedia.shared.transaction.TransactionCallbacks;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class UserSummaryCache implements MetricsSource {
+    
+    private final UserRepository userRepository;
+    private final UserCacheProperties userCacheProperties;
+    
+    private LocalCache<Long, UserSummaryResponse> cache;
+    
+    @PostConstruct
+    void init() {
+        cache = new LocalCache<>(userCacheProperties.getMaximumSize(),
+                Duration.ofSeconds(userCacheProperties.getTtlSeconds()));
+    }
+    
+    public UserSummaryResponse get(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        return cache.get(userId, id -> userRepository.findById(id).map(UserSummaryCache::toSummary).orElse(null));
+    }
+    
+    public Map<Long, UserSummaryResponse> getAll(Collection<Long> userIds) {
+        return cache.getAll(userIds, missing -> userRepository.findUsersByIds(new ArrayList<>(missing)).stream()
+                .collect(Collectors.toMap(User::getId, UserSummaryCache::toSummary)));
+    }
+    
+    public UserSummaryResponse summarize(User user) {
+        if (user == null) {
+            return null;
+        }
+        if (!Hibernate.isInitialized(user)) {
+            return get(user.getId());
+        }
+        UserSummaryResponse summary = toSummary(user);
+        cache.put(user.getId(), summary);
+        return summary;
+    }
+    
+    public <T> Map<Long, UserSummaryResponse> summarizeAll(Collection<T> items, Function<T, User> userExtractor) {
+        Map<Long, UserSummaryResponse> summaries = new HashMap<>();
+        List<Long> uninitialized = new ArrayList<>();
+        for (T item : items) {
+            User user = userExtractor.apply(item);
+            if (user == null || summaries.containsKey(user.getId())) {
+                continue;
+            }
+            if (Hibernate.isInitialized(user)) {
+                summaries.put(user.getId(), summarize(user));
+            } else {
+                uninitialized.add(user.getId());
+            }
+        }
+        if (!uninitialized.isEmpty()) {
+            summaries.putAll(getAll(uninitialized));
+        }
+        return summaries;
+    }
+    
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+        TransactionCallbacks.afterCompletion(() -> cache.invalidate(userId));
+    }
+    
+    @Scheduled(fixedDelayString = "${app.cache.user-summary.cleanup-interval-ms:60000}")
+    public void cleanUp() {
+        cache.cleanUp();
+    }
+    
+    @Override
+    public String getMetricsName() {
+        return "cache.userSummary";
+    }
+    
+    @Override
+    public Map<String, Object> getMetrics() {
+        return cache.stats();
+    }
+    
+    private static UserSummaryResponse toSummary(User user) {
+        return new UserSummaryResponse(
+                user.getId(),
+                user.getUsername(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getProfileImageUrl()
+        );
+    }
+}
@@ -7,6 +7,7 @@ import com.socialmedia.modules.user.dto.UserUpdateRequest;
 import com.socialmedia.shared.exception.exceptions.UserAlreadyExistsException;
 import com.socialmedia.shared.exception.exceptions.UserNotFoundException;
 import com.socialmedia.modules.user.service.UserService;
+import com.socialmedia.modules.user.service.UserSummaryCache;
 import com.socialmedia.modules.user.entity.User;
 import com.socialmedia.modules.user.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +17,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,6 +31,9 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserSummaryCache userSummaryCache;
+
     @Override
     public User registerUser(RegisterRequest registerRequest) {
         if (existsByUsername(registerRequest.getUsername())) {
@@ -118,6 +124,7 @@ public class UserServiceImpl implements UserService {
         }
         
         User savedUser = userRepository.save(user);
+        userSummaryCache.invalidate(savedUser.getId());
         return getUserProfile(savedUser.getId());
     }
 
@@ -130,15 +137,11 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public List<UserSummaryResponse> getUsersByIds(List<Long> ids) {
-        List<User> users = userRepository.findAllById(ids);
-        return users.stream()
-                .map(user -> new UserSummaryResponse(
-                        user.getId(),
-                        user.getUsername(),
-                        user.getFirstName(),
-                        user.getLastName(),
-                        user.getProfileImageUrl()
-                ))
+        Map<Long, UserSummaryResponse> summaries = userSummaryCache.getAll(ids);
+        return ids.stream()
+                .distinct()
+                .map(summaries::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
@@ -148,6 +151,7 @@ public class UserServiceImpl implements UserService {
             User user = getUserById(userId);
             user.setActive(false);
             userRepository.save(user);
+            userSummaryCache.invalidate(userId);
             return true;
         } catch (UserNotFoundException e) {
             return false;
@@ -0,0 +1,77 @@
+package com.socialmedia.shared.bloom;
+
+public class CountingBloomFilter {
+    
+    private static final int MAX_COUNT = 0xFF;
+    
+    private final byte[] counters;
+    private final int hashFunctions;
+    private long entries;
+    
+    public CountingBloomFilter(long expectedEntries, double falsePositiveRate) {
+        long size = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.counters = new byte[(int) Math.max(64, Math.min(size, Integer.MAX_VALUE - 8))];
+        this.hashFunctions = Math.max(1, (int) Math.round((double) counters.length / expectedEntries * Math.log(2)));
+    }
+    
+    public synchronized void add(long hash) {
+        for (int i = 0; i < hashFunctions; i++) {
+            int index = index(hash, i);
+            int count = counters[index] & 0xFF;
+            if (count < MAX_COUNT) {
+                counters[index] = (byte) (count + 1);
+            }
+        }
+        entries++;
+    }
+    
+    public synchronized void remove(long hash) {
+        if (!mightContain(hash)) {
+            return;
+        }
+        for (int i = 0; i < hashFunctions; i++) {
+            int index = index(hash, i);
+            int count = counters[index] & 0xFF;
+            // Saturated counters have lost their exact value and must stay set
+            if (count > 0 && count < MAX_COUNT) {
+                counters[index] = (byte) (count - 1);
+            }
+        }
+        entries--;
+    }
+    
+    public synchronized boolean mightContain(long hash) {
+        for (int i = 0; i < hashFunctions; i++) {
+            if (counters[index(hash, i)] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public synchronized long getEntries() {
+        return entries;
+    }
+    
+    public synchronized double getExpectedFalsePositiveRate() {
+        double filled = 1 - Math.exp(-(double) hashFunctions * Math.max(0, entries) / counters.length);
+        return Math.pow(filled, hashFunctions);
+    }
+    
+    private int index(long hash, int i) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int combined = h1 + i * h2;
+        return (combined & Integer.MAX_VALUE) % counters.length;
+    }
+    
+    public static long hash(long a, long b) {
+        return mix(mix(a) ^ (b * 0x9E3779B97F4A7C15L));
+    }
+    
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+}
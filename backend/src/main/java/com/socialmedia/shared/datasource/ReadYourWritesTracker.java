@@ -0,0 +1,58 @@
+package com.socialmedia.shared.datasource;
+
+import com.socialmedia.security.UserPrincipal;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ReadYourWritesTracker {
+    
+    private final long stickyMillis;
+    private final Map<Long, Long> stickyUntil = new ConcurrentHashMap<>();
+    
+    public ReadYourWritesTracker(long stickySeconds) {
+        this.stickyMillis = stickySeconds * 1000;
+    }
+    
+    public void markWrite() {
+        Long userId = currentUserId();
+        if (userId != null) {
+            stickyUntil.put(userId, System.currentTimeMillis() + stickyMillis);
+        }
+    }
+    
+    public boolean isSticky() {
+        Long userId = currentUserId();
+        if (userId == null) {
+            return false;
+        }
+        Long until = stickyUntil.get(userId);
+        if (until == null) {
+            return false;
+        }
+        if (until < System.currentTimeMillis()) {
+            stickyUntil.remove(userId, until);
+            return false;
+        }
+        return true;
+    }
+    
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        stickyUntil.values().removeIf(until -> until < now);
+    }
+    
+    public int getStickyUsers() {
+        return stickyUntil.size();
+    }
+    
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getId();
+        }
+        return null;
+    }
+}
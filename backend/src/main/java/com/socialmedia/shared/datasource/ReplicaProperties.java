@@ -0,0 +1,23 @@
+package com.socialmedia.shared.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.datasource.replica")
+@Data
+public class ReplicaProperties {
+    
+    private boolean enabled = false;
+    
+    private String url;
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+    
+    private long maxLagMs = 1000;
+    private long lagCheckIntervalMs = 2000;
+    
+    private long stickySeconds = 5;
+}
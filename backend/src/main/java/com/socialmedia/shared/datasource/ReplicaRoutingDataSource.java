@@ -0,0 +1,209 @@
+package com.socialmedia.shared.datasource;
+
+import com.socialmedia.shared.metrics.MetricsSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements MetricsSource {
+    
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+    
+    private static final String LAG_SQL =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() " +
+            "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+    
+    private static final Set<String> READ_KEYWORDS = Set.of("SELECT", "SHOW", "SET", "EXPLAIN", "VALUES", "");
+    
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final long maxLagMs;
+    
+    private volatile boolean replicaAvailable = true;
+    private volatile long replicaLagMs;
+    
+    private final AtomicLong primaryRoutes = new AtomicLong();
+    private final AtomicLong replicaRoutes = new AtomicLong();
+    private final AtomicLong lagFallbacks = new AtomicLong();
+    private final AtomicLong stickyFallbacks = new AtomicLong();
+    
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica,
+                                    ReadYourWritesTracker readYourWritesTracker, long maxLagMs) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replica);
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.maxLagMs = maxLagMs;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            primaryRoutes.incrementAndGet();
+            return Route.PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryRoutes.incrementAndGet();
+            return Route.PRIMARY;
+        }
+        if (!replicaAvailable) {
+            lagFallbacks.incrementAndGet();
+            primaryRoutes.incrementAndGet();
+            return Route.PRIMARY;
+        }
+        if (readYourWritesTracker.isSticky()) {
+            stickyFallbacks.incrementAndGet();
+            primaryRoutes.incrementAndGet();
+            return Route.PRIMARY;
+        }
+        replicaRoutes.incrementAndGet();
+        return Route.REPLICA;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return trackWrites(super.getConnection());
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return trackWrites(super.getConnection(username, password));
+    }
+    
+    // Only a statement that modifies data makes the user sticky, and only once its transaction commits;
+    // read-write transactions that merely read, or roll back, keep the user on the replica
+    private Connection trackWrites(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    if (name.equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    if ((name.equals("prepareStatement") || name.equals("prepareCall"))
+                            && args != null && args[0] instanceof String sql) {
+                        onStatement(sql);
+                    }
+                    Object result = invoke(connection, method, args);
+                    if (name.equals("createStatement") && result instanceof Statement statement) {
+                        return trackWrites(statement);
+                    }
+                    return result;
+                });
+    }
+    
+    private Statement trackWrites(Statement statement) {
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{Statement.class},
+                (proxy, method, args) -> {
+                    if ((method.getName().startsWith("execute") || method.getName().equals("addBatch"))
+                            && args != null && args.length > 0 && args[0] instanceof String sql) {
+                        onStatement(sql);
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+    
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+    
+    private void onStatement(String sql) {
+        if (!isWrite(sql)) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            readYourWritesTracker.markWrite();
+            return;
+        }
+        // Synchronizations are per transaction (suspended around REQUIRES_NEW), so this registers once per transaction
+        boolean registered = TransactionSynchronizationManager.getSynchronizations().stream()
+                .anyMatch(MarkWriteOnCommit.class::isInstance);
+        if (!registered) {
+            TransactionSynchronizationManager.registerSynchronization(new MarkWriteOnCommit());
+        }
+    }
+    
+    private class MarkWriteOnCommit implements TransactionSynchronization {
+        @Override
+        public void afterCommit() {
+            readYourWritesTracker.markWrite();
+        }
+    }
+    
+    // Anything but a plain query counts: SELECT (including FOR UPDATE and advisory locks) and SHOW/SET/EXPLAIN do not
+    static boolean isWrite(String sql) {
+        String statement = sql.stripLeading();
+        while (statement.startsWith("/*") && statement.contains("*/")) {
+            statement = statement.substring(statement.indexOf("*/") + 2).stripLeading();
+        }
+        int end = 0;
+        while (end < statement.length() && Character.isLetter(statement.charAt(end))) {
+            end++;
+        }
+        String keyword = statement.substring(0, end).toUpperCase(Locale.ROOT);
+        return !READ_KEYWORDS.contains(keyword);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:2000}")
+    public void checkReplicaLag() {
+        try {
+            Double lag = replicaJdbcTemplate.queryForObject(LAG_SQL, Double.class);
+            replicaLagMs = lag != null ? lag.longValue() : 0L;
+            boolean available = replicaLagMs <= maxLagMs;
+            if (available != replicaAvailable) {
+                log.warn("Replica {} (lag {} ms)", available ? "back in rotation" : "taken out of rotation", replicaLagMs);
+            }
+            replicaAvailable = available;
+        } catch (RuntimeException e) {
+            if (replicaAvailable) {
+                log.warn("Replica health check failed, routing reads to primary: {}", e.getMessage());
+            }
+            replicaAvailable = false;
+        }
+        readYourWritesTracker.purgeExpired();
+    }
+    
+    @Override
+    public String getMetricsName() {
+        return "datasource.routing";
+    }
+    
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("replicaAvailable", replicaAvailable);
+        metrics.put("replicaLagMs", replicaLagMs);
+        metrics.put("primaryRoutes", primaryRoutes.get());
+        metrics.put("replicaRoutes", replicaRoutes.get());
+        metrics.put("lagFallbacks", lagFallbacks.get());
+        metrics.put("stickyFallbacks", stickyFallbacks.get());
+        metrics.put("stickyUsers", readYourWritesTracker.getStickyUsers());
+        return metrics;
+    }
+}
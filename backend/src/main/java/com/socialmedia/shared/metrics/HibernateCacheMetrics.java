@@ -0,0 +1,64 @@
+package com.socialmedia.shared.metrics;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class HibernateCacheMetrics implements MetricsSource {
+    
+    private final EntityManagerFactory entityManagerFactory;
+    
+    @Override
+    public String getMetricsName() {
+        return "hibernate.cache";
+    }
+    
+    @Override
+    public Map<String, Object> getMetrics() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        Statistics statistics = sessionFactory.getStatistics();
+        boolean cacheEnabled = sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled();
+        
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("secondLevelCacheEnabled", cacheEnabled);
+        metrics.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        if (!statistics.isStatisticsEnabled()) {
+            return metrics;
+        }
+        
+        metrics.put("queryExecutions", statistics.getQueryExecutionCount());
+        metrics.put("preparedStatements", statistics.getPrepareStatementCount());
+        metrics.put("entityLoads", statistics.getEntityLoadCount());
+        metrics.put("secondLevelCacheHits", statistics.getSecondLevelCacheHitCount());
+        metrics.put("secondLevelCacheMisses", statistics.getSecondLevelCacheMissCount());
+        metrics.put("secondLevelCachePuts", statistics.getSecondLevelCachePutCount());
+        metrics.put("queryCacheHits", statistics.getQueryCacheHitCount());
+        metrics.put("queryCacheMisses", statistics.getQueryCacheMissCount());
+        
+        if (cacheEnabled) {
+            Map<String, Object> regions = new LinkedHashMap<>();
+            for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+                CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+                if (region == null) {
+                    continue;
+                }
+                Map<String, Object> regionMetrics = new LinkedHashMap<>();
+                regionMetrics.put("hits", region.getHitCount());
+                regionMetrics.put("misses", region.getMissCount());
+                regionMetrics.put("puts", region.getPutCount());
+                regionMetrics.put("elementsInMemory", region.getElementCountInMemory());
+                regions.put(regionName, regionMetrics);
+            }
+            metrics.put("regions", regions);
+        }
+        return metrics;
+    }
+}
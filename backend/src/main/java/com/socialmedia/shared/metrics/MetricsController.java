@@ -0,0 +1,43 @@
+package com.socialmedia.shared.metrics;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Tag(name = "Metrics", description = "In-process counters exposed by caches, filters and buffers")
+@RestController
+@RequestMapping("/api/metrics")
+@RequiredArgsConstructor
+public class MetricsController {
+    
+    private final List<MetricsSource> metricsSources;
+    
+    @Operation(summary = "Get All Metrics", description = "Returns the current counters of every registered metrics source")
+    @GetMapping
+    public ResponseEntity<Map<String, Map<String, Object>>> getMetrics() {
+        Map<String, Map<String, Object>> metrics = new TreeMap<>();
+        for (MetricsSource source : metricsSources) {
+            metrics.put(source.getMetricsName(), source.getMetrics());
+        }
+        return ResponseEntity.ok(metrics);
+    }
+    
+    @Operation(summary = "Get Metrics Source", description = "Returns the current counters of a single metrics source")
+    @GetMapping("/{name}")
+    public ResponseEntity<Map<String, Object>> getMetrics(@PathVariable String name) {
+        return metricsSources.stream()
+                .filter(source -> source.getMetricsName().equals(name))
+                .findFirst()
+                .map(source -> ResponseEntity.ok(source.getMetrics()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,47 @@
+package com.socialmedia.shared.pagination;
+
+import com.socialmedia.shared.exception.enums.ErrorCode;
+import com.socialmedia.shared.exception.exceptions.ValidationException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+@Getter
+@AllArgsConstructor
+public class Cursor {
+
+    private static final LocalDateTime START_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    public static Cursor start() {
+        return new Cursor(START_TIME, Long.MAX_VALUE);
+    }
+
+    public static Cursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return start();
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separatorIndex = raw.lastIndexOf(SEPARATOR);
+            return new Cursor(
+                    LocalDateTime.parse(raw.substring(0, separatorIndex)),
+                    Long.parseLong(raw.substring(separatorIndex + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ValidationException(ErrorCode.VALIDATION_FAILED, "Invalid cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,47 @@
+package com.socialmedia.shared.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    public static final int MAX_SIZE = 100;
+
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+    private int size;
+
+    public static <E, T> CursorPage<T> of(Slice<E> slice,
+                                          Function<E, Cursor> cursorExtractor,
+                                          Function<List<E>, List<T>> converter) {
+        return of(slice.getContent(), slice.hasNext(), cursorExtractor, converter);
+    }
+
+    public static <E, T> CursorPage<T> of(List<E> rows,
+                                          boolean hasNext,
+                                          Function<E, Cursor> cursorExtractor,
+                                          Function<List<E>, List<T>> converter) {
+        String nextCursor = hasNext && !rows.isEmpty()
+                ? cursorExtractor.apply(rows.get(rows.size() - 1)).encode()
+                : null;
+        List<T> content = converter.apply(rows);
+        return new CursorPage<>(content, nextCursor, hasNext, content.size());
+    }
+
+    // Keeps page sizes within 1..MAX_SIZE so size=0 or a huge size never reaches PageRequest/LIMIT
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    public <R> CursorPage<R> withContent(List<R> newContent) {
+        return new CursorPage<>(newContent, nextCursor, hasNext, newContent.size());
+    }
+}
@@ -0,0 +1,70 @@
+package com.socialmedia.shared.timer;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel: scheduling is O(1) and each tick only visits one slot. Items whose deadline lies
+ * more than one rotation ahead stay in their slot until the wheel comes round again.
+ */
+public class TimerWheel<T> {
+    
+    private final long tickMs;
+    private final int mask;
+    private final Queue<Entry<T>>[] slots;
+    private volatile long currentTick;
+    
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMs, int slotCount) {
+        int size = Integer.highestOneBit(Math.max(2, slotCount - 1) << 1);
+        this.tickMs = Math.max(1, tickMs);
+        this.mask = size - 1;
+        this.slots = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.currentTick = System.currentTimeMillis() / this.tickMs;
+    }
+    
+    public void schedule(T item, long deadlineMs) {
+        long tick = Math.max(deadlineMs / tickMs, currentTick + 1);
+        slots[(int) (tick & mask)].add(new Entry<>(item, tick));
+    }
+    
+    public synchronized int advance(long nowMs, Consumer<T> onExpire) {
+        long nowTick = nowMs / tickMs;
+        long steps = Math.min(nowTick - currentTick, slots.length);
+        int expired = 0;
+        for (long step = 1; step <= steps; step++) {
+            Queue<Entry<T>> slot = slots[(int) ((currentTick + step) & mask)];
+            for (int remaining = slot.size(); remaining > 0; remaining--) {
+                Entry<T> entry = slot.poll();
+                if (entry == null) {
+                    break;
+                }
+                if (entry.tick <= nowTick) {
+                    onExpire.accept(entry.item);
+                    expired++;
+                } else {
+                    slot.add(entry);
+                }
+            }
+        }
+        if (nowTick > currentTick) {
+            currentTick = nowTick;
+        }
+        return expired;
+    }
+    
+    public int size() {
+        int size = 0;
+        for (Queue<Entry<T>> slot : slots) {
+            size += slot.size();
+        }
+        return size;
+    }
+    
+    private record Entry<T>(T item, long tick) {
+    }
+}
@@ -0,0 +1,24 @@
+-- One-off migration: makes the columns backfilled by schema-upgrade.sql NOT NULL.
+-- Run once with psql after the application has started on the upgraded schema:
+--     psql -v ON_ERROR_STOP=1 -f finish-backfills.sql
+-- Afterwards the guarded backfills in schema-upgrade.sql no longer scan anything on start.
+-- Each column is proven NOT NULL by a CHECK validated under a SHARE UPDATE EXCLUSIVE lock, so SET NOT NULL
+-- (PostgreSQL 12+) skips its own table scan and holds ACCESS EXCLUSIVE only briefly.
+
+-- Rows written between the last start and now
+UPDATE messages SET user_low_id = LEAST(sender_id, receiver_id), user_high_id = GREATEST(sender_id, receiver_id)
+WHERE user_low_id IS NULL OR user_high_id IS NULL;
+UPDATE notifications SET bucket = COALESCE(created_at::date, CURRENT_DATE) - DATE '1970-01-01'
+WHERE bucket IS NULL;
+
+ALTER TABLE messages ADD CONSTRAINT chk_message_pair_not_null
+    CHECK (user_low_id IS NOT NULL AND user_high_id IS NOT NULL) NOT VALID;
+ALTER TABLE messages VALIDATE CONSTRAINT chk_message_pair_not_null;
+ALTER TABLE messages ALTER COLUMN user_low_id SET NOT NULL;
+ALTER TABLE messages ALTER COLUMN user_high_id SET NOT NULL;
+ALTER TABLE messages DROP CONSTRAINT chk_message_pair_not_null;
+
+ALTER TABLE notifications ADD CONSTRAINT chk_notification_bucket_not_null CHECK (bucket IS NOT NULL) NOT VALID;
+ALTER TABLE notifications VALIDATE CONSTRAINT chk_notification_bucket_not_null;
+ALTER TABLE notifications ALTER COLUMN bucket SET NOT NULL;
+ALTER TABLE notifications DROP CONSTRAINT chk_notification_bucket_not_null;
@@ -0,0 +1,52 @@
+-- One-off migration: turns notifications into a table range-partitioned by bucket (day number), one partition per day.
+-- Not run automatically: it copies the whole table, so run it with psql in a maintenance window, after
+-- schema-upgrade.sql and finish-backfills.sql have been applied, with the application stopped:
+--     psql -v ON_ERROR_STOP=1 -f notifications-partitioning.sql
+-- Afterwards NotificationRetentionService creates partitions ahead (app.notification.retention.partitions-ahead)
+-- and, when retention is enabled, drops expired days with DROP TABLE instead of deleting rows.
+
+BEGIN;
+
+LOCK TABLE notifications IN ACCESS EXCLUSIVE MODE;
+ALTER TABLE notifications RENAME TO notifications_unpartitioned;
+
+-- Same columns, defaults, NOT NULL and CHECK constraints; keys and indexes are recreated below because a
+-- partitioned table's unique keys must include the partition column
+CREATE TABLE notifications (
+    LIKE notifications_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING IDENTITY
+) PARTITION BY RANGE (bucket);
+
+-- Rows outside every daily partition; kept empty by creating partitions ahead
+CREATE TABLE notifications_default PARTITION OF notifications DEFAULT;
+
+DO $$
+DECLARE
+    first_bucket INTEGER;
+    last_bucket INTEGER;
+BEGIN
+    SELECT MIN(bucket) INTO first_bucket FROM notifications_unpartitioned;
+    first_bucket := LEAST(COALESCE(first_bucket, CURRENT_DATE - DATE '1970-01-01'), CURRENT_DATE - DATE '1970-01-01');
+    last_bucket := (CURRENT_DATE - DATE '1970-01-01') + 7;
+    FOR day IN first_bucket..last_bucket LOOP
+        EXECUTE format('CREATE TABLE notifications_b%s PARTITION OF notifications FOR VALUES FROM (%s) TO (%s)',
+                       day, day, day + 1);
+    END LOOP;
+END $$;
+
+INSERT INTO notifications SELECT * FROM notifications_unpartitioned;
+
+SELECT setval(pg_get_serial_sequence('notifications', 'id'),
+              (SELECT COALESCE(MAX(id), 0) + 1 FROM notifications_unpartitioned), false);
+
+DROP TABLE notifications_unpartitioned;
+
+ALTER TABLE notifications ADD CONSTRAINT notifications_pkey PRIMARY KEY (id, bucket);
+ALTER TABLE notifications ADD CONSTRAINT fk_notification_user FOREIGN KEY (user_id) REFERENCES users (id);
+CREATE UNIQUE INDEX uk_notification_aggregation_bucket ON notifications (aggregation_key, bucket);
+CREATE INDEX idx_notification_bucket ON notifications (bucket);
+CREATE INDEX idx_notification_user_unread ON notifications (user_id, read_status, bucket);
+CREATE INDEX idx_notification_user_created ON notifications (user_id, created_at DESC, id DESC);
+
+COMMIT;
+
+ANALYZE notifications;
@@ -0,0 +1,118 @@
+-- Schema changes on top of the original tables, for deployments that run with ddl-auto=validate.
+-- Every statement is idempotent: the script runs on each start (see application-prod.properties)
+-- before Hibernate validates the mapping, and existing rows get defaults so NOT NULL holds.
+-- Statements must cost next to nothing once applied. Backfills of new columns run only while the column is
+-- still nullable; the one-off db/finish-backfills.sql then sets NOT NULL, which turns them off for good.
+
+-- Post counters
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS like_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS comment_count BIGINT NOT NULL DEFAULT 0;
+
+-- Home timeline
+CREATE TABLE IF NOT EXISTS timeline_entries (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    owner_id BIGINT NOT NULL,
+    post_id BIGINT NOT NULL,
+    author_id BIGINT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_timeline_owner_post UNIQUE (owner_id, post_id)
+);
+CREATE INDEX IF NOT EXISTS idx_timeline_owner_created ON timeline_entries (owner_id, created_at DESC, post_id DESC);
+CREATE INDEX IF NOT EXISTS idx_timeline_post ON timeline_entries (post_id);
+
+-- Conversation summaries
+CREATE TABLE IF NOT EXISTS conversations (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_low_id BIGINT NOT NULL,
+    user_high_id BIGINT NOT NULL,
+    last_message_id BIGINT NOT NULL,
+    last_message_snippet VARCHAR(200),
+    last_message_at TIMESTAMP(6) NOT NULL,
+    last_sender_id BIGINT NOT NULL,
+    unread_low BIGINT NOT NULL DEFAULT 0,
+    unread_high BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_conversation_participants UNIQUE (user_low_id, user_high_id)
+);
+ALTER TABLE conversations ADD COLUMN IF NOT EXISTS last_read_low BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE conversations ADD COLUMN IF NOT EXISTS last_read_high BIGINT NOT NULL DEFAULT 0;
+CREATE INDEX IF NOT EXISTS idx_conversation_low_last ON conversations (user_low_id, last_message_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_conversation_high_last ON conversations (user_high_id, last_message_at DESC, id DESC);
+CREATE TABLE IF NOT EXISTS conversation_members (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    conversation_id BIGINT NOT NULL,
+    participant_id BIGINT NOT NULL,
+    last_message_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_conversation_member UNIQUE (conversation_id, participant_id)
+);
+CREATE INDEX IF NOT EXISTS idx_conversation_member_inbox
+    ON conversation_members (participant_id, last_message_at DESC, conversation_id DESC);
+INSERT INTO conversation_members (conversation_id, participant_id, last_message_at)
+SELECT DISTINCT c.id, p.participant_id, c.last_message_at FROM conversations c
+CROSS JOIN LATERAL (VALUES (c.user_low_id), (c.user_high_id)) AS p(participant_id)
+WHERE NOT EXISTS (SELECT 1 FROM conversation_members)
+ON CONFLICT (conversation_id, participant_id) DO NOTHING;
+
+-- Canonical participant pair on messages, filled for existing rows before the app reads them
+ALTER TABLE messages ADD COLUMN IF NOT EXISTS user_low_id BIGINT;
+ALTER TABLE messages ADD COLUMN IF NOT EXISTS user_high_id BIGINT;
+UPDATE messages SET user_low_id = LEAST(sender_id, receiver_id), user_high_id = GREATEST(sender_id, receiver_id)
+WHERE (user_low_id IS NULL OR user_high_id IS NULL)
+AND EXISTS (SELECT 1 FROM information_schema.columns WHERE table_schema = current_schema()
+            AND table_name = 'messages' AND column_name = 'user_high_id' AND is_nullable = 'YES');
+CREATE INDEX IF NOT EXISTS idx_message_conversation_created ON messages (user_low_id, user_high_id, created_at DESC, id DESC);
+
+-- Notification aggregation and day buckets
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS aggregation_key VARCHAR(100);
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS actor_count BIGINT NOT NULL DEFAULT 1;
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS last_actor_ids BIGINT[] NOT NULL DEFAULT '{}';
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS bucket INTEGER;
+UPDATE notifications SET bucket = COALESCE(created_at::date, CURRENT_DATE) - DATE '1970-01-01'
+WHERE bucket IS NULL
+AND EXISTS (SELECT 1 FROM information_schema.columns WHERE table_schema = current_schema()
+            AND table_name = 'notifications' AND column_name = 'bucket' AND is_nullable = 'YES');
+-- Aggregated rows keep the bucket of their window start, so (aggregation_key, bucket) identifies the window row
+-- and stays a valid unique key once the table is partitioned by bucket (db/notifications-partitioning.sql)
+CREATE UNIQUE INDEX IF NOT EXISTS uk_notification_aggregation_bucket ON notifications (aggregation_key, bucket);
+DROP INDEX IF EXISTS uk_notification_aggregation_key;
+CREATE INDEX IF NOT EXISTS idx_notification_bucket ON notifications (bucket);
+CREATE INDEX IF NOT EXISTS idx_notification_user_unread ON notifications (user_id, read_status, bucket);
+CREATE INDEX IF NOT EXISTS idx_notification_user_created ON notifications (user_id, created_at DESC, id DESC);
+
+-- Notification outbox
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    actor_id BIGINT,
+    type VARCHAR(255) NOT NULL,
+    related_id BIGINT,
+    action VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+ALTER TABLE notification_outbox ADD COLUMN IF NOT EXISTS attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE notification_outbox ADD COLUMN IF NOT EXISTS parked_at TIMESTAMP(6);
+ALTER TABLE notification_outbox ADD COLUMN IF NOT EXISTS last_error VARCHAR(1000);
+
+-- Cluster-wide presence (broker relay mode)
+CREATE TABLE IF NOT EXISTS user_presence (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    node_id VARCHAR(64) NOT NULL,
+    user_id BIGINT NOT NULL,
+    seen_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_user_presence_node_user UNIQUE (node_id, user_id)
+);
+CREATE INDEX IF NOT EXISTS idx_user_presence_user ON user_presence (user_id, seen_at);
+
+-- Message id spans per conversation archive, written by each archive run
+CREATE TABLE IF NOT EXISTS message_archive_ranges (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_low_id BIGINT NOT NULL,
+    user_high_id BIGINT NOT NULL,
+    min_message_id BIGINT NOT NULL,
+    max_message_id BIGINT NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_message_archive_range_low ON message_archive_ranges (user_low_id, max_message_id);
+CREATE INDEX IF NOT EXISTS idx_message_archive_range_high ON message_archive_ranges (user_high_id, max_message_id);
+
+-- Keyset pagination indexes for the cursor endpoints
+CREATE INDEX IF NOT EXISTS idx_post_user_created ON posts (user_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_comment_post_created ON comments (post_id, created_at DESC, id DESC);
@@ -32,26 +32,26 @@ INSERT INTO friendships (requester_id, addressee_id, status, created_at) VALUES
 (9, 10, 'PENDING', NOW());
 
 -- Sample messages between additional users
-INSERT INTO messages (content, sender_id, receiver_id, read_status, created_at) VALUES
-('The product roadmap looks great! When do we start the implementation?', 2, 6, false, NOW()),
-('Can you help review the ML model performance metrics?', 7, 1, true, NOW()),
-('Found some edge cases in the login flow. Let me know when you have time to discuss.', 8, 2, false, NOW()),
-('Security audit completed. Everything looks good!', 9, 1, true, NOW()),
-('The mobile app performance improvements are impressive!', 10, 5, false, NOW()),
-('Team sync meeting scheduled for tomorrow at 10 AM', 6, 1, true, NOW()),
-('Data pipeline optimization reduced processing time by 50%', 7, 3, false, NOW()),
-('Regression test suite updated with new test cases', 8, 6, true, NOW());
+INSERT INTO messages (content, sender_id, receiver_id, read_status, created_at, user_low_id, user_high_id) VALUES
+('The product roadmap looks great! When do we start the implementation?', 2, 6, false, NOW(), 2, 6),
+('Can you help review the ML model performance metrics?', 7, 1, true, NOW(), 1, 7),
+('Found some edge cases in the login flow. Let me know when you have time to discuss.', 8, 2, false, NOW(), 2, 8),
+('Security audit completed. Everything looks good!', 9, 1, true, NOW(), 1, 9),
+('The mobile app performance improvements are impressive!', 10, 5, false, NOW(), 5, 10),
+('Team sync meeting scheduled for tomorrow at 10 AM', 6, 1, true, NOW(), 1, 6),
+('Data pipeline optimization reduced processing time by 50%', 7, 3, false, NOW(), 3, 7),
+('Regression test suite updated with new test cases', 8, 6, true, NOW(), 6, 8);
 
 -- Sample notifications for additional scenarios
-INSERT INTO notifications (user_id, type, content, related_id, read_status, created_at) VALUES
-(6, 'FRIEND_ACCEPTED', 'Công Anh accepted your friend request', 1, false, NOW()),
-(7, 'LIKE', 'Sarah liked your post about machine learning', 12, true, NOW()),
-(8, 'COMMENT', 'Alex commented on your post about testing coverage', 13, false, NOW()),
-(9, 'MESSAGE', 'You have a new message from Linh', 4, true, NOW()),
-(10, 'FRIEND_REQUEST', 'Đức sent you a friend request', 5, false, NOW()),
-(1, 'LIKE', 'Sarah liked your post about team collaboration', 6, true, NOW()),
-(2, 'MESSAGE', 'You have a new message from Sarah', 6, false, NOW()),
-(3, 'FRIEND_REQUEST', 'Maria sent you a friend request', 8, true, NOW());
+INSERT INTO notifications (user_id, type, content, related_id, read_status, created_at, actor_count, last_actor_ids, bucket) VALUES
+(6, 'FRIEND_ACCEPTED', 'Công Anh accepted your friend request', 1, false, NOW(), 1, '{}', CURRENT_DATE - DATE '1970-01-01'),
+(7, 'LIKE', 'Sarah liked your post about machine learning', 12, true, NOW(), 1, '{}', CURRENT_DATE - DATE '1970-01-01'),
+(8, 'COMMENT', 'Alex commented on your post about testing coverage', 13, false, NOW(), 1, '{}', CURRENT_DATE - DATE '1970-01-01'),
+(9, 'MESSAGE', 'You have a new message from Linh', 4, true, NOW(), 1, '{}', CURRENT_DATE - DATE '1970-01-01'),
+(10, 'FRIEND_REQUEST', 'Đức sent you a friend request', 5, false, NOW(), 1, '{}', CURRENT_DATE - DATE '1970-01-01'),
+(1, 'LIKE', 'Sarah liked your post about team collaboration', 6, true, NOW(), 1, '{}', CURRENT_DATE - DATE '1970-01-01'),
+(2, 'MESSAGE', 'You have a new message from Sarah', 6, false, NOW(), 1, '{}', CURRENT_DATE - DATE '1970-01-01'),
+(3, 'FRIEND_REQUEST', 'Maria sent you a friend request', 8, true, NOW(), 1, '{}', CURRENT_DATE - DATE '1970-01-01');
 
 -- Sample comments on additional posts
 INSERT INTO comments (content, post_id, user_id, created_at) VALUES
@@ -0,0 +1,20 @@
+package com.socialmedia;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Boots the whole application against a throwaway PostgreSQL container. The container is started once by
+ * Spring and shared by every subclass through the cached context; without Docker the tests are skipped.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+@Import(QueryCounter.class)
+public abstract class PostgresIntegrationTest {
+
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+}
@@ -0,0 +1,182 @@
+package com.socialmedia.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.context.AnnotationConfigServletWebApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Two nodes configured by {@link WebSocketConfig} in relay mode, both relaying to an {@link EmbeddedStompBroker}.
+ * Client sessions are driven through each node's inbound channel, as the WebSocket layer would.
+ * Needs the relay TCP client: run with {@code mvn test -Pbroker-relay}.
+ */
+class BrokerRelayIntegrationTest {
+
+    private static final Principal ALICE = () -> "alice";
+
+    private EmbeddedStompBroker broker;
+    private AnnotationConfigServletWebApplicationContext nodeA;
+    private AnnotationConfigServletWebApplicationContext nodeB;
+    private final BlockingQueue<Message<?>> deliveredOnB = new LinkedBlockingQueue<>();
+
+    @BeforeAll
+    static void requireRelayClient() {
+        assumeTrue(ClassUtils.isPresent("reactor.netty.tcp.TcpClient", null),
+                "reactor-netty-core is only on the classpath with -Pbroker-relay");
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        broker = EmbeddedStompBroker.start();
+        nodeA = node();
+        nodeB = node();
+        nodeB.getBean("clientOutboundChannel", AbstractSubscribableChannel.class).subscribe(deliveredOnB::add);
+        awaitTrue(() -> relayAvailable(nodeA) && relayAvailable(nodeB));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (broker != null) {
+            broker.close();
+        }
+    }
+
+    @Test
+    void userDestinationReachesSessionOnAnotherNode() throws Exception {
+        connect(nodeB, "alice-session", ALICE);
+        subscribe(nodeB, "alice-session", ALICE, "/user/queue/messages");
+        awaitTrue(() -> broker.hasSubscription("/queue/messages-useralice-session"));
+
+        nodeA.getBean(SimpMessagingTemplate.class).convertAndSendToUser("alice", "/queue/messages", "hello from A");
+
+        assertThat(nextMessage("alice-session")).isEqualTo("hello from A");
+    }
+
+    @Test
+    void topicReachesSubscribersOnEveryNode() throws Exception {
+        connect(nodeB, "bob-session", () -> "bob");
+        subscribe(nodeB, "bob-session", () -> "bob", "/topic/notifications");
+        awaitTrue(() -> broker.hasSubscription("/topic/notifications"));
+
+        nodeA.getBean(SimpMessagingTemplate.class).convertAndSend("/topic/notifications", "broadcast from A");
+
+        assertThat(nextMessage("bob-session")).isEqualTo("broadcast from A");
+    }
+
+    private AnnotationConfigServletWebApplicationContext node() {
+        AnnotationConfigServletWebApplicationContext context = new AnnotationConfigServletWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("relay", Map.of(
+                "app.websocket.broker.mode", "relay",
+                "app.websocket.broker.relay.host", "127.0.0.1",
+                "app.websocket.broker.relay.port", String.valueOf(broker.port()),
+                "app.websocket.broker.relay.system-heartbeat-send-interval-ms", "0",
+                "app.websocket.broker.relay.system-heartbeat-receive-interval-ms", "0")));
+        context.register(Node.class);
+        context.refresh();
+        return context;
+    }
+
+    private void connect(AnnotationConfigServletWebApplicationContext node, String sessionId, Principal user)
+            throws InterruptedException {
+        StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+        connect.setSessionId(sessionId);
+        connect.setUser(user);
+        connect.setAcceptVersion("1.2");
+        connect.setHeartbeat(0, 0);
+        inbound(node).send(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()));
+        awaitFrame(sessionId, StompCommand.CONNECTED);
+
+        // Registers the session in the node's user registry, as StompSubProtocolHandler does
+        StompHeaderAccessor connected = StompHeaderAccessor.create(StompCommand.CONNECTED);
+        connected.setSessionId(sessionId);
+        connected.setUser(user);
+        node.publishEvent(new SessionConnectedEvent(this,
+                MessageBuilder.createMessage(new byte[0], connected.getMessageHeaders()), user));
+    }
+
+    private void subscribe(AnnotationConfigServletWebApplicationContext node, String sessionId, Principal user,
+                           String destination) {
+        StompHeaderAccessor subscribe = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        subscribe.setSessionId(sessionId);
+        subscribe.setUser(user);
+        subscribe.setSubscriptionId("sub-" + sessionId);
+        subscribe.setDestination(destination);
+        inbound(node).send(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()));
+    }
+
+    private String nextMessage(String sessionId) throws InterruptedException {
+        Message<?> message = awaitFrame(sessionId, StompCommand.MESSAGE);
+        return new String((byte[]) message.getPayload(), StandardCharsets.UTF_8);
+    }
+
+    private Message<?> awaitFrame(String sessionId, StompCommand command) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            Message<?> message = deliveredOnB.poll(100, TimeUnit.MILLISECONDS);
+            if (message == null) {
+                continue;
+            }
+            StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+            if (sessionId.equals(accessor.getSessionId()) && accessor.getCommand() == command) {
+                return message;
+            }
+        }
+        throw new AssertionError("No " + command + " for session " + sessionId);
+    }
+
+    private static AbstractSubscribableChannel inbound(AnnotationConfigServletWebApplicationContext node) {
+        return node.getBean("clientInboundChannel", AbstractSubscribableChannel.class);
+    }
+
+    private static boolean relayAvailable(AnnotationConfigServletWebApplicationContext node) {
+        return node.getBean("stompBrokerRelayMessageHandler", AbstractBrokerMessageHandler.class).isBrokerAvailable();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 10s").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    @Configuration
+    @EnableConfigurationProperties
+    @Import({WebSocketBrokerProperties.class, WebSocketChannelProperties.class, WebSocketChannelMetrics.class,
+            WebSocketConfig.class})
+    static class Node {
+    }
+}
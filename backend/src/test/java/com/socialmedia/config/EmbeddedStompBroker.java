@@ -0,0 +1,204 @@
+package com.socialmedia.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal in-process STOMP 1.2 broker standing in for RabbitMQ/ActiveMQ in relay tests: CONNECT, SUBSCRIBE,
+ * UNSUBSCRIBE, SEND and DISCONNECT with exact-match destinations and no heartbeats.
+ */
+class EmbeddedStompBroker implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "embedded-stomp-broker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+    private final AtomicLong messageIds = new AtomicLong();
+
+    private EmbeddedStompBroker() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    }
+
+    static EmbeddedStompBroker start() throws IOException {
+        EmbeddedStompBroker broker = new EmbeddedStompBroker();
+        broker.executor.execute(broker::accept);
+        return broker;
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    // True once some connection subscribed to the destination, so tests can wait for a relayed SUBSCRIBE
+    boolean hasSubscription(String destination) {
+        return connections.stream().anyMatch(connection -> connection.subscriptions.containsValue(destination));
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Connection connection : connections) {
+            connection.close();
+        }
+        executor.shutdownNow();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Connection connection = new Connection(serverSocket.accept());
+                connections.add(connection);
+                executor.execute(connection::serve);
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void deliver(String destination, Map<String, String> sendHeaders, byte[] body) {
+        for (Connection connection : connections) {
+            for (Map.Entry<String, String> subscription : connection.subscriptions.entrySet()) {
+                if (!subscription.getValue().equals(destination)) {
+                    continue;
+                }
+                Map<String, String> headers = new LinkedHashMap<>(sendHeaders);
+                headers.remove("receipt");
+                headers.put("subscription", subscription.getKey());
+                headers.put("message-id", String.valueOf(messageIds.incrementAndGet()));
+                connection.write("MESSAGE", headers, body);
+            }
+        }
+    }
+
+    private final class Connection {
+        private final Socket socket;
+        private final Map<String, String> subscriptions = new ConcurrentHashMap<>();
+
+        private Connection(Socket socket) {
+            this.socket = socket;
+        }
+
+        private void serve() {
+            try (InputStream in = socket.getInputStream()) {
+                Frame frame;
+                while ((frame = Frame.read(in)) != null) {
+                    handle(frame);
+                }
+            } catch (IOException e) {
+                // Client went away
+            } finally {
+                connections.remove(this);
+                close();
+            }
+        }
+
+        private void handle(Frame frame) {
+            switch (frame.command) {
+                case "CONNECT", "STOMP" -> write("CONNECTED",
+                        Map.of("version", "1.2", "heart-beat", "0,0", "server", "embedded-stomp"), new byte[0]);
+                case "SUBSCRIBE" -> subscriptions.put(frame.headers.get("id"), frame.headers.get("destination"));
+                case "UNSUBSCRIBE" -> subscriptions.remove(frame.headers.get("id"));
+                case "SEND" -> deliver(frame.headers.get("destination"), frame.headers, frame.body);
+                case "DISCONNECT" -> {
+                    // Answered below if a receipt was requested
+                }
+                default -> write("ERROR", Map.of("message", "Unsupported command " + frame.command), new byte[0]);
+            }
+            String receipt = frame.headers.get("receipt");
+            if (receipt != null) {
+                write("RECEIPT", Map.of("receipt-id", receipt), new byte[0]);
+            }
+        }
+
+        private synchronized void write(String command, Map<String, String> headers, byte[] body) {
+            StringBuilder frame = new StringBuilder(command).append('\n');
+            headers.forEach((name, value) -> {
+                if (!name.equals("content-length")) {
+                    frame.append(name).append(':').append(value).append('\n');
+                }
+            });
+            frame.append("content-length:").append(body.length).append("\n\n");
+            try {
+                OutputStream out = socket.getOutputStream();
+                out.write(frame.toString().getBytes(StandardCharsets.UTF_8));
+                out.write(body);
+                out.write(0);
+                out.flush();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Already closed
+            }
+        }
+    }
+
+    private record Frame(String command, Map<String, String> headers, byte[] body) {
+
+        // Reads one frame, skipping heartbeat EOLs; null at end of stream
+        static Frame read(InputStream in) throws IOException {
+            String command;
+            do {
+                command = readLine(in);
+                if (command == null) {
+                    return null;
+                }
+            } while (command.isEmpty());
+            Map<String, String> headers = new LinkedHashMap<>();
+            String line;
+            while ((line = readLine(in)) != null && !line.isEmpty()) {
+                int colon = line.indexOf(':');
+                // The first occurrence of a repeated header wins
+                headers.putIfAbsent(line.substring(0, colon), line.substring(colon + 1));
+            }
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            String contentLength = headers.get("content-length");
+            if (contentLength != null) {
+                body.write(in.readNBytes(Integer.parseInt(contentLength)));
+                in.read();
+            } else {
+                int b;
+                while ((b = in.read()) > 0) {
+                    body.write(b);
+                }
+            }
+            return new Frame(command, headers, body.toByteArray());
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != '\n') {
+                if (b < 0) {
+                    return null;
+                }
+                if (b != '\r') {
+                    line.write(b);
+                }
+            }
+            return line.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
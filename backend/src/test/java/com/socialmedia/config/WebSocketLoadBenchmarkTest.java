@@ -0,0 +1,146 @@
+package com.socialmedia.config;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Messages/sec through the STOMP stack at 5k concurrent sockets, with the channel executors and transport
+ * limits configured by {@link WebSocketConfig}. Each socket keeps one message in flight: it sends to an
+ * application destination whose handler blocks for a while, as chat.sendMessage does in its JPA transaction,
+ * and sends again once the reply arrives on its topic. No database is involved.
+ *
+ * <pre>
+ * mvn test -Dgroups=benchmark -Dexcluded.test.groups= -Dtest=WebSocketLoadBenchmarkTest \
+ *     -Dload.sockets=5000 -Dload.seconds=30 -Dload.work-ms=2 \
+ *     -Dapp.websocket.inbound.virtual-threads=true
+ * </pre>
+ * Any app.websocket.* property can be passed the same way. 5k sockets need a file descriptor limit above
+ * 10k (client and server side of each socket live in this JVM), e.g. {@code ulimit -n 16384}.
+ */
+class WebSocketLoadBenchmarkTest {
+
+    private static final int SOCKETS = Integer.getInteger("load.sockets", 5000);
+    private static final int SECONDS = Integer.getInteger("load.seconds", 30);
+    private static final long WORK_MS = Long.getLong("load.work-ms", 2);
+    private static final int CONNECT_BATCH = 200;
+
+    @Test
+    @Tag("benchmark")
+    void messagesPerSecondAtFiveThousandSockets() throws Exception {
+        try (ConfigurableApplicationContext server = new SpringApplicationBuilder(Harness.class)
+                .properties("server.port=0", "app.websocket.broker.mode=simple")
+                .run()) {
+            int port = server.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+            client.setMessageConverter(new StringMessageConverter());
+            client.setDefaultHeartbeat(new long[]{0, 0});
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicLong received = new AtomicLong();
+            List<StompSession> sessions = new ArrayList<>(SOCKETS);
+            long connectStart = System.nanoTime();
+            for (int from = 0; from < SOCKETS; from += CONNECT_BATCH) {
+                List<CompletableFuture<StompSession>> batch = new ArrayList<>();
+                for (int i = from; i < Math.min(from + CONNECT_BATCH, SOCKETS); i++) {
+                    batch.add(client.connectAsync("ws://localhost:" + port + "/ws/websocket",
+                            new StompSessionHandlerAdapter() { }));
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    StompSession session = batch.get(i).get(30, TimeUnit.SECONDS);
+                    String index = String.valueOf(from + i);
+                    session.subscribe("/topic/load." + index, new StompFrameHandler() {
+                        @Override
+                        public Type getPayloadType(StompHeaders headers) {
+                            return String.class;
+                        }
+
+                        @Override
+                        public void handleFrame(StompHeaders headers, Object payload) {
+                            received.incrementAndGet();
+                            if (running.get()) {
+                                session.send("/app/load.echo", index);
+                            }
+                        }
+                    });
+                    sessions.add(session);
+                }
+            }
+            long connectMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStart);
+            // Subscriptions are processed asynchronously; give them a moment before the first sends
+            Thread.sleep(1000);
+
+            for (int i = 0; i < sessions.size(); i++) {
+                sessions.get(i).send("/app/load.echo", String.valueOf(i));
+            }
+            Thread.sleep(TimeUnit.SECONDS.toMillis(Math.min(5, SECONDS)));
+            long measuredFrom = received.get();
+            long start = System.nanoTime();
+            Thread.sleep(TimeUnit.SECONDS.toMillis(SECONDS));
+            long messages = received.get() - measuredFrom;
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+            running.set(false);
+
+            System.out.printf("websocket load, %d sockets (connected in %d ms), handler work %d ms: " +
+                            "%.0f messages/sec round trip over %.0f s%n",
+                    sessions.size(), connectMillis, WORK_MS, messages / elapsedSeconds, elapsedSeconds);
+            System.out.printf("websocket channels: %s%n", server.getBean(WebSocketChannelMetrics.class).getMetrics());
+
+            sessions.forEach(StompSession::disconnect);
+            assertThat(sessions).hasSize(SOCKETS);
+            assertThat(messages).isPositive();
+        }
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+            SecurityAutoConfiguration.class, UserDetailsServiceAutoConfiguration.class})
+    @Import({WebSocketBrokerProperties.class, WebSocketChannelProperties.class, WebSocketChannelMetrics.class,
+            WebSocketConfig.class, EchoController.class})
+    static class Harness {
+    }
+
+    @Controller
+    static class EchoController {
+        private final SimpMessagingTemplate messagingTemplate;
+
+        EchoController(SimpMessagingTemplate messagingTemplate) {
+            this.messagingTemplate = messagingTemplate;
+        }
+
+        @MessageMapping("load.echo")
+        public void echo(String index) throws InterruptedException {
+            // Stands in for the blocking JPA transaction of chat.sendMessage
+            Thread.sleep(WORK_MS);
+            messagingTemplate.convertAndSend("/topic/load." + index, index);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.socialmedia.modules.messaging.archive;
+
+import com.socialmedia.config.ClusterProperties;
+import com.socialmedia.modules.messaging.config.MessageArchiveProperties;
+import com.socialmedia.modules.messaging.search.MessageSearchIndex;
+import com.socialmedia.shared.exception.exceptions.UnauthorizedMessageAccessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class MessageArchiveServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @TempDir
+    Path directory;
+
+    private MessageArchiveProperties properties;
+    private ClusterProperties clusterProperties;
+    private JdbcTemplate jdbcTemplate;
+    private MessageArchiveService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        properties = new MessageArchiveProperties();
+        properties.setEnabled(true);
+        properties.setDir(directory.toString());
+        clusterProperties = new ClusterProperties();
+        // An embedded H2 database holds the id ranges the archive runs record
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE message_archive_ranges (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "user_low_id BIGINT NOT NULL, user_high_id BIGINT NOT NULL, " +
+                "min_message_id BIGINT NOT NULL, max_message_id BIGINT NOT NULL)");
+        service = new MessageArchiveService(properties, jdbcTemplate, mock(TransactionTemplate.class),
+                mock(MessageSearchIndex.class), clusterProperties);
+        service.init();
+    }
+
+    @Test
+    void nullContentRoundTrips() throws IOException {
+        ConversationArchive archive = ConversationArchive.open(directory, "1_2");
+        archive.append(List.of(message(1, 1L, null), message(2, 2L, "hi")), 128);
+
+        List<ArchivedMessage> read = ConversationArchive.open(directory, "1_2").read(0, 10);
+
+        assertThat(read).extracting(ArchivedMessage::content).containsExactly("hi", null);
+    }
+
+    @Test
+    void senderCanDeleteAnArchivedMessage() throws IOException {
+        ConversationArchive.open(directory, "1_2").append(messages(10), 4);
+        range(1L, 2L, 1, 10);
+
+        assertThat(service.delete(5L, 1L)).isTrue();
+
+        assertThat(service.count(1L, 2L)).isEqualTo(9);
+        assertThat(service.read(1L, 2L, 0, 20)).extracting(ArchivedMessage::id).doesNotContain(5L).hasSize(9);
+        assertThat(service.readBefore(1L, 2L, START.plusDays(1), Long.MAX_VALUE, 20))
+                .extracting(ArchivedMessage::id).doesNotContain(5L);
+        // Paging by offset skips whole blocks using the per-block tombstone counts
+        assertThat(service.read(1L, 2L, 4, 2)).extracting(ArchivedMessage::id).containsExactly(6L, 4L);
+        assertThat(service.delete(5L, 1L)).isFalse();
+    }
+
+    @Test
+    void onlyTheSenderCanDeleteAnArchivedMessage() throws IOException {
+        ConversationArchive.open(directory, "1_2").append(messages(4), 4);
+        range(1L, 2L, 1, 4);
+
+        // Message 2 was sent by user 2
+        assertThatThrownBy(() -> service.delete(2L, 1L)).isInstanceOf(UnauthorizedMessageAccessException.class);
+        assertThat(service.delete(2L, 3L)).isFalse();
+        assertThat(service.count(1L, 2L)).isEqualTo(4);
+    }
+
+    @Test
+    void lookupOpensOnlyArchivesWhoseRangeCoversTheMessage() throws IOException {
+        ConversationArchive.open(directory, "1_2").append(messages(4), 4);
+        range(1L, 2L, 1, 4);
+        // No range recorded for this conversation, so its file is never consulted
+        ConversationArchive.open(directory, "1_3").append(List.of(
+                new ArchivedMessage(7L, 1L, 3L, "unrecorded", START)), 4);
+
+        assertThat(service.find(3L, 2L)).extracting(ArchivedMessage::content).isEqualTo("message 3");
+        assertThat(service.find(3L, 5L)).isNull();
+        assertThat(service.find(7L, 1L)).isNull();
+        assertThat(service.getMetrics()).containsEntry("openArchives", 1);
+    }
+
+    @Test
+    void readersSeeBlocksAndTombstonesWrittenByOtherNodes() throws IOException {
+        ConversationArchive writer = ConversationArchive.open(directory, "1_2");
+        writer.append(messages(4), 4);
+        ConversationArchive reader = ConversationArchive.open(directory, "1_2");
+        assertThat(reader.count()).isEqualTo(4);
+
+        List<ArchivedMessage> more = new ArrayList<>();
+        for (int i = 5; i <= 8; i++) {
+            more.add(message(i, i % 2 == 0 ? 2L : 1L, "message " + i));
+        }
+        writer.append(more, 4);
+        reader.delete(3L);
+
+        assertThat(reader.count()).isEqualTo(7);
+        assertThat(writer.count()).isEqualTo(7);
+        assertThat(writer.find(3L)).isNull();
+        assertThat(reader.read(0, 2)).extracting(ArchivedMessage::id).containsExactly(8L, 7L);
+    }
+
+    @Test
+    void tornIndexEntryIsIgnoredAndOverwritten() throws IOException {
+        ConversationArchive.open(directory, "1_2").append(messages(4), 4);
+        Files.write(directory.resolve("1_2.idx"), new byte[20], StandardOpenOption.APPEND);
+
+        ConversationArchive reopened = ConversationArchive.open(directory, "1_2");
+        assertThat(reopened.count()).isEqualTo(4);
+
+        reopened.append(List.of(message(5, 1L, "after crash")), 4);
+        assertThat(ConversationArchive.open(directory, "1_2").read(0, 1))
+                .extracting(ArchivedMessage::content).containsExactly("after crash");
+    }
+
+    @Test
+    void refusesNodeLocalArchiveWhenClustered() throws IOException {
+        clusterProperties.setEnabled(true);
+
+        assertThatThrownBy(() -> service.init()).isInstanceOf(IllegalStateException.class);
+
+        properties.setSharedStorage(true);
+        service.init();
+    }
+
+    private void range(Long userLowId, Long userHighId, long minMessageId, long maxMessageId) {
+        jdbcTemplate.update("INSERT INTO message_archive_ranges (user_low_id, user_high_id, min_message_id, " +
+                "max_message_id) VALUES (?, ?, ?, ?)", userLowId, userHighId, minMessageId, maxMessageId);
+    }
+
+    private static List<ArchivedMessage> messages(int count) {
+        List<ArchivedMessage> messages = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            messages.add(message(i, i % 2 == 0 ? 2L : 1L, "message " + i));
+        }
+        return messages;
+    }
+
+    private static ArchivedMessage message(long id, Long senderId, String content) {
+        Long receiverId = senderId == 1L ? 2L : 1L;
+        return new ArchivedMessage(id, senderId, receiverId, content, START.plusMinutes(id));
+    }
+}
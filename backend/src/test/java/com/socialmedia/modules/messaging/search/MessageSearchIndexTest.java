@@ -0,0 +1,165 @@
+package com.socialmedia.modules.messaging.search;
+
+import com.socialmedia.config.ClusterProperties;
+import com.socialmedia.modules.messaging.repository.MessageRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.PageRequest;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MessageSearchIndexTest {
+
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 50);
+
+    @TempDir
+    Path indexDir;
+
+    private MessageRepository messageRepository;
+    private MessageSearchProperties properties;
+    private ClusterProperties clusterProperties;
+    private MessageSearchIndex index;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        messageRepository = mock(MessageRepository.class);
+        clusterProperties = new ClusterProperties();
+        properties = new MessageSearchProperties();
+        properties.setIndexDir(indexDir.toString());
+        properties.setFlushThreshold(Integer.MAX_VALUE);
+        properties.setMergeFactor(Integer.MAX_VALUE);
+        index = new MessageSearchIndex(messageRepository, properties, clusterProperties);
+        index.load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+    }
+
+    @Test
+    void searchOnlyReachesTheUsersOwnConversations() {
+        index.index(1L, 1L, 2L, "lunch tomorrow?");
+        index.index(2L, 1L, 3L, "lunch was great");
+        index.index(3L, 2L, 3L, "lunch without user one");
+        index.flush();
+        index.index(4L, 1L, 2L, "lunch at noon then");
+
+        assertThat(index.search(1L, null, "lunch", FIRST_PAGE).getContent()).containsExactlyInAnyOrder(1L, 2L, 4L);
+        assertThat(index.search(1L, 2L, "lunch", FIRST_PAGE).getContent()).containsExactlyInAnyOrder(1L, 4L);
+        assertThat(index.search(3L, 2L, "lunch", FIRST_PAGE).getContent()).containsExactly(3L);
+        assertThat(index.search(4L, null, "lunch", FIRST_PAGE).getContent()).isEmpty();
+    }
+
+    @Test
+    void segmentsSurviveARestart() throws Exception {
+        index.index(1L, 1L, 2L, "persisted words");
+        index.flush();
+        index.shutdown();
+
+        index = new MessageSearchIndex(messageRepository, properties, clusterProperties);
+        index.load();
+
+        assertThat(index.search(2L, 1L, "persisted", FIRST_PAGE).getContent()).containsExactly(1L);
+    }
+
+    @Test
+    void tombstoneOutlivesAMergeWhileAnotherCopyIsStillLive() {
+        index.index(10L, 1L, 2L, "secret plan");
+        index.flush();
+        index.index(11L, 1L, 2L, "other plan");
+        index.flush();
+        index.delete(10L);
+        // Catch-up racing live indexing can put a second copy in the memory segment
+        index.index(10L, 1L, 2L, "secret plan");
+
+        index.merge();
+
+        assertThat(index.search(1L, 2L, "plan", FIRST_PAGE).getContent()).containsExactly(11L);
+        assertThat(index.getMetrics()).containsEntry("tombstones", 1);
+        index.flush();
+        index.merge();
+        assertThat(index.search(1L, 2L, "plan", FIRST_PAGE).getContent()).containsExactly(11L);
+        assertThat(index.getMetrics()).containsEntry("tombstones", 0);
+    }
+
+    @Test
+    void clusteredNodePullsInMessagesSentThroughOtherNodes() throws InterruptedException {
+        clusterProperties.setEnabled(true);
+        properties.setTailOverlap(3);
+        index.catchUp();
+        while (!index.isActive()) {
+            Thread.sleep(10);
+        }
+        index.index(5L, 1L, 2L, "sent here");
+        index.flush();
+        when(messageRepository.findSearchDocumentsAfter(eq(0L), any())).thenReturn(List.of(
+                new Object[]{5L, 1L, 2L, "sent here"},
+                new Object[]{6L, 1L, 2L, "also sent elsewhere"}));
+        // Message 4 was committed on another node after 6 became visible
+        when(messageRepository.findSearchDocumentsAfter(eq(3L), any())).thenReturn(List.of(
+                new Object[]{4L, 1L, 2L, "sent elsewhere"},
+                new Object[]{5L, 1L, 2L, "sent here"},
+                new Object[]{6L, 1L, 2L, "also sent elsewhere"}));
+
+        index.tail();
+        index.tail();
+
+        assertThat(index.search(1L, 2L, "sent", FIRST_PAGE).getContent()).containsExactlyInAnyOrder(4L, 5L, 6L);
+        assertThat(index.search(1L, 2L, "elsewhere", FIRST_PAGE).getContent()).containsExactlyInAnyOrder(4L, 6L);
+        assertThat((Long) index.getMetrics().get("indexedDocs")).isEqualTo(3);
+    }
+
+    // Index throughput and query p99 over 200k messages spread across 2k users, with background flushes and merges
+    @Test
+    @Tag("benchmark")
+    void indexThroughputAndQueryLatency() throws Exception {
+        index.shutdown();
+        properties.setFlushThreshold(1000);
+        properties.setMergeFactor(4);
+        index = new MessageSearchIndex(messageRepository, properties, clusterProperties);
+        index.load();
+
+        List<String> vocabulary = List.of("meeting", "lunch", "project", "deadline", "weekend", "photo",
+                "call", "tomorrow", "birthday", "movie", "game", "train", "coffee", "report", "holiday");
+        Random random = new Random(42);
+        int users = 2_000;
+        int messages = 200_000;
+        for (long id = 1; id <= messages; id++) {
+            long a = 1 + random.nextInt(users);
+            long b = 1 + random.nextInt(users);
+            StringBuilder content = new StringBuilder();
+            for (int w = 0; w < 8; w++) {
+                content.append(vocabulary.get(random.nextInt(vocabulary.size()))).append(' ');
+            }
+            index.index(id, Math.min(a, b), Math.max(a, b), content.toString());
+        }
+        index.flush();
+
+        for (int q = 0; q < 5_000; q++) {
+            long user = 1 + random.nextInt(users);
+            String query = vocabulary.get(random.nextInt(vocabulary.size())) + " "
+                    + vocabulary.get(random.nextInt(vocabulary.size()));
+            Long partner = q % 2 == 0 ? null : 1L + random.nextInt(users);
+            index.search(user, partner, query, FIRST_PAGE);
+        }
+
+        Map<String, Object> metrics = index.getMetrics();
+        assertThat((Long) metrics.get("indexedDocs")).isEqualTo(messages);
+        System.out.printf("message search: %s docs/s indexed, query p99 %s us, %s segments after %s merges%n",
+                metrics.get("indexDocsPerSecond"), metrics.get("queryP99Micros"),
+                metrics.get("segments"), metrics.get("merges"));
+    }
+}
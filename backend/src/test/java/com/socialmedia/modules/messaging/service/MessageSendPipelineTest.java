@@ -0,0 +1,77 @@
+package com.socialmedia.modules.messaging.service;
+
+import com.socialmedia.modules.messaging.config.MessagePipelineProperties;
+import com.socialmedia.modules.messaging.dto.MessageResponse;
+import com.socialmedia.modules.messaging.search.MessageSearchIndex;
+import com.socialmedia.modules.notification.service.NotificationEventService;
+import com.socialmedia.modules.user.service.UserSummaryCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class MessageSendPipelineTest {
+
+    private MessageSearchIndex messageSearchIndex;
+    private MessageSendPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        MessagePipelineProperties properties = new MessagePipelineProperties();
+        properties.setEnabled(true);
+        properties.setWriters(1);
+        properties.setMaxWaitMs(50);
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        messageSearchIndex = mock(MessageSearchIndex.class);
+        pipeline = new MessageSendPipeline(properties, mock(JdbcTemplate.class), transactionTemplate,
+                mock(ConversationService.class), messageSearchIndex, mock(UserSummaryCache.class),
+                mock(NotificationEventService.class));
+        pipeline.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.stop();
+    }
+
+    @Test
+    void indexFailureDoesNotLeaveCommittedMessagesUnacknowledged() throws Exception {
+        doThrow(new IllegalStateException("segment flush failed"))
+                .when(messageSearchIndex).index(any(), anyLong(), anyLong(), anyString());
+
+        List<CompletableFuture<MessageResponse>> sent = List.of(
+                pipeline.submit(1L, 2L, "first"),
+                pipeline.submit(2L, 1L, "second"),
+                pipeline.submit(1L, 2L, "third"));
+
+        for (CompletableFuture<MessageResponse> future : sent) {
+            assertThat(future.get(5, TimeUnit.SECONDS).getContent()).isNotBlank();
+        }
+        verify(messageSearchIndex, times(3)).index(any(), anyLong(), anyLong(), anyString());
+        assertThat(pipeline.getMetrics()).containsEntry("committed", 3L).containsEntry("failed", 0L);
+    }
+}
@@ -0,0 +1,143 @@
+package com.socialmedia.modules.messaging.service;
+
+import com.socialmedia.config.ClusterProperties;
+import com.socialmedia.modules.messaging.config.PresenceProperties;
+import com.socialmedia.modules.messaging.dto.PresenceEvent;
+import com.socialmedia.modules.social.repository.FriendshipRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Two relay-mode nodes sharing one presence store, the way they share the user_presence table
+class PresenceServiceTest {
+
+    private static final Long ALICE = 1L;
+    private static final Long BOB = 2L;
+
+    private final Map<String, Set<Long>> sharedRows = new ConcurrentHashMap<>();
+    private FriendshipRepository friendshipRepository;
+    private SimpMessagingTemplate templateA;
+    private PresenceService nodeA;
+    private PresenceService nodeB;
+
+    @BeforeEach
+    void setUp() {
+        friendshipRepository = mock(FriendshipRepository.class);
+        when(friendshipRepository.findFriendIdsByUserId(ALICE)).thenReturn(List.of(BOB));
+        when(friendshipRepository.findFriendIdsByUserId(BOB)).thenReturn(List.of(ALICE));
+        templateA = mock(SimpMessagingTemplate.class);
+        nodeA = node("a", templateA);
+        nodeB = node("b", mock(SimpMessagingTemplate.class));
+    }
+
+    @Test
+    void userOnAnotherNodeCountsAsOnline() {
+        nodeA.heartbeat(ALICE, "alice-session");
+        assertThat(nodeB.isOnline(ALICE)).isFalse();
+
+        nodeA.tick();
+
+        assertThat(nodeB.isOnline(ALICE)).isTrue();
+        assertThat(nodeB.getOnlineFriendIds(BOB)).containsExactly(ALICE);
+    }
+
+    @Test
+    void disconnectIsVisibleToOtherNodes() {
+        nodeA.heartbeat(ALICE, "alice-session");
+        nodeA.tick();
+
+        nodeA.disconnect("alice-session");
+        nodeA.tick();
+
+        assertThat(nodeB.isOnline(ALICE)).isFalse();
+        assertThat(nodeB.getOnlineFriendIds(BOB)).isEmpty();
+    }
+
+    @Test
+    void closingOneOfSeveralNodeSessionsDoesNotPublishOffline() {
+        nodeB.heartbeat(BOB, "bob-session");
+        nodeB.tick();
+        nodeA.heartbeat(ALICE, "alice-on-a");
+        nodeB.heartbeat(ALICE, "alice-on-b");
+        nodeA.tick();
+        nodeB.tick();
+        verify(templateA).convertAndSendToUser(eq(BOB.toString()), eq("/queue/presence"), any(PresenceEvent.class));
+        clearInvocations(templateA);
+
+        nodeA.disconnect("alice-on-a");
+        nodeA.tick();
+
+        // Alice is still connected through node B
+        verify(templateA, never()).convertAndSendToUser(anyString(), anyString(), any(Object.class));
+        assertThat(nodeA.isOnline(ALICE)).isTrue();
+    }
+
+    @Test
+    void onlineChangeIsPushedToFriendsOnOtherNodes() {
+        nodeB.heartbeat(BOB, "bob-session");
+        nodeB.tick();
+
+        nodeA.heartbeat(ALICE, "alice-session");
+        nodeA.tick();
+
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(templateA).convertAndSendToUser(eq(BOB.toString()), eq("/queue/presence"), event.capture());
+        assertThat(((PresenceEvent) event.getValue()).isOnline()).isTrue();
+    }
+
+    private PresenceService node(String nodeId, SimpMessagingTemplate template) {
+        PresenceProperties properties = new PresenceProperties();
+        properties.setCoalesceWindowMs(0);
+        ClusterProperties clusterProperties = new ClusterProperties();
+        clusterProperties.setEnabled(true);
+        PresenceService service = new PresenceService(properties, friendshipRepository, template,
+                new SharedStore(nodeId, properties), clusterProperties);
+        service.init();
+        return service;
+    }
+
+    private class SharedStore extends PresenceStore {
+        private final String nodeId;
+
+        SharedStore(String nodeId, PresenceProperties properties) {
+            super(null, properties);
+            this.nodeId = nodeId;
+        }
+
+        @Override
+        public void sync(Collection<Long> online, Collection<Long> offline) {
+            Set<Long> rows = sharedRows.computeIfAbsent(nodeId, id -> ConcurrentHashMap.newKeySet());
+            rows.addAll(online);
+            rows.removeAll(offline);
+        }
+
+        @Override
+        public void refresh() {
+        }
+
+        @Override
+        public Set<Long> findOnline(Collection<Long> userIds) {
+            return userIds.stream()
+                    .filter(userId -> sharedRows.values().stream().anyMatch(rows -> rows.contains(userId)))
+                    .collect(Collectors.toSet());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.socialmedia.modules.messaging.service.impl;
+
+import com.socialmedia.modules.messaging.archive.ArchivedMessage;
+import com.socialmedia.modules.messaging.archive.MessageArchiveService;
+import com.socialmedia.modules.messaging.dto.MessageRequest;
+import com.socialmedia.modules.messaging.repository.MessageRepository;
+import com.socialmedia.modules.messaging.search.MessageSearchIndex;
+import com.socialmedia.modules.messaging.service.ConversationService;
+import com.socialmedia.modules.messaging.service.MessageSendPipeline;
+import com.socialmedia.modules.notification.service.NotificationEventService;
+import com.socialmedia.modules.user.dto.UserSummaryResponse;
+import com.socialmedia.modules.user.repository.UserRepository;
+import com.socialmedia.modules.user.service.UserSummaryCache;
+import com.socialmedia.shared.exception.exceptions.MessageNotFoundException;
+import com.socialmedia.shared.exception.exceptions.ValidationException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MessageServiceImplTest {
+
+    private MessageSendPipeline messageSendPipeline;
+    private UserSummaryCache userSummaryCache;
+    private MessageArchiveService messageArchiveService;
+    private MessageServiceImpl messageService;
+
+    @BeforeEach
+    void setUp() {
+        messageSendPipeline = mock(MessageSendPipeline.class);
+        userSummaryCache = mock(UserSummaryCache.class);
+        messageArchiveService = mock(MessageArchiveService.class);
+        when(messageSendPipeline.isEnabled()).thenReturn(true);
+        when(messageSendPipeline.submit(anyLong(), anyLong(), anyString())).thenReturn(new CompletableFuture<>());
+        when(userSummaryCache.get(anyLong())).thenReturn(new UserSummaryResponse());
+
+        messageService = new MessageServiceImpl(mock(MessageRepository.class), mock(UserRepository.class),
+                userSummaryCache, mock(ConversationService.class), mock(MessageSearchIndex.class),
+                messageSendPipeline, messageArchiveService, mock(NotificationEventService.class),
+                mock(TransactionTemplate.class), Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    @Test
+    void blankContentIsRejectedBeforeTheQueue() {
+        assertThatThrownBy(() -> messageService.sendMessageAsync(new MessageRequest(2L, "   "), 1L))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("content");
+        verify(messageSendPipeline, never()).submit(any(), any(), any());
+    }
+
+    @Test
+    void oversizedContentIsRejectedBeforeTheQueue() {
+        assertThatThrownBy(() -> messageService.sendMessageAsync(new MessageRequest(2L, "x".repeat(1001)), 1L))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("1000");
+        verify(messageSendPipeline, never()).submit(any(), any(), any());
+    }
+
+    @Test
+    void missingReceiverIsRejectedBeforeTheQueue() {
+        assertThatThrownBy(() -> messageService.sendMessageAsync(new MessageRequest(null, "hi"), 1L))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("receiverId");
+        verify(messageSendPipeline, never()).submit(any(), any(), any());
+    }
+
+    @Test
+    void validRequestIsQueued() {
+        messageService.sendMessageAsync(new MessageRequest(2L, "x".repeat(1000)), 1L);
+        verify(messageSendPipeline).submit(1L, 2L, "x".repeat(1000));
+    }
+
+    @Test
+    void deletingAMessageNoLongerInTheTableDeletesItFromTheArchive() {
+        when(messageArchiveService.delete(7L, 1L)).thenReturn(true);
+
+        messageService.deleteMessage(7L, 1L);
+
+        verify(messageArchiveService).delete(7L, 1L);
+    }
+
+    @Test
+    void deletingAnUnknownMessageFails() {
+        assertThatThrownBy(() -> messageService.deleteMessage(7L, 1L)).isInstanceOf(MessageNotFoundException.class);
+    }
+
+    @Test
+    void readingAnArchivedMessageReturnsItWithoutDeletingIt() {
+        when(messageArchiveService.find(7L, 1L))
+                .thenReturn(new ArchivedMessage(7L, 2L, 1L, "old", LocalDateTime.of(2024, 1, 1, 12, 0)));
+
+        assertThat(messageService.getMessageById(7L, 1L).getContent()).isEqualTo("old");
+        assertThatThrownBy(() -> messageService.getMessageById(8L, 1L)).isInstanceOf(MessageNotFoundException.class);
+        verify(messageArchiveService, never()).delete(anyLong(), anyLong());
+    }
+}
@@ -0,0 +1,134 @@
+package com.socialmedia.modules.notification.service;
+
+import com.socialmedia.modules.messaging.repository.MessageRepository;
+import com.socialmedia.modules.notification.dto.NotificationResponse;
+import com.socialmedia.modules.notification.entity.Notification;
+import com.socialmedia.modules.post.dto.PostSummaryResponse;
+import com.socialmedia.modules.post.entity.Post;
+import com.socialmedia.modules.post.repository.PostRepository;
+import com.socialmedia.modules.post.service.PostHydrationService;
+import com.socialmedia.modules.social.repository.CommentRepository;
+import com.socialmedia.modules.user.dto.UserSummaryResponse;
+import com.socialmedia.modules.user.service.UserSummaryCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationHydrationServiceTest {
+
+    private static final Long ALICE = 1L;
+    private static final Long BOB = 2L;
+    private static final Long CAROL = 3L;
+    private static final Long POST_ID = 10L;
+    private static final Long COMMENTED_POST_ID = 11L;
+    private static final Long COMMENT_ID = 20L;
+    private static final Long MESSAGE_ID = 30L;
+
+    private UserSummaryCache userSummaryCache;
+    private PostRepository postRepository;
+    private PostHydrationService postHydrationService;
+    private CommentRepository commentRepository;
+    private MessageRepository messageRepository;
+    private NotificationHydrationService service;
+
+    @BeforeEach
+    void setUp() {
+        userSummaryCache = mock(UserSummaryCache.class);
+        postRepository = mock(PostRepository.class);
+        postHydrationService = mock(PostHydrationService.class);
+        commentRepository = mock(CommentRepository.class);
+        messageRepository = mock(MessageRepository.class);
+        service = new NotificationHydrationService(userSummaryCache, postRepository, postHydrationService,
+                commentRepository, messageRepository);
+
+        when(userSummaryCache.getAll(anyCollection())).thenAnswer(invocation ->
+                invocation.<Collection<Long>>getArgument(0).stream()
+                        .collect(Collectors.toMap(Function.identity(), NotificationHydrationServiceTest::summary)));
+        when(commentRepository.findPostIdsByIds(anyList()))
+                .thenReturn(List.<Object[]>of(new Object[]{COMMENT_ID, COMMENTED_POST_ID}));
+        when(messageRepository.findSenderIdsByIds(anyList()))
+                .thenReturn(List.<Object[]>of(new Object[]{MESSAGE_ID, CAROL}));
+        when(postRepository.findPostsWithUserByIds(anyList())).thenReturn(List.of(new Post(), new Post()));
+        when(postHydrationService.hydrateSummaries(anyList())).thenReturn(List.of(
+                postSummary(POST_ID), postSummary(COMMENTED_POST_ID)));
+    }
+
+    @Test
+    void pageIsResolvedWithOneLookupPerKind() {
+        List<NotificationResponse> responses = service.hydrate(List.of(
+                notification(Notification.NotificationType.LIKE, POST_ID, 3L, ALICE, BOB),
+                notification(Notification.NotificationType.COMMENT_MENTION, COMMENT_ID, 1L, BOB),
+                notification(Notification.NotificationType.FRIEND_REQUEST, CAROL, 1L, CAROL),
+                // Written before actors were recorded
+                notification(Notification.NotificationType.MESSAGE, MESSAGE_ID, 1L)));
+
+        verify(userSummaryCache, times(1)).getAll(anyCollection());
+        verify(postRepository, times(1)).findPostsWithUserByIds(anyList());
+        verify(commentRepository, times(1)).findPostIdsByIds(anyList());
+        verify(messageRepository, times(1)).findSenderIdsByIds(anyList());
+
+        assertThat(responses.get(0).getRelatedPost().getId()).isEqualTo(POST_ID);
+        assertThat(responses.get(0).getRelatedUser().getId()).isEqualTo(ALICE);
+        assertThat(responses.get(0).getContent()).isEqualTo(
+                NotificationTemplates.render(Notification.NotificationType.LIKE, "user" + ALICE, 3));
+        assertThat(responses.get(1).getRelatedPost().getId()).isEqualTo(COMMENTED_POST_ID);
+        assertThat(responses.get(2).getRelatedUser().getId()).isEqualTo(CAROL);
+        assertThat(responses.get(3).getRelatedUser().getId()).isEqualTo(CAROL);
+    }
+
+    @Test
+    void postIdsAreNotLookedUpAsUsers() {
+        service.hydrate(List.of(notification(Notification.NotificationType.LIKE, POST_ID, 1L, ALICE)));
+
+        ArgumentCaptor<Collection<Long>> userIds = ArgumentCaptor.forClass(Collection.class);
+        verify(userSummaryCache).getAll(userIds.capture());
+        assertThat(userIds.getValue()).containsExactly(ALICE);
+
+        ArgumentCaptor<List<Long>> postIds = ArgumentCaptor.forClass(List.class);
+        verify(postRepository).findPostsWithUserByIds(postIds.capture());
+        assertThat(postIds.getValue()).containsExactly(POST_ID);
+    }
+
+    @Test
+    void emptyPageNeedsNoLookups() {
+        assertThat(service.hydrate(List.of())).isEmpty();
+
+        verify(userSummaryCache, times(0)).getAll(anyCollection());
+        verify(postRepository, times(0)).findPostsWithUserByIds(anyList());
+    }
+
+    private static Notification notification(Notification.NotificationType type, Long relatedId, Long actorCount,
+                                             Long... lastActorIds) {
+        Notification notification = new Notification();
+        notification.setType(type);
+        notification.setRelatedId(relatedId);
+        notification.setContent("first actor's text");
+        notification.setActorCount(actorCount);
+        notification.setLastActorIds(lastActorIds);
+        notification.setCreatedAt(LocalDateTime.now());
+        return notification;
+    }
+
+    private static UserSummaryResponse summary(Long userId) {
+        return UserSummaryResponse.builder().id(userId).username("user" + userId).build();
+    }
+
+    private static PostSummaryResponse postSummary(Long postId) {
+        return new PostSummaryResponse(postId, "content", null, LocalDateTime.now(), "author", null, 0L, 0L);
+    }
+}
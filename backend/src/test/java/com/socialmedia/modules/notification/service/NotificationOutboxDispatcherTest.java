@@ -0,0 +1,148 @@
+package com.socialmedia.modules.notification.service;
+
+import com.socialmedia.PostgresIntegrationTest;
+import com.socialmedia.modules.user.entity.User;
+import com.socialmedia.modules.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Events go through the real outbox table and dispatcher against PostgreSQL
+class NotificationOutboxDispatcherTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private NotificationEventService eventService;
+
+    @Autowired
+    private NotificationOutboxDispatcher dispatcher;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long recipient;
+    private Long alice;
+    private Long bob;
+    private Long carol;
+    private Long postId;
+
+    @BeforeEach
+    void setUp() {
+        recipient = user("recipient");
+        alice = user("alice");
+        bob = user("bob");
+        carol = user("carol");
+        postId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    }
+
+    @Test
+    void likesOnOnePostAreMergedIntoOneRowNewestActorFirst() throws InterruptedException {
+        eventService.createLikeNotification(recipient, alice, postId);
+        eventService.createLikeNotification(recipient, bob, postId);
+        eventService.createLikeNotification(recipient, carol, postId);
+
+        List<Row> rows = awaitRows(result -> result.size() == 1 && result.get(0).actorCount() == 3);
+
+        assertThat(rows.get(0).type()).isEqualTo("LIKE");
+        assertThat(rows.get(0).relatedId()).isEqualTo(postId);
+        assertThat(rows.get(0).lastActorIds()).containsExactly(carol, bob, alice);
+    }
+
+    @Test
+    void unlikeTakesTheActorOutAndTheLastUnlikeRemovesTheRow() throws InterruptedException {
+        eventService.createLikeNotification(recipient, alice, postId);
+        eventService.createLikeNotification(recipient, bob, postId);
+        awaitRows(result -> result.size() == 1 && result.get(0).actorCount() == 2);
+
+        eventService.removeLikeNotification(recipient, bob, postId);
+        List<Row> rows = awaitRows(result -> result.size() == 1 && result.get(0).actorCount() == 1);
+        assertThat(rows.get(0).lastActorIds()).containsExactly(alice);
+
+        eventService.removeLikeNotification(recipient, alice, postId);
+        awaitRows(List::isEmpty);
+    }
+
+    @Test
+    void typesOutsideAggregationGetOneRowEach() throws InterruptedException {
+        eventService.createMessageNotification(recipient, alice, postId);
+        eventService.createMessageNotification(recipient, alice, postId + 1);
+
+        List<Row> rows = awaitRows(result -> result.size() == 2);
+
+        assertThat(rows).allSatisfy(row -> {
+            assertThat(row.type()).isEqualTo("MESSAGE");
+            assertThat(row.actorCount()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void eventsOfARolledBackTransactionAreNeverDelivered() throws InterruptedException {
+        transactionTemplate.executeWithoutResult(status -> {
+            eventService.createCommentNotification(recipient, alice, postId);
+            status.setRollbackOnly();
+        });
+        eventService.createLikeNotification(recipient, bob, postId);
+
+        // The outbox is drained in id order, so once the later like is in nothing else is coming
+        List<Row> rows = awaitRows(result -> !result.isEmpty());
+
+        assertThat(rows).extracting(Row::type).containsExactly("LIKE");
+    }
+
+    @Test
+    void nobodyIsNotifiedAboutTheirOwnActions() {
+        eventService.createLikeNotification(recipient, recipient, postId);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notification_outbox WHERE user_id = ?",
+                Integer.class, recipient)).isZero();
+    }
+
+    // Runs the dispatcher alongside the scheduled one until the recipient's notifications match
+    private List<Row> awaitRows(Predicate<List<Row>> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        List<Row> rows;
+        while (!condition.test(rows = rows())) {
+            assertThat(System.nanoTime()).as("notifications did not settle within 10s: %s", rows).isLessThan(deadline);
+            dispatcher.dispatch();
+            Thread.sleep(50);
+        }
+        return rows;
+    }
+
+    private List<Row> rows() {
+        return jdbcTemplate.query("SELECT type, related_id, actor_count, last_actor_ids FROM notifications " +
+                        "WHERE user_id = ? ORDER BY id",
+                (rs, rowNum) -> new Row(rs.getString("type"), rs.getLong("related_id"), rs.getLong("actor_count"),
+                        Arrays.asList((Long[]) rs.getArray("last_actor_ids").getArray())),
+                recipient);
+    }
+
+    private Long user(String name) {
+        String username = name + UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("password");
+        user.setActive(true);
+        return userRepository.save(user).getId();
+    }
+
+    private record Row(String type, Long relatedId, long actorCount, List<Long> lastActorIds) {
+    }
+}
@@ -0,0 +1,119 @@
+package com.socialmedia.modules.notification.service;
+
+import com.socialmedia.modules.notification.config.NotificationRetentionProperties;
+import com.socialmedia.modules.notification.entity.Notification;
+import com.socialmedia.modules.notification.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationRetentionServiceTest {
+
+    private static final int TODAY = Notification.bucketOf(LocalDateTime.now());
+
+    private NotificationRetentionProperties properties;
+    private NotificationRepository notificationRepository;
+    private NotificationUnreadCounters unreadCounters;
+    private JdbcTemplate jdbcTemplate;
+    private NotificationRetentionService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new NotificationRetentionProperties();
+        properties.setRetentionDays(30);
+        properties.setPartitionsAhead(2);
+        notificationRepository = mock(NotificationRepository.class);
+        unreadCounters = mock(NotificationUnreadCounters.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(jdbcTemplate.queryForObject(eq("SELECT to_regclass(?) IS NOT NULL"), eq(Boolean.class), anyString()))
+                .thenReturn(false);
+        when(notificationRepository.findOldestBucket()).thenReturn(Optional.empty());
+        service = new NotificationRetentionService(properties, notificationRepository, unreadCounters,
+                transactionTemplate, jdbcTemplate);
+    }
+
+    @Test
+    void retentionIsOffByDefault() {
+        assertThat(new NotificationRetentionProperties().isEnabled()).isFalse();
+
+        service.purge();
+
+        verify(notificationRepository, never()).deleteFromBucket(anyInt(), anyInt());
+        verify(jdbcTemplate, never()).execute(contains("DROP TABLE"));
+        verify(unreadCounters, never()).invalidateAll();
+    }
+
+    @Test
+    void partitionsAreCreatedAheadEvenWhenRetentionIsOff() {
+        partitioned(true);
+
+        service.purge();
+
+        for (int bucket = TODAY; bucket <= TODAY + 2; bucket++) {
+            verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS notifications_b" + bucket +
+                    " PARTITION OF notifications FOR VALUES FROM (" + bucket + ") TO (" + (bucket + 1) + ")");
+        }
+        verify(jdbcTemplate, never()).execute(contains("DROP TABLE"));
+    }
+
+    @Test
+    void partitionedTableDropsExpiredDaysInsteadOfDeletingRows() {
+        properties.setEnabled(true);
+        partitioned(true);
+        int oldestLive = properties.oldestLiveBucket();
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class))).thenReturn(List.of(
+                "notifications_b" + (oldestLive - 2), "notifications_b" + (oldestLive - 1),
+                "notifications_b" + oldestLive, "notifications_default"));
+
+        service.purge();
+
+        verify(jdbcTemplate).execute("DROP TABLE IF EXISTS notifications_b" + (oldestLive - 2));
+        verify(jdbcTemplate).execute("DROP TABLE IF EXISTS notifications_b" + (oldestLive - 1));
+        verify(jdbcTemplate, times(2)).execute(contains("DROP TABLE"));
+        verify(notificationRepository, never()).deleteFromBucket(anyInt(), anyInt());
+        verify(unreadCounters).invalidateAll();
+        assertThat(service.getMetrics()).containsEntry("droppedPartitions", 2L);
+    }
+
+    @Test
+    void unpartitionedTableFallsBackToBatchedDeletes() {
+        properties.setEnabled(true);
+        properties.setPurgeBatchSize(100);
+        partitioned(false);
+        int expired = properties.oldestLiveBucket() - 1;
+        when(notificationRepository.findOldestBucket()).thenReturn(Optional.of(expired), Optional.empty());
+        when(notificationRepository.deleteFromBucket(expired, 100)).thenReturn(100, 40);
+
+        service.purge();
+
+        verify(notificationRepository, times(2)).deleteFromBucket(expired, 100);
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(unreadCounters).invalidateAll();
+        assertThat(service.getMetrics()).containsEntry("purgedRows", 140L);
+    }
+
+    private void partitioned(boolean partitioned) {
+        when(jdbcTemplate.queryForObject(contains("pg_partitioned_table"), eq(Boolean.class))).thenReturn(partitioned);
+    }
+}
@@ -0,0 +1,77 @@
+package com.socialmedia.modules.notification.service;
+
+import com.socialmedia.config.ClusterProperties;
+import com.socialmedia.modules.notification.config.NotificationCounterProperties;
+import com.socialmedia.modules.notification.config.NotificationRetentionProperties;
+import com.socialmedia.modules.notification.entity.Notification;
+import com.socialmedia.modules.notification.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationUnreadCountersTest {
+
+    private static final Long USER_ID = 1L;
+
+    private NotificationRepository notificationRepository;
+    private NotificationCounterProperties properties;
+    private ClusterProperties clusterProperties;
+
+    @BeforeEach
+    void setUp() {
+        notificationRepository = mock(NotificationRepository.class);
+        properties = new NotificationCounterProperties();
+        properties.setClusteredTtlSeconds(1);
+        clusterProperties = new ClusterProperties();
+    }
+
+    @Test
+    void singleNodeAdjustsCachedCountsInPlace() {
+        unread(3L);
+        NotificationUnreadCounters counters = counters();
+
+        assertThat(counters.get(USER_ID, Notification.NotificationType.LIKE)).isEqualTo(3);
+        counters.increment(USER_ID, Notification.NotificationType.LIKE);
+        counters.decrement(USER_ID, Notification.NotificationType.COMMENT);
+
+        assertThat(counters.get(USER_ID, Notification.NotificationType.LIKE)).isEqualTo(4);
+        assertThat(counters.total(USER_ID)).isEqualTo(4);
+        verify(notificationRepository, times(1)).countUnreadByType(eq(USER_ID), anyInt());
+    }
+
+    @Test
+    void clusteredNodePicksUpChangesMadeElsewhereWithinSeconds() throws InterruptedException {
+        clusterProperties.setEnabled(true);
+        unread(3L);
+        NotificationUnreadCounters counters = counters();
+        assertThat(counters.total(USER_ID)).isEqualTo(3);
+
+        // Another node stored two more notifications and adjusted only its own cache
+        unread(5L);
+        assertThat(counters.total(USER_ID)).isEqualTo(3);
+
+        Thread.sleep(1100);
+        assertThat(counters.total(USER_ID)).isEqualTo(5);
+    }
+
+    private NotificationUnreadCounters counters() {
+        NotificationUnreadCounters counters = new NotificationUnreadCounters(notificationRepository, properties,
+                new NotificationRetentionProperties(), clusterProperties);
+        counters.init();
+        return counters;
+    }
+
+    private void unread(long likes) {
+        when(notificationRepository.countUnreadByType(eq(USER_ID), anyInt()))
+                .thenReturn(List.<Object[]>of(new Object[]{Notification.NotificationType.LIKE, likes}));
+    }
+}
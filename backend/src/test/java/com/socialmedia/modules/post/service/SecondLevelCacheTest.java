@@ -0,0 +1,207 @@
+package com.socialmedia.modules.post.service;
+
+import com.socialmedia.PostgresIntegrationTest;
+import com.socialmedia.QueryCounter;
+import com.socialmedia.modules.post.dto.PostRequest;
+import com.socialmedia.modules.post.entity.Post;
+import com.socialmedia.modules.post.repository.PostRepository;
+import com.socialmedia.modules.social.dto.CommentRequest;
+import com.socialmedia.modules.social.entity.Friendship;
+import com.socialmedia.modules.social.repository.FriendshipRepository;
+import com.socialmedia.modules.social.service.CommentService;
+import com.socialmedia.modules.social.service.LikeService;
+import com.socialmedia.modules.user.entity.User;
+import com.socialmedia.modules.user.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The User and Post regions configured in ehcache.xml, eviction of cached posts when their counters are
+ * written through JDBC, and the statements a typical session saves with the cache on. Needs the JCache provider: run with {@code mvn test -Pl2cache}.
+ */
+@ActiveProfiles("l2cache")
+class SecondLevelCacheTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostCounterService postCounterService;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private FriendshipRepository friendshipRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private User user;
+    private Post post;
+
+    @BeforeAll
+    static void requireCacheProvider() {
+        assumeTrue(ClassUtils.isPresent("org.hibernate.cache.jcache.internal.JCacheRegionFactory", null),
+                "hibernate-jcache and ehcache are only on the classpath with -Pl2cache");
+    }
+
+    @BeforeEach
+    void setUp() {
+        String username = "cached" + UUID.randomUUID().toString().substring(0, 8);
+        user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("password");
+        user = userRepository.save(user);
+
+        post = new Post();
+        post.setContent("Cached post");
+        post.setUser(user);
+        post.setCreatedAt(LocalDateTime.now());
+        post.setUpdatedAt(LocalDateTime.now());
+        post = postRepository.save(post);
+
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void userIsLoadedOnceAndThenServedFromTheCache() {
+        CacheRegionStatistics region = statistics("user");
+        long misses = region.getMissCount();
+        long hits = region.getHitCount();
+
+        int firstLoad = QueryCounter.count(() -> findUser(user.getId()));
+        assertThat(region.getMissCount()).isEqualTo(misses + 1);
+        assertThat(entityManagerFactory.getCache().contains(User.class, user.getId())).isTrue();
+
+        int secondLoad = QueryCounter.count(() -> findUser(user.getId()));
+        assertThat(region.getHitCount()).isEqualTo(hits + 1);
+        assertThat(firstLoad).isPositive();
+        assertThat(secondLoad).isZero();
+    }
+
+    @Test
+    void postIsServedFromTheCacheUntilItsCountersChange() {
+        assertThat(findPost(post.getId()).getLikeCount()).isZero();
+        assertThat(entityManagerFactory.getCache().contains(Post.class, post.getId())).isTrue();
+        assertThat(QueryCounter.count(() -> findPost(post.getId()))).isZero();
+
+        postCounterService.incrementLikeCount(post.getId(), 1);
+
+        assertThat(entityManagerFactory.getCache().contains(Post.class, post.getId())).isFalse();
+        assertThat(findPost(post.getId()).getLikeCount()).isEqualTo(1);
+    }
+
+    @Test
+    void counterUpdateInsideATransactionLeavesNoStaleEntry() {
+        findPost(post.getId());
+
+        transactionTemplate.executeWithoutResult(status ->
+                postCounterService.incrementCommentCount(post.getId(), 2));
+
+        assertThat(entityManagerFactory.getCache().contains(Post.class, post.getId())).isFalse();
+        assertThat(findPost(post.getId()).getCommentCount()).isEqualTo(2);
+    }
+
+    @Test
+    void feedCommentAndLikeSessionIssuesFewerStatementsWithTheCacheOn() {
+        User viewer = activeUser("viewer");
+        User author = activeUser("author");
+        Friendship friendship = new Friendship();
+        friendship.setRequester(viewer);
+        friendship.setAddressee(author);
+        friendship.setStatus(Friendship.FriendshipStatus.ACCEPTED);
+        friendshipRepository.save(friendship);
+        List<Long> postIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            postIds.add(postService.createPost(new PostRequest("Session post " + i, null), author.getId()).getId());
+        }
+
+        // The first session warms the timeline buffer and, with the cache on, the user and post regions
+        entityManagerFactory.getCache().evictAll();
+        session(CacheMode.IGNORE, viewer.getId(), postIds.get(0));
+        int uncached = session(CacheMode.IGNORE, viewer.getId(), postIds.get(1));
+
+        entityManagerFactory.getCache().evictAll();
+        session(CacheMode.NORMAL, viewer.getId(), postIds.get(2));
+        int cached = session(CacheMode.NORMAL, viewer.getId(), postIds.get(3));
+
+        assertThat(cached).as("statements with the cache on (%d) and off (%d)", cached, uncached)
+                .isLessThan(uncached);
+    }
+
+    // Each step is its own transaction, as when called from a controller
+    private int session(CacheMode cacheMode, Long viewerId, Long postId) {
+        return QueryCounter.count(() -> {
+            step(cacheMode, () -> postService.getFeedPosts(viewerId, PageRequest.of(0, 10)));
+            step(cacheMode, () -> commentService.createComment(new CommentRequest("Nice one", postId), viewerId));
+            step(cacheMode, () -> likeService.likePost(postId, viewerId));
+        });
+    }
+
+    private void step(CacheMode cacheMode, Runnable action) {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setCacheMode(cacheMode);
+            action.run();
+        });
+    }
+
+    private User activeUser(String name) {
+        String username = name + UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("password");
+        user.setActive(true);
+        return userRepository.save(user);
+    }
+
+    private User findUser(Long userId) {
+        return transactionTemplate.execute(status -> userRepository.findById(userId).orElseThrow());
+    }
+
+    private Post findPost(Long postId) {
+        return transactionTemplate.execute(status -> postRepository.findById(postId).orElseThrow());
+    }
+
+    private CacheRegionStatistics statistics(String region) {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics().getDomainDataRegionStatistics(region);
+    }
+}
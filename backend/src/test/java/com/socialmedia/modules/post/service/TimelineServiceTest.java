@@ -0,0 +1,100 @@
+package com.socialmedia.modules.post.service;
+
+import com.socialmedia.config.ClusterProperties;
+import com.socialmedia.modules.post.config.TimelineProperties;
+import com.socialmedia.modules.post.entity.TimelineEntry;
+import com.socialmedia.modules.post.repository.PostRepository;
+import com.socialmedia.modules.post.repository.TimelineEntryRepository;
+import com.socialmedia.modules.social.repository.FriendshipRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TimelineServiceTest {
+
+    private static final Long OWNER_ID = 1L;
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 10);
+
+    private TimelineEntryRepository timelineEntryRepository;
+    private TimelineProperties properties;
+    private ClusterProperties clusterProperties;
+    private List<TimelineEntry> entries;
+
+    @BeforeEach
+    void setUp() {
+        timelineEntryRepository = mock(TimelineEntryRepository.class);
+        properties = new TimelineProperties();
+        clusterProperties = new ClusterProperties();
+        entries = new ArrayList<>();
+        when(timelineEntryRepository.findByOwnerIdOrderedByCreatedAt(eq(OWNER_ID), any()))
+                .thenAnswer(invocation -> new PageImpl<>(new ArrayList<>(entries)));
+        when(timelineEntryRepository.countByOwnerId(OWNER_ID)).thenAnswer(invocation -> (long) entries.size());
+        entry(10L);
+    }
+
+    @Test
+    void singleNodeServesReadsFromTheBuffer() {
+        TimelineService service = service();
+        assertThat(service.getTimelinePostIds(OWNER_ID, FIRST_PAGE).getContent()).containsExactly(10L);
+
+        // Only this node writes, and its own fan-out would have pushed into the buffer
+        entry(11L);
+
+        assertThat(service.getTimelinePostIds(OWNER_ID, FIRST_PAGE).getContent()).containsExactly(10L);
+        verify(timelineEntryRepository, times(1)).findByOwnerIdOrderedByCreatedAt(eq(OWNER_ID), any());
+    }
+
+    @Test
+    void clusteredNodeReloadsBuffersOnceTheyExpire() {
+        clusterProperties.setEnabled(true);
+        properties.setClusteredBufferTtlSeconds(0);
+        TimelineService service = service();
+        assertThat(service.getTimelinePostIds(OWNER_ID, FIRST_PAGE).getContent()).containsExactly(10L);
+
+        // Fanned out by another node straight into timeline_entries
+        entry(11L);
+
+        assertThat(service.getTimelinePostIds(OWNER_ID, FIRST_PAGE).getContent()).containsExactly(11L, 10L);
+        assertThat(service.getTimelinePostIds(OWNER_ID, FIRST_PAGE).getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void clusteredNodeKeepsBuffersWithinTheTtl() {
+        clusterProperties.setEnabled(true);
+        TimelineService service = service();
+        service.getTimelinePostIds(OWNER_ID, FIRST_PAGE);
+        service.getTimelinePostIds(OWNER_ID, FIRST_PAGE);
+
+        verify(timelineEntryRepository, times(1)).findByOwnerIdOrderedByCreatedAt(eq(OWNER_ID), any());
+    }
+
+    private TimelineService service() {
+        TimelineService service = new TimelineService(timelineEntryRepository, mock(FriendshipRepository.class),
+                mock(PostRepository.class), mock(JdbcTemplate.class), properties, clusterProperties);
+        service.initBuffers();
+        return service;
+    }
+
+    private void entry(Long postId) {
+        TimelineEntry entry = new TimelineEntry();
+        entry.setOwnerId(OWNER_ID);
+        entry.setPostId(postId);
+        entry.setAuthorId(2L);
+        entry.setCreatedAt(LocalDateTime.now().plusSeconds(postId));
+        entries.add(0, entry);
+    }
+}
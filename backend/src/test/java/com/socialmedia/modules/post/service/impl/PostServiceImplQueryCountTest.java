@@ -0,0 +1,111 @@
+package com.socialmedia.modules.post.service.impl;
+
+import com.socialmedia.PostgresIntegrationTest;
+import com.socialmedia.QueryCounter;
+import com.socialmedia.modules.post.dto.PostRequest;
+import com.socialmedia.modules.post.dto.PostResponse;
+import com.socialmedia.modules.post.service.PostService;
+import com.socialmedia.modules.social.entity.Friendship;
+import com.socialmedia.modules.social.repository.FriendshipRepository;
+import com.socialmedia.modules.social.service.LikeService;
+import com.socialmedia.modules.user.entity.User;
+import com.socialmedia.modules.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A page must cost the same number of statements whether it holds 5 or 25 posts
+class PostServiceImplQueryCountTest extends PostgresIntegrationTest {
+
+    private static final int POSTS = 30;
+    private static final int SMALL_PAGE = 5;
+    private static final int LARGE_PAGE = 25;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FriendshipRepository friendshipRepository;
+
+    private User viewer;
+    private User author;
+
+    @BeforeEach
+    void setUp() {
+        // The context is shared between tests, so every test gets its own users
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        viewer = user("viewer" + suffix);
+        author = user("author" + suffix);
+
+        Friendship friendship = new Friendship();
+        friendship.setRequester(viewer);
+        friendship.setAddressee(author);
+        friendship.setStatus(Friendship.FriendshipStatus.ACCEPTED);
+        friendshipRepository.save(friendship);
+
+        List<PostResponse> posts = new ArrayList<>();
+        for (int i = 0; i < POSTS; i++) {
+            posts.add(postService.createPost(new PostRequest("Post " + i, null), author.getId()));
+        }
+        // The newest posts are on every page measured below, so the liked-flag lookup always runs
+        for (PostResponse post : posts.subList(POSTS - 3, POSTS)) {
+            likeService.likePost(post.getId(), viewer.getId());
+        }
+    }
+
+    @Test
+    void feedPage() {
+        assertConstantStatements(size -> postService.getFeedPosts(viewer.getId(), PageRequest.of(0, size))
+                .getContent());
+    }
+
+    @Test
+    void userPostsPage() {
+        assertConstantStatements(size -> postService.getUserPosts(author.getId(), viewer.getId(),
+                PageRequest.of(0, size)).getContent());
+    }
+
+    @Test
+    void recentPosts() {
+        assertConstantStatements(postService::getRecentPosts);
+    }
+
+    private void assertConstantStatements(IntFunction<List<?>> page) {
+        // Warm the in-memory timeline and user summary caches so both sizes run against the same state
+        page.apply(LARGE_PAGE);
+
+        List<List<?>> pages = new ArrayList<>();
+        int small = QueryCounter.count(() -> pages.add(page.apply(SMALL_PAGE)));
+        int large = QueryCounter.count(() -> pages.add(page.apply(LARGE_PAGE)));
+
+        assertThat(pages.get(0)).hasSize(SMALL_PAGE);
+        assertThat(pages.get(1)).hasSize(LARGE_PAGE);
+        assertThat(small).isPositive();
+        assertThat(large).isEqualTo(small);
+    }
+
+    private User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("password");
+        user.setFirstName("Test");
+        user.setLastName(username);
+        user.setActive(true);
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,158 @@
+package com.socialmedia.modules.social.service;
+
+import com.socialmedia.modules.notification.service.NotificationEventService;
+import com.socialmedia.modules.post.repository.PostRepository;
+import com.socialmedia.modules.post.service.PostCounterService;
+import com.socialmedia.modules.social.config.LikeBufferProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LikeWriteBufferTest {
+
+    private static final long HOT_POST_ID = 1L;
+    private static final int THREADS = 32;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private LikeBufferProperties properties;
+    private LikeWriteBuffer buffer;
+
+    private final AtomicBoolean failWrites = new AtomicBoolean();
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        properties = new LikeBufferProperties();
+        properties.setEnabled(true);
+        properties.setFlushThreshold(Integer.MAX_VALUE);
+        properties.setMaxFlushAttempts(3);
+
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    if (failWrites.get()) {
+                        throw new DataAccessResourceFailureException("database unavailable");
+                    }
+                    Collection<?> args = invocation.getArgument(1);
+                    int batchSize = invocation.getArgument(2);
+                    return succeeded(args.size(), batchSize);
+                });
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        buffer = new LikeWriteBuffer(jdbcTemplate, transactionTemplate, properties,
+                mock(PostCounterService.class), mock(LikeBloomFilter.class),
+                mock(PostRepository.class), mock(NotificationEventService.class));
+        buffer.init();
+        pool = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+        buffer.shutdown();
+    }
+
+    @Test
+    void databaseLookupDoesNotHoldTheStripeLock() throws Exception {
+        CountDownLatch lookupStarted = new CountDownLatch(1);
+        CountDownLatch releaseLookup = new CountDownLatch(1);
+
+        Future<Boolean> slow = pool.submit(() -> buffer.like(HOT_POST_ID, 1L, () -> {
+            lookupStarted.countDown();
+            await(releaseLookup);
+            return false;
+        }));
+        assertThat(lookupStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Same post, same stripe: this must not wait for the slow lookup above
+        Future<Boolean> fast = pool.submit(() -> buffer.like(HOT_POST_ID, 2L, () -> false));
+        assertThat(fast.get(5, TimeUnit.SECONDS)).isTrue();
+
+        releaseLookup.countDown();
+        assertThat(slow.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(buffer.getPendingDelta(HOT_POST_ID)).isEqualTo(2L);
+    }
+
+    @Test
+    void failedBatchIsDeadLetteredAfterMaxAttempts() {
+        buffer.like(HOT_POST_ID, 1L, () -> false);
+        buffer.like(HOT_POST_ID, 2L, () -> false);
+        failWrites.set(true);
+
+        for (int attempt = 1; attempt < properties.getMaxFlushAttempts(); attempt++) {
+            buffer.flush();
+            assertThat(buffer.getPendingCount()).isEqualTo(2);
+            assertThat(buffer.getPendingDelta(HOT_POST_ID)).isEqualTo(2L);
+        }
+        buffer.flush();
+
+        assertThat(buffer.getPendingCount()).isZero();
+        assertThat(buffer.getPendingDelta(HOT_POST_ID)).isZero();
+        assertThat(buffer.getBufferedState(HOT_POST_ID, 1L)).isNull();
+        assertThat(buffer.getMetrics()).containsEntry("deadLettered", 2L);
+    }
+
+    @Test
+    void toggleDuringFailedFlushCancelsOut() {
+        buffer.like(HOT_POST_ID, 1L, () -> false);
+        failWrites.set(true);
+        doAnswer(invocation -> {
+            // The user unlikes while the like is in flight, then the flush fails
+            buffer.unlike(HOT_POST_ID, 1L, () -> true);
+            throw new DataAccessResourceFailureException("database unavailable");
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        buffer.flush();
+
+        assertThat(buffer.getPendingCount()).isZero();
+        assertThat(buffer.getPendingDelta(HOT_POST_ID)).isZero();
+        assertThat(buffer.getBufferedState(HOT_POST_ID, 1L)).isNull();
+    }
+
+    private int[][] succeeded(int rows, int batchSize) {
+        int[][] result = new int[(rows + batchSize - 1) / batchSize][];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new int[Math.min(batchSize, rows - i * batchSize)];
+            Arrays.fill(result[i], 1);
+        }
+        return result;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.socialmedia.modules.social.service.impl;
+
+import com.socialmedia.PostgresIntegrationTest;
+import com.socialmedia.QueryCounter;
+import com.socialmedia.modules.post.dto.PostRequest;
+import com.socialmedia.modules.post.service.PostService;
+import com.socialmedia.modules.social.config.LikeBufferProperties;
+import com.socialmedia.modules.social.service.LikeService;
+import com.socialmedia.modules.social.service.LikeWriteBuffer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 10k users liking one hot post through LikeServiceImpl against PostgreSQL, once per write mode. Direct: every
+ * like checks, inserts and bumps the post's counter in its own transaction, serialized on the post row.
+ * Write-behind: only the check runs per like; the flush batches the inserts and bumps the counter once.
+ * Run with {@code mvn test -Dgroups=benchmark -Dexcluded.test.groups=}.
+ */
+@Tag("benchmark")
+@Slf4j
+// Flushes only run when the benchmark calls flush(), on its own thread, so QueryCounter sees them
+@TestPropertySource(properties = {
+        "app.likes.write-behind.enabled=true",
+        "app.likes.write-behind.flush-threshold=1000000",
+        "app.likes.write-behind.flush-interval-ms=3600000"
+})
+class LikeServiceImplBenchmarkTest extends PostgresIntegrationTest {
+
+    private static final int LIKERS = 10_000;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private LikeWriteBuffer likeWriteBuffer;
+
+    @Autowired
+    private LikeBufferProperties likeBufferProperties;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long authorId;
+    private List<Long> likerIds;
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() {
+        String prefix = "liker" + UUID.randomUUID().toString().substring(0, 8) + "_";
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i <= LIKERS; i++) {
+            rows.add(new Object[]{prefix + i, prefix + i + "@example.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, email, password, active, created_at, updated_at) " +
+                "VALUES (?, ?, 'password', true, now(), now())", rows);
+        List<Long> userIds = jdbcTemplate.queryForList("SELECT id FROM users WHERE username LIKE ? ORDER BY id",
+                Long.class, prefix + "%");
+        authorId = userIds.get(0);
+        likerIds = userIds.subList(1, userIds.size());
+        pool = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+        likeBufferProperties.setEnabled(true);
+    }
+
+    @Test
+    void tenThousandLikersOnOneHotPost() throws InterruptedException {
+        likeBufferProperties.setEnabled(false);
+        Run direct = run();
+
+        likeBufferProperties.setEnabled(true);
+        Run buffered = run();
+
+        assertThat(buffered.statements())
+                .as("write-behind issued %d statements, direct %d", buffered.statements(), direct.statements())
+                .isLessThan(direct.statements());
+        log.info("like write modes, {} likers on one post over {} threads: direct {} ms / {} statements, " +
+                        "write-behind {} ms / {} statements ({}x)",
+                LIKERS, THREADS, direct.millis(), direct.statements(), buffered.millis(), buffered.statements(),
+                String.format("%.1f", (double) direct.millis() / Math.max(1, buffered.millis())));
+    }
+
+    // Likes a fresh post from every liker concurrently; write-behind mode includes the final flush
+    private Run run() throws InterruptedException {
+        Long postId = postService.createPost(new PostRequest("Hot post", null), authorId).getId();
+        AtomicInteger statements = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(LIKERS);
+
+        long start = System.nanoTime();
+        for (Long likerId : likerIds) {
+            pool.execute(() -> {
+                try {
+                    statements.addAndGet(QueryCounter.count(() -> likeService.likePost(postId, likerId)));
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertThat(done.await(10, TimeUnit.MINUTES)).as("likers did not finish within 10 minutes").isTrue();
+        if (likeWriteBuffer.isEnabled()) {
+            statements.addAndGet(QueryCounter.count(likeWriteBuffer::flush));
+            assertThat(likeWriteBuffer.getPendingCount()).as("likes left unflushed").isZero();
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM likes WHERE post_id = ?", Long.class, postId))
+                .as("like rows").isEqualTo(LIKERS);
+        assertThat(jdbcTemplate.queryForObject("SELECT like_count FROM posts WHERE id = ?", Long.class, postId))
+                .as("like counter").isEqualTo(LIKERS);
+        return new Run(millis, statements.get());
+    }
+
+    private record Run(long millis, int statements) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.socialmedia.shared.datasource;
+
+import com.socialmedia.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Two embedded H2 databases stand in for the PostgreSQL primary and its replica
+class ReplicaRoutingDataSourceTest {
+
+    private ReadYourWritesTracker tracker;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        tracker = new ReadYourWritesTracker(60);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, tracker, 1000);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        UserPrincipal user = new UserPrincipal(1L, "user@example.com", "", List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertThat(readOnly.execute(status -> server())).isEqualTo("replica");
+        assertThat(readWrite.execute(status -> server())).isEqualTo("primary");
+    }
+
+    @Test
+    void readWriteTransactionThatOnlyReadsDoesNotPinTheUser() {
+        readWrite.execute(status -> server());
+
+        assertThat(tracker.isSticky()).isFalse();
+        assertThat(readOnly.execute(status -> server())).isEqualTo("replica");
+    }
+
+    @Test
+    void committedWritePinsTheUserToThePrimary() {
+        readWrite.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO items (name) VALUES ('written')");
+            // Not sticky until the write is committed
+            assertThat(tracker.isSticky()).isFalse();
+        });
+
+        assertThat(tracker.isSticky()).isTrue();
+        assertThat(readOnly.execute(status -> server())).isEqualTo("primary");
+        assertThat(readOnly.execute(status -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM items WHERE name = 'written'", Integer.class))).isEqualTo(1);
+    }
+
+    @Test
+    void rolledBackWriteDoesNotPinTheUser() {
+        readWrite.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO items (name) VALUES ('discarded')");
+            status.setRollbackOnly();
+        });
+
+        assertThat(tracker.isSticky()).isFalse();
+        assertThat(readOnly.execute(status -> server())).isEqualTo("replica");
+    }
+
+    @Test
+    void writeKeywordsAreDetected() {
+        assertThat(ReplicaRoutingDataSource.isWrite("insert into items values (1)")).isTrue();
+        assertThat(ReplicaRoutingDataSource.isWrite("/* comment */ UPDATE items SET name = ?")).isTrue();
+        assertThat(ReplicaRoutingDataSource.isWrite("  DELETE FROM items")).isTrue();
+        assertThat(ReplicaRoutingDataSource.isWrite("SELECT * FROM items FOR UPDATE")).isFalse();
+        assertThat(ReplicaRoutingDataSource.isWrite("select pg_try_advisory_lock(?)")).isFalse();
+    }
+
+    private String server() {
+        return jdbcTemplate.queryForObject("SELECT name FROM server", String.class);
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate setup = new JdbcTemplate(dataSource);
+        setup.execute("CREATE TABLE server (name VARCHAR(20))");
+        setup.update("INSERT INTO server (name) VALUES (?)", name);
+        setup.execute("CREATE TABLE items (name VARCHAR(20))");
+        return dataSource;
+    }
+}